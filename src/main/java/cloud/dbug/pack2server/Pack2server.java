@@ -1,12 +1,18 @@
 package cloud.dbug.pack2server;
 
+import cloud.dbug.pack2server.cli.BatchCommand;
 import cloud.dbug.pack2server.cli.ConvertCommand;
+import cloud.dbug.pack2server.cli.LogOptions;
+import cloud.dbug.pack2server.cli.ServeCommand;
+import cloud.dbug.pack2server.cli.UpdateCommand;
+import cloud.dbug.pack2server.cli.VerifyCommand;
+import cloud.dbug.pack2server.common.log.Log;
 import cloud.dbug.pack2server.common.provider.ManifestVersionProvider;
-import cn.hutool.core.lang.Console;
 import picocli.CommandLine;
 
 /**
  * 应用入口
+ * <p>执行子命令前应用其日志参数，退出前等待日志写完。</p>
  * @author 拒绝者
  * @date 2025-09-05
  */
@@ -15,15 +21,25 @@ import picocli.CommandLine;
         header = "CurseForge mod package -> runnable server directory",
         versionProvider = ManifestVersionProvider.class,
         mixinStandardHelpOptions = true,
-        subcommands = {ConvertCommand.class}
+        subcommands = {ConvertCommand.class, BatchCommand.class, UpdateCommand.class, VerifyCommand.class, ServeCommand.class}
 )
 public class Pack2server implements Runnable {
     @Override
     public void run() {
-        Console.log("Run 'pack2server convert - h' to understand its usage");
+        Log.info("Run 'pack2server convert - h' to understand its usage");
     }
 
     static void main(final String[] args) {
-        System.exit(new CommandLine(new Pack2server()).execute(args));
+        final int exitCode = new CommandLine(new Pack2server())
+                .setExecutionStrategy(parseResult -> {
+                    parseResult.asCommandLineList().stream()
+                            .flatMap(command -> command.getMixins().values().stream())
+                            .filter(LogOptions.class::isInstance).map(LogOptions.class::cast)
+                            .reduce((_, last) -> last).ifPresent(LogOptions::apply);
+                    return new CommandLine.RunLast().execute(parseResult);
+                })
+                .execute(args);
+        Log.flush();
+        System.exit(exitCode);
     }
 }
\ No newline at end of file
@@ -0,0 +1,198 @@
+package cloud.dbug.pack2server.cli;
+
+import cloud.dbug.pack2server.common.converter.PackConverter;
+import cloud.dbug.pack2server.common.flight.FlightRecording;
+import cloud.dbug.pack2server.common.lock.LockFile;
+import cloud.dbug.pack2server.common.log.Log;
+import cn.hutool.core.lang.Opt;
+import cn.hutool.core.util.StrUtil;
+import lombok.SneakyThrows;
+import picocli.CommandLine;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * 在同一进程内并发转换多个整合包。
+ * <p>各整合包共享同一个转换器，即同一个 HTTP 客户端与下载调度：下载总并发受统一限制，相同 fileId 的模组只下载并检测一次；
+ * 加载器、运行时与依赖库经机器级缓存的目录锁天然去重。结束时输出各整合包汇总；
+ * 指定 {@code --metrics-file} 时运行期间定期刷新全批次的 Prometheus 指标文件。</p>
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+@CommandLine.Command(
+        name = "convert-batch",
+        description = "Convert several packs concurrently with shared downloads and caches",
+        mixinStandardHelpOptions = true
+)
+public class BatchCommand implements Callable<Integer> {
+    @CommandLine.Mixin
+    private LogOptions logging;
+    @CommandLine.Option(names = {"-l", "--list"}, required = true, description = "list file, one '<url-or-zip> <output-dir>' per line, '#' starts a comment")
+    private Path listFile;
+    @CommandLine.Option(names = {"-p", "--parallel"}, defaultValue = "2", description = "packs converted at the same time (default: ${DEFAULT-VALUE})")
+    private int parallel;
+    @CommandLine.Option(names = {"-d", "--downloads"}, defaultValue = "32", description = "total concurrent downloads across all packs (default: ${DEFAULT-VALUE})")
+    private int downloads;
+    @CommandLine.Option(names = {"--metrics-file"}, description = "keep this file updated with live Prometheus metrics of the whole batch")
+    private Path metricsFile;
+    @CommandLine.Option(names = {"--jfr"}, description = "record one JDK Flight Recorder file covering the whole batch")
+    private Path jfrFile;
+    @CommandLine.Unmatched
+    private List<String> convertArgs = new ArrayList<>();
+
+    /**
+     * 指标文件刷新间隔
+     */
+    private static final Duration LIVE_INTERVAL = Duration.ofSeconds(15);
+
+    @Override
+    @SneakyThrows
+    public Integer call() {
+        final Instant start = Instant.now();
+        final List<Entry> entries = read(listFile);
+        if (entries.isEmpty()) {
+            Log.error("[ERR] 批量清单为空：{}", listFile.toAbsolutePath());
+            return 1;
+        }
+        Log.info("[BATCH] 开始批量转换 | packs={} parallel={} downloads={} args={}", entries.size(), parallel, downloads, convertArgs);
+        final Semaphore slots = new Semaphore(Math.max(1, parallel));
+        final List<Future<Report>> futures;
+        final long reused;
+        try (final FlightRecording _ = FlightRecording.start(jfrFile);
+             final PackConverter converter = PackConverter.builder().downloads(downloads).build()) {
+            final Thread live = Thread.ofVirtual().name("p2s-metrics").start(() -> publish(converter));
+            try (final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                futures = entries.stream().map(entry -> executor.submit(() -> convert(converter, entry, slots))).toList();
+            } finally {
+                live.interrupt();
+                live.join();
+            }
+            reused = converter.reused();
+        }
+        final List<Report> reports = new ArrayList<>(futures.size());
+        for (final Future<Report> future : futures) {
+            reports.add(future.get());
+        }
+        final long failed = reports.stream().filter(r -> r.exitCode() != 0).count();
+        Log.info("[BATCH] 批量转换结束 | ok={} failed={} reused={} 耗时={}", reports.size() - failed, failed, reused, Duration.between(start, Instant.now()));
+        reports.forEach(r -> Log.info("[BATCH] {} | output={} mods={}/{} loader={} 耗时={}{}",
+                r.exitCode() == 0 ? "OK  " : "FAIL", r.entry().output(), r.kept(), r.total(), r.loader(), r.elapsed(),
+                StrUtil.isEmpty(r.error()) ? "" : " err=%s".formatted(r.error())));
+        return failed == 0 ? 0 : 1;
+    }
+
+    /**
+     * 定期刷新指标文件直至被中断，退出前再写一次
+     * @param converter 共用的转换器
+     */
+    private void publish(final PackConverter converter) {
+        if (Objects.isNull(metricsFile)) {
+            return;
+        }
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                converter.getMetrics().writePrometheus(metricsFile);
+                Thread.sleep(LIVE_INTERVAL);
+            }
+        } catch (final InterruptedException ignore) {
+            // 批次结束
+        } catch (final Exception e) {
+            Log.error("[BATCH] 指标文件写出失败 | file={} err={}", metricsFile, e.getMessage());
+            return;
+        }
+        converter.getMetrics().writePrometheus(metricsFile);
+        Log.info("[BATCH] 指标文件已写出 | file={}", metricsFile.toAbsolutePath());
+    }
+
+    /**
+     * 转换单个整合包
+     * @param converter 共用的转换器
+     * @param entry     清单条目
+     * @param slots     整合包并发槽位
+     * @return {@link Report }
+     */
+    private Report convert(final PackConverter converter, final Entry entry, final Semaphore slots) throws InterruptedException {
+        slots.acquire();
+        try {
+            final Instant start = Instant.now();
+            final AtomicReference<String> error = new AtomicReference<>();
+            final List<String> args = new ArrayList<>(List.of(entry.url() ? "-u" : "-z", entry.source(), "-o", entry.output().toString()));
+            args.addAll(convertArgs);
+            Log.info("[BATCH] 开始转换 | source={} output={}", entry.source(), entry.output());
+            final int exitCode = new CommandLine(new ConvertCommand(converter))
+                    .setExecutionExceptionHandler((e, _, _) -> {
+                        error.set(StrUtil.blankToDefault(e.getMessage(), e.getClass().getSimpleName()));
+                        Log.error("[BATCH] 转换失败 | output={} err={}", entry.output(), error.get());
+                        return 1;
+                    })
+                    .execute(args.toArray(String[]::new));
+            final Optional<LockFile> lock = exitCode == 0 ? LockFile.read(entry.output().toAbsolutePath().normalize()) : Optional.empty();
+            return new Report(entry, exitCode, Duration.between(start, Instant.now()),
+                    lock.map(l -> l.loader().id()).orElse("-"),
+                    lock.map(l -> l.mods().stream().filter(LockFile.Mod::kept).count()).orElse(0L),
+                    lock.map(l -> l.mods().size()).orElse(0),
+                    exitCode != 0 && Objects.isNull(error.get()) ? "exit=%d".formatted(exitCode) : error.get());
+        } finally {
+            slots.release();
+        }
+    }
+
+    /**
+     * 读取批量清单：每行 {@code <url 或 zip> <输出目录>}，以空白分隔，{@code #} 起始为注释
+     * @param file 清单文件
+     * @return {@link List }<{@link Entry }>
+     */
+    @SneakyThrows
+    static List<Entry> read(final Path file) {
+        try (final Stream<String> lines = Files.lines(file)) {
+            return lines.map(String::strip)
+                    .filter(line -> StrUtil.isNotEmpty(line) && !line.startsWith("#"))
+                    .map(line -> {
+                        final String[] parts = line.split("\\s+", 2);
+                        if (parts.length < 2) {
+                            throw new IllegalStateException("批量清单缺少输出目录：%s".formatted(line));
+                        }
+                        return new Entry(parts[0], Path.of(parts[1].strip()));
+                    }).toList();
+        }
+    }
+
+    /**
+     * 清单条目
+     * @param source 整合包地址或本地路径
+     * @param output 输出目录
+     */
+    record Entry(String source, Path output) {
+        /**
+         * 是否为远程地址
+         * @return boolean
+         */
+        boolean url() {
+            return Opt.ofNullable(source).map(s -> StrUtil.startWithAnyIgnoreCase(s, "http://", "https://")).orElse(Boolean.FALSE);
+        }
+    }
+
+    /**
+     * 单个整合包的转换汇总
+     * @param entry    清单条目
+     * @param exitCode 退出码
+     * @param elapsed  耗时
+     * @param loader   加载器
+     * @param kept     保留的模组数
+     * @param total    模组总数
+     * @param error    失败原因
+     */
+    record Report(Entry entry, int exitCode, Duration elapsed, String loader, long kept, int total, String error) {
+    }
+}
@@ -0,0 +1,31 @@
+package cloud.dbug.pack2server.cli;
+
+import cloud.dbug.pack2server.common.log.Log;
+import cloud.dbug.pack2server.common.log.enums.LogFormat;
+import cloud.dbug.pack2server.common.log.enums.LogLevel;
+import picocli.CommandLine;
+
+import java.nio.file.Path;
+
+/**
+ * 日志参数，以 {@link CommandLine.Mixin} 混入各子命令，由入口在执行前统一应用
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public class LogOptions {
+    @CommandLine.Option(names = {"-q", "--quiet"}, description = "hide per-file lines, keep stage summaries, warnings and errors")
+    private boolean quiet;
+    @CommandLine.Option(names = {"--log-level"}, defaultValue = "DETAIL", description = "lowest level printed: ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE})")
+    private LogLevel level;
+    @CommandLine.Option(names = {"--log-format"}, defaultValue = "TEXT", description = "log line format: ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE})")
+    private LogFormat format;
+    @CommandLine.Option(names = {"--log-file"}, description = "append log lines to this file instead of the console")
+    private Path file;
+
+    /**
+     * 应用到全局日志
+     */
+    public void apply() {
+        Log.configure(quiet && level.compareTo(LogLevel.INFO) < 0 ? LogLevel.INFO : level, format, file);
+    }
+}
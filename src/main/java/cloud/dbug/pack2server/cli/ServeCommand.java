@@ -0,0 +1,82 @@
+package cloud.dbug.pack2server.cli;
+
+import cloud.dbug.pack2server.common.converter.PackConverter;
+import cloud.dbug.pack2server.common.log.Log;
+import cloud.dbug.pack2server.common.service.Job;
+import cloud.dbug.pack2server.common.service.JobServer;
+import cloud.dbug.pack2server.common.service.JobService;
+import cn.hutool.core.util.StrUtil;
+import lombok.SneakyThrows;
+import picocli.CommandLine;
+
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * 常驻转换服务。
+ * <p>单进程持续运行，经 HTTP 接口提交、查询、取消转换任务并流式获取进度；
+ * 任务间复用热态的 HTTP 客户端、元数据与模组检测结论，免去每次启动 JVM 的开销。</p>
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+@CommandLine.Command(
+        name = "serve",
+        description = "Run a long-lived conversion service with an HTTP job API",
+        mixinStandardHelpOptions = true
+)
+public class ServeCommand implements Callable<Integer> {
+    @CommandLine.Mixin
+    private LogOptions logging;
+    @CommandLine.Option(names = {"--host"}, defaultValue = "127.0.0.1", description = "address to bind (default: ${DEFAULT-VALUE})")
+    private String host;
+    @CommandLine.Option(names = {"--port"}, defaultValue = "8080", description = "port to bind (default: ${DEFAULT-VALUE})")
+    private int port;
+    @CommandLine.Option(names = {"--workers"}, defaultValue = "2", description = "jobs converted at the same time (default: ${DEFAULT-VALUE})")
+    private int workers;
+    @CommandLine.Option(names = {"--queue"}, defaultValue = "16", description = "jobs allowed to wait in the queue (default: ${DEFAULT-VALUE})")
+    private int queue;
+    @CommandLine.Option(names = {"-d", "--downloads"}, defaultValue = "32", description = "total concurrent downloads across all jobs (default: ${DEFAULT-VALUE})")
+    private int downloads;
+    @CommandLine.Option(names = {"-k", "--key"}, description = "CurseForge API Key (supports env: CF_API_KEY) Note: wrap the key in single quotes, e.g. 'your-key'.")
+    private String cfApiKey;
+    @CommandLine.Option(names = {"--root"}, defaultValue = "./servers", description = "directory all job outputs are placed under (default: ${DEFAULT-VALUE})")
+    private Path root;
+
+    @Override
+    @SneakyThrows
+    public Integer call() {
+        Files.createDirectories(root);
+        final PackConverter converter = PackConverter.builder().downloads(downloads).apiKey(cfApiKey).build();
+        final JobServer server = new JobServer(new InetSocketAddress(host, port),
+                new JobService(workers, queue, converter.getMetrics(), job -> convert(converter, job)), root);
+        final CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            converter.close();
+            stopped.countDown();
+        }));
+        Log.info("[SERVE] 按 Ctrl+C 停止 | workers={} queue={} downloads={}", workers, queue, downloads);
+        stopped.await();
+        return 0;
+    }
+
+    /**
+     * 在当前线程执行一次转换，阶段日志作为任务进度
+     * @param converter 服务共用的转换器
+     * @param job       任务
+     * @return 退出码
+     */
+    public static int convert(final PackConverter converter, final Job job) {
+        return new CommandLine(new ConvertCommand(converter).listen(job::event))
+                // 参数来自 HTTP 请求，不展开 @文件
+                .setExpandAtFiles(Boolean.FALSE)
+                .setExecutionExceptionHandler((e, _, _) -> {
+                    job.fail(StrUtil.blankToDefault(e.getMessage(), e.getClass().getSimpleName()));
+                    return 1;
+                })
+                .execute(job.getRequest().arguments());
+    }
+}
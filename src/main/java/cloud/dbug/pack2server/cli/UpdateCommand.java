@@ -0,0 +1,151 @@
+package cloud.dbug.pack2server.cli;
+
+import cloud.dbug.pack2server.common.ServerWorkspace;
+import cloud.dbug.pack2server.common.converter.PackConverter;
+import cloud.dbug.pack2server.common.downloader.Downloader;
+import cloud.dbug.pack2server.common.extractor.ZipExtractor;
+import cloud.dbug.pack2server.common.fetcher.JreFetcher;
+import cloud.dbug.pack2server.common.fetcher.LibraryPrefetcher;
+import cloud.dbug.pack2server.common.fetcher.LoaderFetcher;
+import cloud.dbug.pack2server.common.fetcher.ModsBulkFetcher;
+import cloud.dbug.pack2server.common.launcher.LaunchScript;
+import cloud.dbug.pack2server.common.lock.LockFile;
+import cloud.dbug.pack2server.common.lock.OverrideIndex;
+import cloud.dbug.pack2server.common.log.Log;
+import cloud.dbug.pack2server.entity.PackManifest;
+import cloud.dbug.pack2server.entity.Source;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.lang.Opt;
+import cn.hutool.core.util.StrUtil;
+import lombok.SneakyThrows;
+import picocli.CommandLine;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 按锁定文件增量更新已转换的服务器目录。
+ * <p>对比新清单与覆盖文件：仅下载新增/变更的模组、删除已移除的模组，仅写入变更的覆盖文件；
+ * 世界存档与未变更的文件保持不动。加载器或 Minecraft 版本变化时才重新准备加载器与运行时。</p>
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+@CommandLine.Command(
+        name = "update",
+        description = "Incrementally update a converted server directory to a new pack version",
+        mixinStandardHelpOptions = true
+)
+public class UpdateCommand implements Callable<Integer> {
+    @CommandLine.Mixin
+    private LogOptions logging;
+    @CommandLine.ArgGroup(multiplicity = "1", heading = "Input source (choose one from two):%n")
+    private Source source;
+    @CommandLine.Option(names = {"-k", "--key"}, description = "CurseForge API Key (supports env: CF_API_KEY) Note: wrap the key in single quotes, e.g. 'your-key'.")
+    private String cfApiKey;
+    @CommandLine.Option(names = {"-o", "--output"}, defaultValue = "./server", description = "Converted server directory (default:./server)")
+    private Path serverDir;
+
+    @Override
+    @SneakyThrows
+    public Integer call() {
+        final Instant start = Instant.now();
+        serverDir = serverDir.toAbsolutePath().normalize();
+        final Optional<LockFile> locked = LockFile.read(serverDir);
+        if (locked.isEmpty()) {
+            Log.error("[ERR] 未找到锁定文件，请先执行 convert：{}", serverDir.resolve(LockFile.NAME));
+            return 1;
+        }
+        final LockFile lock = locked.get();
+        final Path work = Files.createTempDirectory(serverDir, ".update_");
+        try (final PackConverter converter = PackConverter.builder().apiKey(cfApiKey).build()) {
+            final Downloader downloader = converter.getDownloader();
+            /* 1. 读取新整合包 */
+            final Path pack = Opt.ofNullable(source.getZip())
+                    .orElseGet(() -> downloader.fetch(source.getUrl(), work.resolve(source.getName())));
+            final boolean zip = ZipExtractor.isZip(pack);
+            if (!zip) {
+                ServerWorkspace.EXTRACT_FILES.get(pack, work);
+            }
+            final PackManifest manifest = zip
+                    ? PackManifest.parse(new String(ZipExtractor.read(pack, ServerWorkspace.MANIFEST)
+                    .orElseThrow(() -> new IllegalStateException("整合包缺少清单文件")), StandardCharsets.UTF_8))
+                    : PackManifest.read(work.resolve(ServerWorkspace.MANIFEST));
+            Log.info("[UPDATE] 新清单 | {} -> {}", lock.pack().version(), manifest);
+            /* 2. 模组差异 */
+            final Path modDir = serverDir.resolve(ServerWorkspace.MOD);
+            final Map<Long, LockFile.Mod> previous = lock.mods().stream()
+                    .collect(Collectors.toMap(LockFile.Mod::fileId, Function.identity(), (a, _) -> a));
+            final Set<Long> wanted = manifest.fileIds().boxed().collect(Collectors.toCollection(LinkedHashSet::new));
+            final List<LockFile.Mod> removed = previous.values().stream().filter(m -> !wanted.contains(m.fileId())).toList();
+            removed.stream().filter(LockFile.Mod::kept).forEach(m -> FileUtil.del(modDir.resolve(m.file())));
+            final long[] added = wanted.stream().filter(id -> !previous.containsKey(id)).mapToLong(Long::longValue).toArray();
+            final List<ModsBulkFetcher.Fetched> fetched = added.length == 0
+                    ? List.of() : converter.getMods().fetchServerMods(converter.getMods().resolve(added), modDir);
+            final List<LockFile.Mod> mods = new ArrayList<>(previous.values().stream().filter(m -> wanted.contains(m.fileId())).toList());
+            fetched.stream().map(LockFile.Mod::of).forEach(mods::add);
+            Log.info("[UPDATE] 模组更新完成 | added={} removed={} unchanged={} failed={}",
+                    fetched.size(), removed.size(), wanted.size() - added.length, added.length - fetched.size());
+            /* 3. 覆盖文件差异 */
+            final String overrides = manifest.getOverrides();
+            final SortedMap<String, String> index = zip ? OverrideIndex.fromZip(pack, overrides) : OverrideIndex.fromDir(work.resolve(overrides));
+            final Set<String> changed = index.entrySet().stream()
+                    .filter(e -> !Objects.equals(lock.overrides().get(e.getKey()), e.getValue()))
+                    .map(Map.Entry::getKey).collect(Collectors.toSet());
+            final List<String> deleted = lock.overrides().keySet().stream().filter(k -> !index.containsKey(k)).toList();
+            deleted.stream().map(rel -> serverDir.resolve(rel).normalize())
+                    .filter(p -> p.startsWith(serverDir)).forEach(FileUtil::del);
+            if (zip) {
+                ZipExtractor.extract(pack, serverDir, name -> {
+                    final String rel = StrUtil.removePrefix(name, overrides + "/");
+                    return name.startsWith(overrides + "/") && changed.contains(rel) ? rel : null;
+                });
+            } else {
+                for (final String rel : changed) {
+                    final Path target = serverDir.resolve(rel);
+                    Files.createDirectories(target.getParent());
+                    Files.copy(work.resolve(overrides).resolve(rel), target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Log.info("[UPDATE] 覆盖文件更新完成 | changed={} deleted={} unchanged={}", changed.size(), deleted.size(), index.size() - changed.size());
+            /* 4. 加载器与运行时（仅在版本变化时） */
+            Path jreHome = Path.of(lock.jre().home());
+            LockFile.Loader loaderLock = lock.loader();
+            List<LibraryPrefetcher.Library> libraries = lock.libraries();
+            if (!Objects.equals(manifest.getMinecraftVersion(), lock.pack().minecraft())) {
+                jreHome = JreFetcher.setupRuntime(manifest, serverDir, JreFetcher.Options.DEFAULT, downloader);
+                Log.info("[UPDATE] Minecraft 版本变化，运行时已重新准备 | jre={}", jreHome);
+            }
+            if (!Objects.equals(manifest.getLoaderId(), loaderLock.id()) || !Objects.equals(manifest.getMinecraftVersion(), lock.pack().minecraft())) {
+                FileUtil.del(serverDir.resolve(loaderLock.jar()));
+                final LoaderFetcher.Loader loader = LoaderFetcher.exec(manifest, serverDir, downloader, converter.getExecutor());
+                libraries = LibraryPrefetcher.prefetch(loader, serverDir, downloader);
+                loaderLock = new LockFile.Loader(manifest.getLoaderId(), loader.getJarFileName());
+                LaunchScript.write(loader, jreHome, lock.tuning());
+                Log.info("[UPDATE] 加载器已更新，启动脚本按原调优选项重新生成 | loader={} profile={}", loaderLock.id(), lock.tuning().profile());
+            }
+            /* 5. 写出新锁定文件 */
+            new LockFile(LockFile.SCHEMA,
+                    new LockFile.Pack(manifest.getName(), manifest.getVersion(), manifest.getMinecraftVersion()),
+                    loaderLock, LockFile.Runtime.of(jreHome), mods, index, libraries, lock.tuning()
+            ).write(serverDir);
+            // 获取失败的模组未写入锁定文件，再次执行 update 时会重新获取
+            final long failed = added.length - fetched.size();
+            if (failed > 0) {
+                Log.error("[UPDATE] 部分模组获取失败，请重新执行 update | failed={} dir={}", failed, serverDir);
+                return 1;
+            }
+            Log.info("[UPDATE] 增量更新完成 | dir={} 耗时={}", serverDir, Duration.between(start, Instant.now()));
+            return 0;
+        } finally {
+            FileUtil.del(work.toFile());
+        }
+    }
+}
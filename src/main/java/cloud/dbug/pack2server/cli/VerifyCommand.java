@@ -0,0 +1,98 @@
+package cloud.dbug.pack2server.cli;
+
+import cloud.dbug.pack2server.common.ServerWorkspace;
+import cloud.dbug.pack2server.common.converter.PackConverter;
+import cloud.dbug.pack2server.common.fetcher.LibraryPrefetcher;
+import cloud.dbug.pack2server.common.fetcher.ModsBulkFetcher;
+import cloud.dbug.pack2server.common.lock.LockFile;
+import cloud.dbug.pack2server.common.log.Log;
+import cloud.dbug.pack2server.common.verify.Verifier;
+import cloud.dbug.pack2server.common.verify.enums.VerifyStatus;
+import cn.hutool.core.lang.Opt;
+import cn.hutool.core.util.StrUtil;
+import picocli.CommandLine;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 校验并修复已转换的服务器目录。
+ * <p>依据锁定文件并行校验 {@code mods/} 与 {@code libraries/} 中的全部文件，锁定文件缺少摘要的模组向 CurseForge 查询；
+ * 仅重新下载缺失或损坏的文件。</p>
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+@CommandLine.Command(
+        name = "verify",
+        description = "Verify tracked files of a converted server directory and refetch broken ones",
+        mixinStandardHelpOptions = true
+)
+public class VerifyCommand implements Callable<Integer> {
+    @CommandLine.Mixin
+    private LogOptions logging;
+    @CommandLine.Option(names = {"-k", "--key"}, description = "CurseForge API Key (supports env: CF_API_KEY) Note: wrap the key in single quotes, e.g. 'your-key'.")
+    private String cfApiKey;
+    @CommandLine.Option(names = {"--dry-run"}, description = "only report broken files, do not refetch")
+    private boolean dryRun;
+    @CommandLine.Option(names = {"-o", "--output"}, defaultValue = "./server", description = "Converted server directory (default:./server)")
+    private Path serverDir;
+
+    @Override
+    public Integer call() {
+        final Instant start = Instant.now();
+        serverDir = serverDir.toAbsolutePath().normalize();
+        final Optional<LockFile> locked = LockFile.read(serverDir);
+        if (locked.isEmpty()) {
+            Log.error("[ERR] 未找到锁定文件，请先执行 convert：{}", serverDir.resolve(LockFile.NAME));
+            return 1;
+        }
+        try (final PackConverter converter = PackConverter.builder().apiKey(cfApiKey).build()) {
+            final List<Verifier.Target> targets = targets(locked.get(), converter.getMods());
+            List<Verifier.Outcome> outcomes = Verifier.check(targets);
+            Log.info("[VERIFY] 校验完成 | files={} result={} 耗时={}", targets.size(), summary(outcomes), Duration.between(start, Instant.now()));
+            outcomes.stream().filter(o -> o.status().broken())
+                    .forEach(o -> Log.info("[VERIFY] {} | file={}", o.status(), serverDir.relativize(o.target().file())));
+            if (!dryRun && outcomes.stream().anyMatch(o -> o.status().broken())) {
+                outcomes = Verifier.repair(outcomes, converter.getDownloader());
+                Log.info("[VERIFY] 修复完成 | result={} 耗时={}", summary(outcomes), Duration.between(start, Instant.now()));
+            }
+            return outcomes.stream().anyMatch(o -> o.status().broken() || o.status() == VerifyStatus.FAILED) ? 1 : 0;
+        }
+    }
+
+    /**
+     * 由锁定文件生成校验目标，缺少摘要的模组以接口摘要补齐
+     * @param lock    锁定文件
+     * @param fetcher 模组提取器
+     * @return {@link List }<{@link Verifier.Target }>
+     */
+    private List<Verifier.Target> targets(final LockFile lock, final ModsBulkFetcher fetcher) {
+        final List<LockFile.Mod> kept = lock.mods().stream().filter(LockFile.Mod::kept).toList();
+        final long[] unknown = kept.stream().filter(m -> StrUtil.isBlank(m.sha1())).mapToLong(LockFile.Mod::fileId).toArray();
+        final Map<Long, ModsBulkFetcher.ModFile> remote = unknown.length == 0 ? Map.of()
+                : fetcher.resolve(unknown).stream().collect(Collectors.toMap(ModsBulkFetcher.ModFile::fileId, Function.identity(), (a, _) -> a));
+        final Path modDir = serverDir.resolve(ServerWorkspace.MOD);
+        final Path libraryDir = serverDir.resolve(LibraryPrefetcher.LIBRARIES);
+        return Stream.concat(
+                kept.stream().map(m -> Opt.ofNullable(remote.get(m.fileId()))
+                        .map(r -> new Verifier.Target(modDir.resolve(m.file()), r.sha1(), StrUtil.blankToDefault(m.url(), r.url())))
+                        .orElseGet(() -> new Verifier.Target(modDir.resolve(m.file()), m.sha1(), m.url()))),
+                lock.libraries().stream().map(l -> new Verifier.Target(LibraryPrefetcher.resolve(libraryDir, l.path()), l.sha1(), l.url()))
+        ).toList();
+    }
+
+    /**
+     * 按状态计数
+     * @param outcomes 结果
+     * @return {@link Map }<{@link VerifyStatus }, {@link Long }>
+     */
+    private static Map<VerifyStatus, Long> summary(final List<Verifier.Outcome> outcomes) {
+        return outcomes.stream().collect(Collectors.groupingBy(Verifier.Outcome::status, () -> new EnumMap<>(VerifyStatus.class), Collectors.counting()));
+    }
+}
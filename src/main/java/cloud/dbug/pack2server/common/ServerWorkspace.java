@@ -1,9 +1,12 @@
 package cloud.dbug.pack2server.common;
 
+import cloud.dbug.pack2server.common.extractor.ZipExtractor;
+import cloud.dbug.pack2server.common.materializer.Materializer;
 import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.io.IORuntimeException;
 import cn.hutool.core.lang.Opt;
 import cn.hutool.core.lang.func.Supplier2;
+import cn.hutool.core.lang.func.Supplier3;
 import cn.hutool.core.util.CharsetUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.extra.compress.CompressUtil;
@@ -71,17 +74,28 @@ public class ServerWorkspace {
      */
     public static final Consumer<Path> LICENSE = parent -> FileUtil.writeUtf8String("eula=true", FileUtil.file(parent.toFile(), "eula.txt"));
     /**
-     * 复制目录
+     * 复制目录；源保持不变，优先 reflink 再并行复制
      */
     public static final Supplier2<File, File, File> COPY_DIR = (src, dest) -> {
-        ServerWorkspace.ensure(dest.toPath());
-        return FileUtil.copyContent(src, dest, Boolean.TRUE);
+        ServerWorkspace.ensure(dest.toPath(), Boolean.FALSE, null);
+        Materializer.materialize(src.toPath(), dest.toPath(), Boolean.FALSE);
+        return dest;
     };
     /**
-     * 提取文件
+     * 迁移目录；源为可丢弃的临时目录，依次尝试移动、硬链接、reflink、并行复制
+     */
+    public static final Supplier2<File, File, File> MOVE_DIR = (src, dest) -> {
+        ServerWorkspace.ensure(dest.toPath(), Boolean.FALSE, null);
+        Materializer.materialize(src.toPath(), dest.toPath(), Boolean.TRUE);
+        return dest;
+    };
+    /**
+     * 提取文件；zip 走并行解压，其余格式交由 Hutool
      */
     public static final Supplier2<Path, Path, Path> EXTRACT_FILES = (src, dest) -> {
-        if (Objects.nonNull(src) && Objects.nonNull(dest)) {
+        if (Objects.nonNull(src) && Objects.nonNull(dest) && ZipExtractor.isZip(src)) {
+            ZipExtractor.extract(src, dest);
+        } else if (Objects.nonNull(src) && Objects.nonNull(dest)) {
             try (final Extractor extractor = CompressUtil.createExtractor(CharsetUtil.CHARSET_UTF_8, src.toFile())) {
                 extractor.extract(dest.toFile());
             }
@@ -93,6 +107,11 @@ public class ServerWorkspace {
             throw new IORuntimeException(e);
         }
     };
+    /**
+     * 直接释放覆盖文件：仅解压清单声明的覆盖目录下的条目，去掉前缀后写入服务目录
+     */
+    public static final Supplier3<Integer, Path, Path, String> EXTRACT_OVERRIDES = (pack, dest, overrides) ->
+            ZipExtractor.extract(pack, dest, name -> StrUtil.startWith(name, overrides + "/") ? StrUtil.removePrefix(name, overrides + "/") : null);
 
     /**
      * 确保 目录或文件
@@ -0,0 +1,148 @@
+package cloud.dbug.pack2server.common.cache;
+
+import cloud.dbug.pack2server.common.log.Log;
+import cloud.dbug.pack2server.common.metrics.MetricsRegistry;
+import cn.hutool.core.lang.Opt;
+import lombok.SneakyThrows;
+import lombok.experimental.UtilityClass;
+
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 机器级缓存仓库
+ * <p>根目录默认为 {@code ~/.pack2server}，可通过环境变量 {@code P2S_CACHE} 或系统属性 {@code p2s.cache} 覆盖。
+ * 同一目录的写操作经进程内锁与 {@code .lock} 文件锁串行化，多个转换进程可安全并发。</p>
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+@UtilityClass
+public class CacheStore {
+    /**
+     * 缓存根目录
+     */
+    public static final Path HOME = Path.of(Opt.ofBlankAble(System.getenv("P2S_CACHE"))
+                    .orElseGet(() -> System.getProperty("p2s.cache", Path.of(System.getProperty("user.home"), ".pack2server").toString())))
+            .toAbsolutePath().normalize();
+    /**
+     * 锁文件名
+     */
+    private static final String LOCK_FILE = ".lock";
+    /**
+     * 进程内锁；文件锁由 JVM 整体持有，同进程线程间需额外互斥
+     */
+    private static final Map<Path, ReentrantLock> LOCKS = new ConcurrentHashMap<>();
+
+    /**
+     * 解析缓存路径
+     * @param first 首段
+     * @param more  其余段
+     * @return {@link Path }
+     */
+    public static Path resolve(final String first, final String... more) {
+        return HOME.resolve(Path.of(first, more));
+    }
+
+    /**
+     * 持有目录锁执行
+     * @param dir    目录
+     * @param action 操作
+     * @return {@link T }
+     */
+    @SneakyThrows
+    public static <T> T locked(final Path dir, final Callable<T> action) {
+        Files.createDirectories(dir);
+        final ReentrantLock local = LOCKS.computeIfAbsent(dir.toAbsolutePath().normalize(), _ -> new ReentrantLock());
+        local.lock();
+        try (final FileChannel channel = FileChannel.open(dir.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             final FileLock _ = channel.lock()) {
+            return action.call();
+        } finally {
+            local.unlock();
+        }
+    }
+
+    /**
+     * 文件是否在有效期内
+     * @param file 文件
+     * @param ttl  有效期
+     * @return boolean
+     */
+    public static boolean fresh(final Path file, final Duration ttl) {
+        try {
+            return Files.exists(file) && Files.getLastModifiedTime(file).toInstant().plus(ttl).isAfter(Instant.now());
+        } catch (final Exception ignore) {
+            return Boolean.FALSE;
+        }
+    }
+
+    /**
+     * 读取带有效期的文本缓存
+     * <p>缓存有效时直接返回；过期或缺失时经 loader 刷新，刷新失败则回退到过期缓存，便于离线运行。</p>
+     * @param file   缓存文件
+     * @param ttl    有效期
+     * @param loader 加载器
+     * @return {@link String }
+     */
+    @SneakyThrows
+    public static String text(final Path file, final Duration ttl, final Supplier<String> loader) {
+        if (fresh(file, ttl)) {
+            return Files.readString(file);
+        }
+        try {
+            final String content = loader.get();
+            Files.createDirectories(file.getParent());
+            final Path partial = file.resolveSibling(".%s.%d".formatted(file.getFileName(), ProcessHandle.current().pid()));
+            Files.writeString(partial, content);
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return content;
+        } catch (final Exception e) {
+            if (Files.exists(file)) {
+                Log.warn("[CACHE] 刷新失败，使用过期缓存 | file={} err={}", file, e.getMessage());
+                return Files.readString(file);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 记录一次缓存查找结果
+     * @param metrics 指标注册表
+     * @param cache   缓存类别
+     * @param hit     是否命中
+     * @return 是否命中
+     */
+    public static boolean lookup(final MetricsRegistry metrics, final String cache, final boolean hit) {
+        metrics.counter("p2s_cache_lookups_total", "Machine cache lookups by cache and result", "cache", cache, "result", hit ? "hit" : "miss").increment();
+        return hit;
+    }
+
+    /**
+     * 将缓存文件放置到目标位置：优先硬链接，失败时复制
+     * @param cached 缓存文件
+     * @param target 目标文件
+     * @return 目标文件
+     */
+    @SneakyThrows
+    public static Path place(final Path cached, final Path target) {
+        Files.createDirectories(target.getParent());
+        Files.deleteIfExists(target);
+        try {
+            Files.createLink(target, cached);
+        } catch (final Exception ignore) {
+            Files.copy(cached, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return target;
+    }
+}
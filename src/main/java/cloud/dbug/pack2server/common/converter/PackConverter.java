@@ -0,0 +1,552 @@
+package cloud.dbug.pack2server.common.converter;
+
+import cloud.dbug.pack2server.common.ServerWorkspace;
+import cloud.dbug.pack2server.common.digest.FileDigest;
+import cloud.dbug.pack2server.common.downloader.DownloadScheduler;
+import cloud.dbug.pack2server.common.downloader.Downloader;
+import cloud.dbug.pack2server.common.extractor.ZipExtractor;
+import cloud.dbug.pack2server.common.fetcher.JavaDiscovery;
+import cloud.dbug.pack2server.common.fetcher.JreFetcher;
+import cloud.dbug.pack2server.common.fetcher.LibraryPrefetcher;
+import cloud.dbug.pack2server.common.fetcher.LoaderFetcher;
+import cloud.dbug.pack2server.common.fetcher.ModsBulkFetcher;
+import cloud.dbug.pack2server.common.launcher.LaunchScript;
+import cloud.dbug.pack2server.common.lock.LockFile;
+import cloud.dbug.pack2server.common.lock.OverrideIndex;
+import cloud.dbug.pack2server.common.log.Log;
+import cloud.dbug.pack2server.common.metrics.MetricsRegistry;
+import cloud.dbug.pack2server.common.runner.WarmupRunner;
+import cloud.dbug.pack2server.common.runner.enums.WarmupStatus;
+import cloud.dbug.pack2server.common.stage.StageGraph;
+import cloud.dbug.pack2server.common.stage.StageJournal;
+import cloud.dbug.pack2server.entity.PackManifest;
+import cloud.dbug.pack2server.entity.Source;
+import cn.hutool.core.date.DatePattern;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.lang.Opt;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import lombok.Getter;
+import lombok.SneakyThrows;
+
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * 整合包转换器
+ * <p>执行器、HTTP 客户端、下载调度（限流与去重）、模组检测统计与 API 密钥均属于实例，由 {@link Builder} 配置；
+ * 同一进程可并行持有多个转换器，或让多个转换共用一个转换器以共享连接与下载。
+ * 磁盘上的机器级缓存（运行时、加载器、依赖库）按设计跨实例共享，由目录锁保证并发安全。
+ * 每次转换在转换器的指标注册表下建立子表，结束时写出运行报告；转换器注册表汇总全部转换，供批量与服务模式实时导出。</p>
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public final class PackConverter implements AutoCloseable {
+    /**
+     * 下载的整合包存放目录
+     */
+    private static final String PACK_DIR = ".pack";
+    /**
+     * 运行报告文件名
+     */
+    public static final String REPORT = "pack2server.report.json";
+    /**
+     * 同进程内的初次运行串行执行，避免多个服务端争用同一端口（端口属于机器，故跨实例共享）
+     */
+    private static final ReentrantLock WARMUP_LOCK = new ReentrantLock();
+    /**
+     * 下载器
+     */
+    @Getter
+    private final Downloader downloader;
+    /**
+     * 模组提取器
+     */
+    @Getter
+    private final ModsBulkFetcher mods;
+    /**
+     * 指标注册表，汇总本实例的全部转换
+     */
+    @Getter
+    private final MetricsRegistry metrics;
+    /**
+     * 异步执行器（HTTP 客户端与加载器准备共用）
+     */
+    @Getter
+    private final Executor executor;
+    /**
+     * 同时驻留内存的下载数
+     */
+    private final int memorySlots;
+    /**
+     * 由本实例创建、需随之关闭的资源
+     */
+    private final List<AutoCloseable> owned;
+
+    private PackConverter(final Downloader downloader, final Executor executor, final String apiKey, final int memorySlots, final List<AutoCloseable> owned) {
+        this.downloader = downloader;
+        this.executor = executor;
+        this.metrics = downloader.getMetrics();
+        this.memorySlots = memorySlots;
+        this.mods = new ModsBulkFetcher(downloader, apiKey, memorySlots);
+        this.owned = owned;
+    }
+
+    /**
+     * 创建构建器
+     * @return {@link Builder }
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 以另一 API 密钥派生转换器：共用执行器、HTTP 客户端与下载调度，检测统计独立
+     * <p>派生实例不持有资源，关闭与否不影响本实例。</p>
+     * @param apiKey CurseForge api密钥，为空时返回本实例
+     * @return {@link PackConverter }
+     */
+    public PackConverter withApiKey(final String apiKey) {
+        return Opt.ofBlankAble(apiKey).map(k -> new PackConverter(downloader, executor, k, memorySlots, List.of())).orElse(this);
+    }
+
+    /**
+     * 下载去重复用次数
+     * @return long
+     */
+    public long reused() {
+        return downloader.getScheduler().reused();
+    }
+
+    /**
+     * 执行一次转换，无论成败均写出运行报告（及可选的 Prometheus 文本文件）
+     * @param request 转换请求
+     * @return 锁定文件路径
+     */
+    @SneakyThrows
+    public Path convert(final Request request) {
+        final Instant start = Instant.now();
+        final Path serverOutputDir = request.output().toAbsolutePath().normalize();
+        final MetricsRegistry run = metrics.child();
+        final Downloader downloader = this.downloader.withMetrics(run);
+        final StageGraph graph = new StageGraph(run);
+        String status = "FAILED";
+        String error = null;
+        try {
+            final Path lock = pipeline(request, serverOutputDir, start, graph, downloader, mods.withDownloader(downloader));
+            status = "DONE";
+            return lock;
+        } catch (final InterruptedException e) {
+            status = "CANCELLED";
+            error = e.getMessage();
+            throw e;
+        } catch (final Exception e) {
+            error = StrUtil.blankToDefault(e.getMessage(), e.getClass().getSimpleName());
+            throw e;
+        } finally {
+            final Duration elapsed = Duration.between(start, Instant.now());
+            run.timer("p2s_conversion_seconds", "Whole conversion run time", "status", status).record(elapsed);
+            report(serverOutputDir, request, start, elapsed, status, error, graph, run);
+        }
+    }
+
+    /**
+     * 转换流程
+     * <p>核心流程：下载→解压→模组批量获取→服务端侧模组过滤→覆盖文件复制→加载器生成→启动脚本写出；
+     * 各阶段按依赖图并发执行，完成的阶段记入阶段日志，中断后重跑直接续上。</p>
+     * @param request         转换请求
+     * @param serverOutputDir 输出目录
+     * @param start           开始时间
+     * @param graph           阶段依赖图
+     * @param downloader      本次转换的下载器
+     * @param fetcher         本次转换的模组提取器
+     * @return 锁定文件路径
+     */
+    private Path pipeline(final Request request, final Path serverOutputDir, final Instant start, final StageGraph graph,
+                          final Downloader downloader, final ModsBulkFetcher fetcher) throws Exception {
+        final Consumer<String> log = stage -> {
+            final Instant now = Instant.now();
+            Log.info("[{}] {} | 已耗时={}", DatePattern.NORM_DATETIME_MS_FORMATTER.format(now), stage, Duration.between(start, now));
+            request.listener().accept(stage);
+        };
+        log.accept("Stage-0 参数解析完成");
+        /* 0. 清理历史输出目录（如开启 force），否则沿用阶段日志续跑 */
+        if (request.force()) {
+            FileUtil.clean(serverOutputDir.toFile());
+        }
+        ServerWorkspace.BUILD_DIR.accept(serverOutputDir.toFile());
+        final StageJournal journal = new StageJournal(serverOutputDir);
+        /* 1. 获取整合包本地路径（下载或直接使用） */
+        final Path packLocalPath = resolvePackPath(request.source(), serverOutputDir, downloader);
+        if (Files.notExists(packLocalPath)) {
+            throw new IllegalStateException("整合包不存在：%s".formatted(packLocalPath));
+        }
+        final String packFingerprint = StageJournal.fingerprint(FileDigest.sha256(packLocalPath));
+        log.accept("Stage-1 工作目录初始化完成");
+        /* 阶段依赖图：清单就绪后，模组、运行环境与加载器互不依赖，并发执行；覆盖文件可能写入 mods/，须等模组阶段清空目录后再复制 */
+        final boolean direct = !request.staged() && ZipExtractor.isZip(packLocalPath);
+        // 清除中断运行遗留的临时解压目录
+        try (final Stream<Path> stale = Files.list(serverOutputDir)) {
+            stale.filter(p -> p.getFileName().toString().startsWith(".extract_")).forEach(FileUtil::del);
+        }
+        final Path extractDir = Files.createTempDirectory(serverOutputDir, ".extract_");
+        /* 2. 解压整合包 -> 临时目录（直接模式只取出清单，覆盖文件稍后直接写入服务目录） */
+        final StageGraph.Stage<PackManifest> extract = graph.add("extract", () -> {
+            final PackManifest manifest;
+            if (direct) {
+                manifest = PackManifest.parse(new String(
+                        ZipExtractor.read(packLocalPath, ServerWorkspace.MANIFEST).orElseThrow(() -> new IllegalStateException("整合包缺少清单文件")),
+                        StandardCharsets.UTF_8
+                ));
+            } else {
+                ServerWorkspace.EXTRACT_FILES.get(packLocalPath, extractDir);
+                manifest = PackManifest.read(extractDir.resolve(ServerWorkspace.MANIFEST));
+            }
+            log.accept("Stage-2 整合包解压完成，模式=%s 清单=%s".formatted(direct ? "direct" : "staged", manifest));
+            return manifest;
+        });
+        /* 3. 模组批量下载 & 服务端侧过滤（内存检测，仅服务端模组落盘） */
+        final Path modDir = serverOutputDir.resolve(ServerWorkspace.MOD);
+        final StageGraph.Stage<List<LockFile.Mod>> mods = graph.add("mods", journal.resume("mods",
+                () -> StageJournal.fingerprint(Arrays.toString(extract.get().fileIds().toArray())),
+                new StageJournal.Codec<>(
+                        list -> LockFile.modsJson(list).toString(),
+                        json -> Opt.of(LockFile.mods(JSONUtil.parseArray(json)))
+                                .filter(list -> missingMods(extract.get(), list).length == 0)
+                                .filter(list -> list.stream().filter(LockFile.Mod::kept).allMatch(m -> Files.isRegularFile(modDir.resolve(m.file()))))
+                                .toOptional()),
+                () -> {
+                    final List<LockFile.Mod> fetched = fetcher.fetchServerMods(extract.get(), modDir).stream().map(LockFile.Mod::of).toList();
+                    // 与 update 一致：有模组获取失败时本阶段失败，不写入阶段日志与锁定文件，重跑时重新获取
+                    final long[] missing = missingMods(extract.get(), fetched);
+                    if (missing.length > 0) {
+                        throw new IllegalStateException("部分模组获取失败，请重新执行 | failed=%d fileIds=%s".formatted(missing.length, Arrays.toString(missing)));
+                    }
+                    final long serverOnlyMods = fetched.stream().filter(LockFile.Mod::kept).count();
+                    log.accept("Stage-3 模组下载与过滤完成，保留数量=%d 规则命中=%s".formatted(serverOnlyMods, fetcher.stats()));
+                    return fetched;
+                }), extract);
+        /* 4. 覆盖文件复制（直接模式仅依赖整合包本身；排在模组之后，避免被模组阶段清空） */
+        final StageGraph.Stage<SortedMap<String, String>> overrides = graph.add("overrides", journal.resume("overrides",
+                () -> StageJournal.fingerprint(packFingerprint, direct),
+                new StageJournal.Codec<>(
+                        index -> LockFile.overridesJson(index).toString(),
+                        json -> Optional.of(LockFile.overrides(JSONUtil.parseObj(json))).filter(index -> OverrideIndex.intact(serverOutputDir, index))),
+                () -> {
+                    final String overridesName = extract.get().getOverrides();
+                    final Path overridesDir = extractDir.resolve(overridesName);
+                    final SortedMap<String, String> index;
+                    if (direct) {
+                        index = OverrideIndex.fromZip(packLocalPath, overridesName);
+                        ServerWorkspace.EXTRACT_OVERRIDES.get(packLocalPath, serverOutputDir, overridesName);
+                    } else {
+                        index = OverrideIndex.fromDir(overridesDir);
+                        if (Files.exists(overridesDir)) {
+                            ServerWorkspace.MOVE_DIR.get(overridesDir.toFile(), serverOutputDir.toFile());
+                        }
+                    }
+                    log.accept("Stage-4 覆盖文件复制完成，文件数=%d".formatted(index.size()));
+                    return index;
+                }), extract, mods);
+        /* 5. 运行环境释放 */
+        final JreFetcher.Options jreOptions = request.runtime();
+        final StageGraph.Stage<Path> jre = graph.add("jre", journal.resume("jre",
+                () -> StageJournal.fingerprint(extract.get().getMinecraftVersion(), jreOptions),
+                new StageJournal.Codec<>(Path::toString, text -> Optional.of(Path.of(text)).filter(p -> JavaDiscovery.readMajor(p).isPresent())),
+                () -> {
+                    final Path jrePath = JreFetcher.setupRuntime(extract.get(), serverOutputDir, jreOptions, downloader);
+                    log.accept("Stage-5 运行环境释放完成");
+                    return jrePath;
+                }), extract);
+        /* 6. 加载器 & 依赖库预取 */
+        final StageGraph.Stage<LoaderFetcher.Loader> loader = graph.add("loader", journal.resume("loader",
+                () -> StageJournal.fingerprint(extract.get().getLoaderId(), extract.get().getMinecraftVersion()),
+                new StageJournal.Codec<>(LoaderFetcher.Loader::getJarFileName, jar -> Optional.of(LoaderFetcher.describe(extract.get(), serverOutputDir, downloader))
+                        .filter(l -> Objects.equals(l.getJarFileName(), jar) && Files.isRegularFile(serverOutputDir.resolve(jar)))),
+                () -> {
+                    final LoaderFetcher.Loader fetched = LoaderFetcher.exec(extract.get(), serverOutputDir, downloader, executor);
+                    log.accept("Stage-6 加载器准备完成");
+                    return fetched;
+                }), extract);
+        final StageGraph.Stage<List<LibraryPrefetcher.Library>> libraries = graph.add("libraries", journal.resume("libraries",
+                () -> StageJournal.fingerprint(extract.get().getLoaderId(), extract.get().getMinecraftVersion()),
+                new StageJournal.Codec<>(
+                        list -> LockFile.librariesJson(list).toString(),
+                        json -> Opt.of(LockFile.libraries(JSONUtil.parseArray(json)))
+                                .filter(list -> list.stream().allMatch(l -> Files.isRegularFile(serverOutputDir.resolve(LibraryPrefetcher.LIBRARIES).resolve(l.path()))))
+                                .toOptional()),
+                () -> LibraryPrefetcher.prefetch(loader.get(), serverOutputDir, downloader)), loader);
+        /* 7. 清理临时解压目录 & 写出锁定文件 */
+        graph.add("cleanup", () -> {
+            FileUtil.del(extractDir.toFile());
+            FileUtil.del(serverOutputDir.resolve(PACK_DIR));
+            log.accept("Stage-7 临时目录清理完成");
+            return extractDir;
+        }, mods, overrides, jre, loader);
+        final StageGraph.Stage<Path> lock = graph.add("lock", () -> {
+            final PackManifest manifest = extract.get();
+            final Path lockFile = new LockFile(LockFile.SCHEMA,
+                    new LockFile.Pack(manifest.getName(), manifest.getVersion(), manifest.getMinecraftVersion()),
+                    new LockFile.Loader(manifest.getLoaderId(), loader.get().getJarFileName()),
+                    LockFile.Runtime.of(jre.get()),
+                    mods.get(),
+                    overrides.get(), libraries.get(), request.tuning()
+            ).write(serverOutputDir);
+            log.accept("Stage-7 锁定文件已写出，文件=%s".formatted(lockFile));
+            return lockFile;
+        }, extract, mods, overrides, jre, loader, libraries);
+        /* 8. 初次运行 */
+        final boolean cds = request.cds();
+        final StageGraph.Stage<WarmupRunner.Result> warmup = graph.add("warmup", journal.resume("warmup",
+                () -> StageJournal.fingerprint(LockFile.modsJson(mods.get()), loader.get().getJarFileName(), jre.get(), cds),
+                new StageJournal.Codec<>(
+                        result -> result.status().name(),
+                        status -> Optional.of(status).filter(WarmupStatus.READY.name()::equals)
+                                .map(_ -> new WarmupRunner.Result(WarmupStatus.READY, null, Duration.ZERO, 0))),
+                () -> {
+                    WARMUP_LOCK.lock();
+                    try {
+                        // 首次运行需已接受许可，才能真正启动到就绪
+                        ServerWorkspace.LICENSE.accept(serverOutputDir);
+                        final WarmupRunner.Result cold = loader.get().warmup(jre.get(), request.warmupTimeout(), cds);
+                        log.accept("Stage-8 初次运行结束，状态=%s 就绪耗时=%s".formatted(cold.status(), cold.timeToReady()));
+                        if (request.warmupStrict() && cold.status() != WarmupStatus.READY) {
+                            throw new IllegalStateException("[WARMUP] 初次运行未就绪 | status=%s exit=%d".formatted(cold.status(), cold.exitCode()));
+                        }
+                        // 归档生效后再启动一次，对比冷/热启动耗时
+                        if (cds && cold.status() == WarmupStatus.READY && loader.get().buildStartCommand(jre.get()).stream().anyMatch(a -> a.startsWith("-XX:SharedArchiveFile="))) {
+                            final WarmupRunner.Result warm = loader.get().warmup(jre.get(), request.warmupTimeout(), Boolean.FALSE);
+                            log.accept("Stage-8 AppCDS 启动对比，冷启动=%s 热启动=%s".formatted(cold.timeToReady(), warm.timeToReady()));
+                        }
+                        return cold;
+                    } finally {
+                        WARMUP_LOCK.unlock();
+                    }
+                }), mods, overrides, jre, libraries);
+        /* 9. 写出运行脚本 */
+        graph.add("scripts", () -> {
+            final List<String> command = LaunchScript.write(loader.get(), jre.get(), request.tuning());
+            log.accept("Stage-9 加载器=%s\n运行脚本=%s\n运行命令=%s".formatted(loader.get(), serverOutputDir.resolve(LaunchScript.SHELL), String.join(" ", command)));
+            return command;
+        }, warmup);
+        graph.run();
+        /* 10. 完成 */
+        log.accept("Stage-10 已完成转换~");
+        return lock.get();
+    }
+
+    /**
+     * 清单中未出现在获取结果里的模组文件（客户端模组同样计入结果）
+     * @param manifest 清单
+     * @param mods     获取结果
+     * @return 缺失的文件 ID
+     */
+    private static long[] missingMods(final PackManifest manifest, final List<LockFile.Mod> mods) {
+        final Set<Long> fetched = new HashSet<>();
+        mods.forEach(mod -> fetched.add(mod.fileId()));
+        return manifest.fileIds().filter(id -> !fetched.contains(id)).toArray();
+    }
+
+    /**
+     * 解析整合包本地路径：若给的是 URL 则先下载，否则直接使用本地 zip。
+     * <p>下载到输出目录的 {@code .pack/}，完整下载后才落到最终文件名，中断后重跑可直接复用。</p>
+     * @param source          来源
+     * @param serverOutputDir 输出目录
+     * @param downloader      下载器
+     * @return 整合包本地路径
+     */
+    @SneakyThrows
+    private static Path resolvePackPath(final Source source, final Path serverOutputDir, final Downloader downloader) {
+        if (Objects.nonNull(source.getZip())) {
+            return source.getZip();
+        }
+        final Path target = serverOutputDir.resolve(PACK_DIR).resolve(source.getName());
+        if (Files.isRegularFile(target)) {
+            return target;
+        }
+        final Path partial = target.resolveSibling(".partial-%s".formatted(target.getFileName()));
+        Files.createDirectories(target.getParent());
+        downloader.fetch(source.getUrl(), partial);
+        return Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * 写出运行报告：各阶段状态与耗时、关键路径、缓存命中率与本次转换的全部指标；报告失败不影响转换结果
+     * @param serverOutputDir 输出目录
+     * @param request         转换请求
+     * @param start           开始时间
+     * @param elapsed         总耗时
+     * @param status          结果
+     * @param error           失败原因
+     * @param graph           阶段依赖图
+     * @param run             本次转换的指标
+     */
+    private static void report(final Path serverOutputDir, final Request request, final Instant start, final Duration elapsed,
+                               final String status, final String error, final StageGraph graph, final MetricsRegistry run) {
+        try {
+            final JSONObject metrics = run.toJson();
+            final JSONObject cache = JSONUtil.createObj();
+            Opt.ofNullable(metrics.getJSONArray("p2s_cache_lookups_total")).orElse(new JSONArray()).jsonIter().forEach(series -> {
+                final JSONObject labels = series.getJSONObject("labels");
+                final JSONObject entry = Opt.ofNullable(cache.getJSONObject(labels.getStr("cache"))).orElseGet(() -> JSONUtil.createObj().set("hit", 0L).set("miss", 0L));
+                entry.set(labels.getStr("result"), entry.getLong(labels.getStr("result"), 0L) + series.getLong("value", 0L));
+                entry.set("rate", entry.getLong("hit") / (double) Math.max(1L, entry.getLong("hit") + entry.getLong("miss")));
+                cache.set(labels.getStr("cache"), entry);
+            });
+            final JSONObject report = JSONUtil.createObj()
+                    .set("source", Opt.ofNullable(request.source().getZip()).map(Path::toString).orElseGet(request.source()::getUrl))
+                    .set("output", serverOutputDir.toString())
+                    .set("status", status)
+                    .set("error", error)
+                    .set("startedAt", start.toString())
+                    .set("elapsedSeconds", elapsed.toMillis() / 1000.0)
+                    .set("stages", new JSONArray(graph.stages().stream().map(s -> JSONUtil.createObj()
+                            .set("name", s.name()).set("status", s.status()).set("seconds", s.elapsed().toMillis() / 1000.0)).toList()))
+                    .set("criticalPath", graph.criticalPath().stream().map(StageGraph.Stage::name).toList())
+                    .set("cache", cache)
+                    .set("metrics", metrics);
+            Files.createDirectories(serverOutputDir);
+            Files.writeString(serverOutputDir.resolve(REPORT), report.toStringPretty());
+            Opt.ofNullable(request.metricsFile()).ifPresent(run::writePrometheus);
+            Log.info("[REPORT] 运行报告已写出 | file={} status={}", serverOutputDir.resolve(REPORT), status);
+        } catch (final Exception e) {
+            Log.error("[REPORT] 运行报告写出失败 | dir={} err={}", serverOutputDir, e.getMessage());
+        }
+    }
+
+    /**
+     * 关闭本实例创建的 HTTP 客户端与执行器；外部传入的资源由调用方负责
+     */
+    @Override
+    public void close() {
+        owned.forEach(resource -> {
+            try {
+                resource.close();
+            } catch (final Exception e) {
+                Log.error("[CONVERT] 资源关闭失败 | resource={} err={}", resource.getClass().getSimpleName(), e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 转换请求
+     * @param source        整合包来源（URL 或本地 zip）
+     * @param output        输出目录
+     * @param force         清空已有输出目录
+     * @param staged        先整包解压到临时目录再复制覆盖文件
+     * @param runtime       运行时准备选项
+     * @param warmupTimeout 初次运行硬超时
+     * @param warmupStrict  初次运行未就绪时转换失败
+     * @param cds           初次运行时生成 AppCDS 归档
+     * @param tuning        启动脚本调优
+     * @param metricsFile   结束时写出的 Prometheus 文本文件，为空不写
+     * @param listener      进度监听，接收每条阶段日志
+     */
+    public record Request(Source source, Path output, boolean force, boolean staged, JreFetcher.Options runtime,
+                          Duration warmupTimeout, boolean warmupStrict, boolean cds, LaunchScript.Tuning tuning, Path metricsFile, Consumer<String> listener) {
+        /**
+         * 以默认选项转换
+         * @param source 整合包来源
+         * @param output 输出目录
+         * @return {@link Request }
+         */
+        public static Request of(final Source source, final Path output) {
+            return new Request(source, output, Boolean.FALSE, Boolean.FALSE, JreFetcher.Options.DEFAULT,
+                    Duration.ofMinutes(10), Boolean.TRUE, Boolean.FALSE, LaunchScript.Tuning.DEFAULT, null, _ -> {
+            });
+        }
+    }
+
+    /**
+     * 转换器构建器，未设置的项使用默认值
+     */
+    public static final class Builder {
+        /**
+         * 异步执行器（HTTP 客户端与加载器准备），默认每任务一个虚拟线程并随转换器关闭
+         */
+        private Executor executor;
+        /**
+         * HTTP 客户端，默认基于执行器创建
+         */
+        private HttpClient httpClient;
+        /**
+         * 下载并发上限，不大于 0 表示不限
+         */
+        private int downloads;
+        /**
+         * 同时驻留内存的下载数
+         */
+        private int memorySlots = ModsBulkFetcher.DEFAULT_MEMORY_SLOTS;
+        /**
+         * CurseForge api密钥，默认取环境
+         */
+        private String apiKey;
+
+        private Builder() {
+        }
+
+        public Builder executor(final Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public Builder httpClient(final HttpClient httpClient) {
+            this.httpClient = httpClient;
+            return this;
+        }
+
+        public Builder downloads(final int downloads) {
+            this.downloads = downloads;
+            return this;
+        }
+
+        public Builder memorySlots(final int memorySlots) {
+            this.memorySlots = memorySlots;
+            return this;
+        }
+
+        public Builder apiKey(final String apiKey) {
+            this.apiKey = apiKey;
+            return this;
+        }
+
+        /**
+         * 创建转换器
+         * @return {@link PackConverter }
+         */
+        public PackConverter build() {
+            final List<AutoCloseable> owned = new ArrayList<>();
+            Executor async = executor;
+            if (Objects.isNull(async)) {
+                final ExecutorService created = Executors.newVirtualThreadPerTaskExecutor();
+                owned.add(created);
+                async = created;
+            }
+            HttpClient client = httpClient;
+            if (Objects.isNull(client)) {
+                client = Downloader.newClient(async);
+                // 客户端先于其执行器关闭
+                owned.addFirst(client);
+            }
+            final DownloadScheduler scheduler = new DownloadScheduler(downloads);
+            final MetricsRegistry metrics = new MetricsRegistry();
+            metrics.counter("p2s_downloads_reused_total", "Mod downloads served from another conversion", scheduler::reused);
+            return new PackConverter(new Downloader(client, scheduler, metrics), async,
+                    Opt.ofBlankAble(apiKey).orElseGet(ModsBulkFetcher::envApiKey), memorySlots, List.copyOf(owned));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package cloud.dbug.pack2server.common.detector;
+
+import cn.hutool.core.io.IoUtil;
+import cn.hutool.core.util.StrUtil;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * 模组归档只读视图，屏蔽底层是磁盘文件还是内存字节
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public interface ModArchive {
+    /**
+     * 基于磁盘 ZipFile 构建视图
+     * @param zf 压缩文件
+     * @return {@link ModArchive }
+     */
+    static ModArchive of(final ZipFile zf) {
+        return new ModArchive() {
+            @Override
+            public Optional<byte[]> read(final String name) throws IOException {
+                final ZipEntry entry = zf.getEntry(name);
+                if (Objects.isNull(entry) || entry.isDirectory()) return Optional.empty();
+                return Optional.of(IoUtil.readBytes(zf.getInputStream(entry)));
+            }
+
+            @Override
+            public Stream<String> names() {
+                return zf.stream().filter(e -> !e.isDirectory()).map(ZipEntry::getName);
+            }
+        };
+    }
+
+    /**
+     * 基于内存 ZipFile 构建视图，仅按中央目录随机读取所需条目
+     * @param zf 压缩文件
+     * @return {@link ModArchive }
+     */
+    static ModArchive of(final org.apache.commons.compress.archivers.zip.ZipFile zf) {
+        return new ModArchive() {
+            @Override
+            public Optional<byte[]> read(final String name) throws IOException {
+                final ZipArchiveEntry entry = zf.getEntry(name);
+                if (Objects.isNull(entry) || entry.isDirectory()) return Optional.empty();
+                return Optional.of(IoUtil.readBytes(zf.getInputStream(entry)));
+            }
+
+            @Override
+            public Stream<String> names() {
+                return Collections.list(zf.getEntries()).stream().filter(e -> !e.isDirectory()).map(ZipArchiveEntry::getName);
+            }
+        };
+    }
+
+    /**
+     * 读取条目
+     * @param name 条目名
+     * @return {@link Optional }<{@link byte[] }>
+     * @throws IOException 读取失败
+     */
+    Optional<byte[]> read(String name) throws IOException;
+
+    /**
+     * 全部文件条目名
+     * @return {@link Stream }<{@link String }>
+     */
+    Stream<String> names();
+
+    /**
+     * 以 UTF-8 读取条目
+     * @param name 条目名
+     * @return {@link Optional }<{@link String }>
+     * @throws IOException 读取失败
+     */
+    default Optional<String> readUtf8(final String name) throws IOException {
+        return read(name).map(StrUtil::utf8Str);
+    }
+}
@@ -1,127 +1,113 @@
 package cloud.dbug.pack2server.common.detector;
 
 import cloud.dbug.pack2server.common.detector.enums.Side;
-import cn.hutool.core.io.IoUtil;
-import cn.hutool.core.util.StrUtil;
-import cn.hutool.json.JSONObject;
-import cn.hutool.json.JSONUtil;
+import cloud.dbug.pack2server.common.detector.spi.DetectRule;
+import cloud.dbug.pack2server.common.flight.DetectEvent;
 import lombok.experimental.UtilityClass;
+import org.apache.commons.compress.utils.SeekableInMemoryByteChannel;
 
 import java.nio.file.Path;
-import java.util.Locale;
-import java.util.Objects;
-import java.util.Optional;
-import java.util.zip.ZipEntry;
+import java.util.*;
+import java.util.function.Supplier;
 import java.util.zip.ZipFile;
 
 /**
  * 服务器mods检测器
+ * <p>规则经 {@link ServiceLoader} 加载，按成本档位由低到高执行，首个给出结论的规则胜出。
+ * 检测本身无状态，命中统计由调用方按 {@link Verdict#rule()} 自行累计；按文件与字节检测时各提交一条 {@link DetectEvent}。</p>
  * @author 拒绝者
  * @date 2025-09-06
  */
 @UtilityClass
 public class ServerModDetector {
+    /**
+     * 已排序规则链
+     */
+    private static final List<DetectRule> RULES = ServiceLoader.load(DetectRule.class, ServerModDetector.class.getClassLoader())
+            .stream().map(ServiceLoader.Provider::get)
+            .sorted(Comparator.comparingInt((DetectRule r) -> r.cost().getTier()).thenComparingInt(DetectRule::order))
+            .toList();
+
     /**
      * 检测
      * @param jar jar路径
      * @return {@link Side }
      */
     public static Side detect(final Path jar) {
-        try (final ZipFile zf = new ZipFile(jar.toFile())) {
-            // Fabric / Quilt
-            final Optional<Side> f = fabricSide(zf);
-            if (f.isPresent()) {
-                return f.get();
+        return judge(jar).side();
+    }
+
+    /**
+     * 检测并返回结论来源
+     * @param jar jar路径
+     * @return {@link Verdict }
+     */
+    public static Verdict judge(final Path jar) {
+        return observed(jar.getFileName().toString(), () -> {
+            try (final ZipFile zf = new ZipFile(jar.toFile())) {
+                return judge(ModArchive.of(zf));
+            } catch (final Exception ignore) {
+                return new Verdict(Side.NONE, Verdict.UNREADABLE, null);
             }
-            // Forge / NeoForge
-            final Optional<Side> fg = forgeSide(zf);
-            return fg.orElseGet(() -> byteCodeSide(zf));
-        } catch (final Exception ignore) {
-            return Side.NONE;
-        }
+        });
     }
 
     /**
-     * fabric.mod.json 解析
-     * @param zf 压缩文件
-     * @return {@link Optional }<{@link Side }>
+     * 检测内存中的 jar 字节，无需落盘
+     * @param bytes jar 内容
+     * @return {@link Verdict }
      */
-    private static Optional<Side> fabricSide(final ZipFile zf) {
-        final ZipEntry entry = zf.getEntry("fabric.mod.json");
-        if (Objects.isNull(entry)) return Optional.empty();
-        try {
-            final JSONObject root = JSONUtil.parseObj(IoUtil.readUtf8(zf.getInputStream(entry)));
-            final boolean hasClient = root.getJSONObject("entrypoints").containsKey("client");
-            final boolean hasServer = root.getJSONObject("entrypoints").containsKey("server");
-            if (!hasClient && hasServer) return Optional.of(Side.SERVER);
-            if (hasClient && !hasServer) return Optional.of(Side.CLIENT);
-            return Optional.of(Side.BOTH);
-        } catch (final Exception ignore) {
-            return Optional.empty();
-        }
+    public static Verdict judge(final byte[] bytes) {
+        return judge("-", bytes);
     }
 
     /**
-     * META-INF/mods.toml 解析
-     * @param zf zf
-     * @return {@link Optional }<{@link Side }>
+     * 检测内存中的 jar 字节，无需落盘
+     * @param fileName 文件名，仅用于事件记录
+     * @param bytes    jar 内容
+     * @return {@link Verdict }
      */
-    private static Optional<Side> forgeSide(final ZipFile zf) {
-        final ZipEntry entry = zf.getEntry("META-INF/mods.toml");
-        if (Objects.isNull(entry)) return Optional.empty();
-        try {
-            final String txt = IoUtil.readUtf8(zf.getInputStream(entry));
-            // 简单状态机：只关心 [[mods]] 块里的 side=xxx
-            final String[] lines = txt.split("\n");
-            boolean client = Boolean.FALSE, server = Boolean.FALSE;
-            for (String line : lines) {
-                line = line.trim();
-                if (line.startsWith("side=")) {
-                    final String v = line.split("=")[1].trim().toLowerCase(Locale.ROOT);
-                    switch (v) {
-                        case "\"client\"" -> client = Boolean.TRUE;
-                        case "\"server\"" -> server = Boolean.TRUE;
-                        case "\"both\"" -> {
-                            client = Boolean.TRUE;
-                            server = Boolean.TRUE;
-                        }
-                    }
-                }
+    public static Verdict judge(final String fileName, final byte[] bytes) {
+        return observed(fileName, () -> {
+            try (final org.apache.commons.compress.archivers.zip.ZipFile zf = org.apache.commons.compress.archivers.zip.ZipFile.builder()
+                    .setSeekableByteChannel(new SeekableInMemoryByteChannel(bytes)).get()) {
+                return judge(ModArchive.of(zf));
+            } catch (final Exception ignore) {
+                return new Verdict(Side.NONE, Verdict.UNREADABLE, null);
             }
-            if (server && !client) return Optional.of(Side.SERVER);
-            if (client && !server) return Optional.of(Side.CLIENT);
-            return Optional.of(Side.BOTH);
-        } catch (final Exception ignore) {
-            return Optional.empty();
-        }
+        });
     }
 
     /**
-     * 字节码扫描：@OnlyIn / DistExecutor / Mixin side
-     * @param zf zf
-     * @return {@link Side }
+     * 执行检测并提交飞行记录事件
+     * @param fileName  文件名
+     * @param detection 检测
+     * @return {@link Verdict }
      */
-    @SuppressWarnings("SpellCheckingInspection")
-    private static Side byteCodeSide(final ZipFile zf) {
-        boolean clientMarker = Boolean.FALSE, serverMarker = Boolean.FALSE;
-        for (final ZipEntry e : zf.stream().toList()) {
-            if (e.isDirectory() || !e.getName().endsWith(".class")) continue;
+    private static Verdict observed(final String fileName, final Supplier<Verdict> detection) {
+        final DetectEvent event = new DetectEvent();
+        event.begin();
+        final Verdict verdict = detection.get();
+        event.finish(fileName, verdict.side().name(), verdict.rule());
+        return verdict;
+    }
+
+    /**
+     * 按规则链检测归档
+     * @param archive 模组归档
+     * @return {@link Verdict }
+     */
+    public static Verdict judge(final ModArchive archive) {
+        for (final DetectRule rule : RULES) {
             try {
-                final String utf8 = StrUtil.utf8Str(IoUtil.readBytes(zf.getInputStream(e)));
-                if (utf8.contains("Lnet/minecraftforge/api/distmarker/OnlyIn;")) {
-                    if (utf8.contains("DEDICATED_SERVER")) serverMarker = Boolean.TRUE;
-                    if (utf8.contains("CLIENT")) clientMarker = Boolean.TRUE;
-                }
-                if (utf8.contains("\"side\":\"SERVER\"")) serverMarker = Boolean.TRUE;
-                if (utf8.contains("DistExecutor") && utf8.contains("runWhenOn")) {
-                    if (utf8.contains("Dist.CLIENT")) clientMarker = Boolean.TRUE;
-                    if (utf8.contains("Dist.DEDICATED_SERVER")) serverMarker = Boolean.TRUE;
+                final Optional<Side> side = rule.judge(archive);
+                if (side.isPresent()) {
+                    return new Verdict(side.get(), rule.name(), rule.cost());
                 }
             } catch (final Exception ignore) {
+                // 规则异常视为无法判断，继续下一条
             }
         }
-        if (serverMarker && !clientMarker) return Side.SERVER;
-        if (clientMarker && !serverMarker) return Side.CLIENT;
-        return Side.BOTH;
+        return new Verdict(Side.BOTH, Verdict.FALLBACK, null);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,23 @@
+package cloud.dbug.pack2server.common.detector;
+
+import cloud.dbug.pack2server.common.detector.enums.Cost;
+import cloud.dbug.pack2server.common.detector.enums.Side;
+
+/**
+ * 检测结论
+ * @param side 侧
+ * @param rule 作出结论的规则名
+ * @param cost 该规则的成本档位；无规则作答时为 {@code null}
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public record Verdict(Side side, String rule, Cost cost) {
+    /**
+     * 归档无法读取
+     */
+    public static final String UNREADABLE = "unreadable";
+    /**
+     * 全部规则均未作答
+     */
+    public static final String FALLBACK = "fallback";
+}
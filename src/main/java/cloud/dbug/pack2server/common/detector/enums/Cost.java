@@ -0,0 +1,31 @@
+package cloud.dbug.pack2server.common.detector.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 检测规则成本档位
+ * <p>档位越低越先执行，低档位给出结论后不再进入高档位。</p>
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+@Getter
+@AllArgsConstructor
+public enum Cost {
+    /**
+     * 元数据：读取单个小文件中的显式声明字段
+     */
+    METADATA(0),
+    /**
+     * 描述文件：解析描述文件或配置结构后推断
+     */
+    DESCRIPTOR(1),
+    /**
+     * 字节码：遍历全部 class 条目
+     */
+    BYTECODE(2);
+    /**
+     * 档位
+     */
+    private final int tier;
+}
@@ -0,0 +1,47 @@
+package cloud.dbug.pack2server.common.detector.rule;
+
+import cloud.dbug.pack2server.common.detector.ModArchive;
+import cloud.dbug.pack2server.common.detector.enums.Cost;
+import cloud.dbug.pack2server.common.detector.enums.Side;
+import cloud.dbug.pack2server.common.detector.spi.DetectRule;
+import cn.hutool.core.util.StrUtil;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 字节码扫描：@OnlyIn / DistExecutor / Mixin side
+ * @author 拒绝者
+ * @date 2025-09-06
+ */
+public class ByteCodeRule implements DetectRule {
+    @Override
+    public Cost cost() {
+        return Cost.BYTECODE;
+    }
+
+    @Override
+    @SuppressWarnings("SpellCheckingInspection")
+    public Optional<Side> judge(final ModArchive archive) {
+        boolean clientMarker = Boolean.FALSE, serverMarker = Boolean.FALSE;
+        final List<String> classes = archive.names().filter(n -> n.endsWith(".class")).toList();
+        for (final String name : classes) {
+            try {
+                final String utf8 = StrUtil.utf8Str(archive.read(name).orElse(new byte[0]));
+                if (utf8.contains("Lnet/minecraftforge/api/distmarker/OnlyIn;")) {
+                    if (utf8.contains("DEDICATED_SERVER")) serverMarker = Boolean.TRUE;
+                    if (utf8.contains("CLIENT")) clientMarker = Boolean.TRUE;
+                }
+                if (utf8.contains("\"side\":\"SERVER\"")) serverMarker = Boolean.TRUE;
+                if (utf8.contains("DistExecutor") && utf8.contains("runWhenOn")) {
+                    if (utf8.contains("Dist.CLIENT")) clientMarker = Boolean.TRUE;
+                    if (utf8.contains("Dist.DEDICATED_SERVER")) serverMarker = Boolean.TRUE;
+                }
+            } catch (final Exception ignore) {
+            }
+        }
+        if (serverMarker && !clientMarker) return Optional.of(Side.SERVER);
+        if (clientMarker && !serverMarker) return Optional.of(Side.CLIENT);
+        return Optional.of(Side.BOTH);
+    }
+}
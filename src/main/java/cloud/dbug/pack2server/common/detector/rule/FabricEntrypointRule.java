@@ -0,0 +1,34 @@
+package cloud.dbug.pack2server.common.detector.rule;
+
+import cloud.dbug.pack2server.common.detector.ModArchive;
+import cloud.dbug.pack2server.common.detector.enums.Cost;
+import cloud.dbug.pack2server.common.detector.enums.Side;
+import cloud.dbug.pack2server.common.detector.spi.DetectRule;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+
+import java.util.Optional;
+
+/**
+ * fabric.mod.json 的 entrypoints 推断
+ * @author 拒绝者
+ * @date 2025-09-06
+ */
+public class FabricEntrypointRule implements DetectRule {
+    @Override
+    public Cost cost() {
+        return Cost.DESCRIPTOR;
+    }
+
+    @Override
+    public Optional<Side> judge(final ModArchive archive) throws Exception {
+        final Optional<String> txt = archive.readUtf8("fabric.mod.json");
+        if (txt.isEmpty()) return Optional.empty();
+        final JSONObject entrypoints = JSONUtil.parseObj(txt.get()).getJSONObject("entrypoints");
+        final boolean hasClient = entrypoints.containsKey("client");
+        final boolean hasServer = entrypoints.containsKey("server");
+        if (!hasClient && hasServer) return Optional.of(Side.SERVER);
+        if (hasClient && !hasServer) return Optional.of(Side.CLIENT);
+        return Optional.of(Side.BOTH);
+    }
+}
@@ -0,0 +1,33 @@
+package cloud.dbug.pack2server.common.detector.rule;
+
+import cloud.dbug.pack2server.common.detector.ModArchive;
+import cloud.dbug.pack2server.common.detector.enums.Cost;
+import cloud.dbug.pack2server.common.detector.enums.Side;
+import cloud.dbug.pack2server.common.detector.spi.DetectRule;
+import cn.hutool.json.JSONUtil;
+
+import java.util.Optional;
+
+/**
+ * fabric.mod.json 的 environment 字段
+ * <p>仅 {@code client}/{@code server} 视为结论，{@code *} 为默认值，交由后续规则判断。</p>
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public class FabricEnvironmentRule implements DetectRule {
+    @Override
+    public Cost cost() {
+        return Cost.METADATA;
+    }
+
+    @Override
+    public Optional<Side> judge(final ModArchive archive) throws Exception {
+        return archive.readUtf8("fabric.mod.json")
+                .map(txt -> JSONUtil.parseObj(txt).getStr("environment"))
+                .map(env -> switch (env) {
+                    case "client" -> Side.CLIENT;
+                    case "server" -> Side.SERVER;
+                    default -> null;
+                });
+    }
+}
@@ -0,0 +1,59 @@
+package cloud.dbug.pack2server.common.detector.rule;
+
+import cloud.dbug.pack2server.common.detector.ModArchive;
+import cloud.dbug.pack2server.common.detector.enums.Cost;
+import cloud.dbug.pack2server.common.detector.enums.Side;
+import cloud.dbug.pack2server.common.detector.spi.DetectRule;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * META-INF/mods.toml（NeoForge 为 neoforge.mods.toml）的 side 推断
+ * @author 拒绝者
+ * @date 2025-09-06
+ */
+public class ForgeTomlRule implements DetectRule {
+    @Override
+    public Cost cost() {
+        return Cost.DESCRIPTOR;
+    }
+
+    @Override
+    public int order() {
+        return 10;
+    }
+
+    @Override
+    public Optional<Side> judge(final ModArchive archive) throws Exception {
+        final Optional<String> txt = archive.readUtf8("META-INF/mods.toml")
+                .or(() -> {
+                    try {
+                        return archive.readUtf8("META-INF/neoforge.mods.toml");
+                    } catch (final Exception ignore) {
+                        return Optional.empty();
+                    }
+                });
+        if (txt.isEmpty()) return Optional.empty();
+        // 简单状态机：只关心 [[mods]] 块里的 side=xxx
+        final String[] lines = txt.get().split("\n");
+        boolean client = Boolean.FALSE, server = Boolean.FALSE;
+        for (String line : lines) {
+            line = line.trim();
+            if (line.startsWith("side=")) {
+                final String v = line.split("=")[1].trim().toLowerCase(Locale.ROOT);
+                switch (v) {
+                    case "\"client\"" -> client = Boolean.TRUE;
+                    case "\"server\"" -> server = Boolean.TRUE;
+                    case "\"both\"" -> {
+                        client = Boolean.TRUE;
+                        server = Boolean.TRUE;
+                    }
+                }
+            }
+        }
+        if (server && !client) return Optional.of(Side.SERVER);
+        if (client && !server) return Optional.of(Side.CLIENT);
+        return Optional.of(Side.BOTH);
+    }
+}
@@ -0,0 +1,51 @@
+package cloud.dbug.pack2server.common.detector.rule;
+
+import cloud.dbug.pack2server.common.detector.ModArchive;
+import cloud.dbug.pack2server.common.detector.enums.Cost;
+import cloud.dbug.pack2server.common.detector.enums.Side;
+import cloud.dbug.pack2server.common.detector.spi.DetectRule;
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 根目录 Mixin 配置的 mixins/client/server 数组推断
+ * <p>仅在缺少加载器描述文件时生效：全部配置只含 client 数组视为客户端，只含 server 数组视为服务端。</p>
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public class MixinConfigRule implements DetectRule {
+    @Override
+    public Cost cost() {
+        return Cost.DESCRIPTOR;
+    }
+
+    @Override
+    public int order() {
+        return 20;
+    }
+
+    @Override
+    public Optional<Side> judge(final ModArchive archive) throws Exception {
+        final List<String> configs = archive.names()
+                .filter(n -> !n.contains("/") && n.endsWith(".json") && n.contains("mixins"))
+                .toList();
+        if (configs.isEmpty()) return Optional.empty();
+        boolean common = Boolean.FALSE, client = Boolean.FALSE, server = Boolean.FALSE;
+        for (final String name : configs) {
+            final Optional<String> txt = archive.readUtf8(name);
+            if (txt.isEmpty()) continue;
+            final JSONObject root = JSONUtil.parseObj(txt.get());
+            common |= CollUtil.isNotEmpty(root.getJSONArray("mixins"));
+            client |= CollUtil.isNotEmpty(root.getJSONArray("client"));
+            server |= CollUtil.isNotEmpty(root.getJSONArray("server"));
+        }
+        if (common) return Optional.empty();
+        if (client && !server) return Optional.of(Side.CLIENT);
+        if (server && !client) return Optional.of(Side.SERVER);
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,37 @@
+package cloud.dbug.pack2server.common.detector.rule;
+
+import cloud.dbug.pack2server.common.detector.ModArchive;
+import cloud.dbug.pack2server.common.detector.enums.Cost;
+import cloud.dbug.pack2server.common.detector.enums.Side;
+import cloud.dbug.pack2server.common.detector.spi.DetectRule;
+import cn.hutool.json.JSONUtil;
+
+import java.util.Optional;
+
+/**
+ * quilt.mod.json 的 minecraft.environment 字段
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public class QuiltEnvironmentRule implements DetectRule {
+    @Override
+    public Cost cost() {
+        return Cost.METADATA;
+    }
+
+    @Override
+    public int order() {
+        return 10;
+    }
+
+    @Override
+    public Optional<Side> judge(final ModArchive archive) throws Exception {
+        return archive.readUtf8("quilt.mod.json")
+                .map(txt -> JSONUtil.parseObj(txt).getByPath("minecraft.environment", String.class))
+                .map(env -> switch (env) {
+                    case "client" -> Side.CLIENT;
+                    case "dedicated_server" -> Side.SERVER;
+                    default -> null;
+                });
+    }
+}
@@ -0,0 +1,46 @@
+package cloud.dbug.pack2server.common.detector.spi;
+
+import cloud.dbug.pack2server.common.detector.ModArchive;
+import cloud.dbug.pack2server.common.detector.enums.Cost;
+import cloud.dbug.pack2server.common.detector.enums.Side;
+
+import java.util.Optional;
+
+/**
+ * 模组侧检测规则 SPI
+ * <p>通过 {@code META-INF/services/cloud.dbug.pack2server.common.detector.spi.DetectRule} 注册，
+ * 按 {@link #cost()} 档位、再按 {@link #order()} 升序执行，首个给出结论的规则即为最终结论。</p>
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public interface DetectRule {
+    /**
+     * 规则名，用于结论溯源与统计
+     * @return {@link String }
+     */
+    default String name() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * 成本档位
+     * @return {@link Cost }
+     */
+    Cost cost();
+
+    /**
+     * 同档位内的执行顺序
+     * @return int
+     */
+    default int order() {
+        return 0;
+    }
+
+    /**
+     * 判定
+     * @param archive 模组归档
+     * @return 无法判断时返回 {@link Optional#empty()}
+     * @throws Exception 读取或解析失败，视为无法判断
+     */
+    Optional<Side> judge(ModArchive archive) throws Exception;
+}
@@ -0,0 +1,91 @@
+package cloud.dbug.pack2server.common.digest;
+
+import cn.hutool.core.util.HexUtil;
+import lombok.SneakyThrows;
+import lombok.experimental.UtilityClass;
+
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+
+/**
+ * 文件摘要
+ * <p>以内存映射分窗读取，避免逐块拷贝到堆；Windows 下映射会锁住文件直至回收，故回退为流式读取。</p>
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+@UtilityClass
+public class FileDigest {
+    /**
+     * 读取缓冲区大小
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /**
+     * 单次映射窗口
+     */
+    private static final long MAP_WINDOW = 64L * 1024 * 1024;
+    /**
+     * 是否使用内存映射
+     */
+    private static final boolean MMAP = !System.getProperty("os.name", "").toLowerCase().contains("win");
+
+    /**
+     * SHA-1
+     * @param file 文件
+     * @return 小写十六进制
+     */
+    public static String sha1(final Path file) {
+        return hex("SHA-1", file);
+    }
+
+    /**
+     * SHA-256
+     * @param file 文件
+     * @return 小写十六进制
+     */
+    public static String sha256(final Path file) {
+        return hex("SHA-256", file);
+    }
+
+    /**
+     * 计算摘要
+     * @param algorithm 算法
+     * @param file      文件
+     * @return 小写十六进制
+     */
+    @SneakyThrows
+    public static String hex(final String algorithm, final Path file) {
+        final MessageDigest digest = MessageDigest.getInstance(algorithm);
+        if (MMAP) {
+            try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                final long size = channel.size();
+                for (long position = 0; position < size; position += MAP_WINDOW) {
+                    digest.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW, size - position)));
+                }
+            }
+            return HexUtil.encodeHexStr(digest.digest());
+        }
+        try (final InputStream in = Files.newInputStream(file)) {
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexUtil.encodeHexStr(digest.digest());
+    }
+
+    /**
+     * 计算内存数据摘要
+     * @param algorithm 算法
+     * @param bytes     数据
+     * @return 小写十六进制
+     */
+    @SneakyThrows
+    public static String hex(final String algorithm, final byte[] bytes) {
+        return HexUtil.encodeHexStr(MessageDigest.getInstance(algorithm).digest(bytes));
+    }
+}
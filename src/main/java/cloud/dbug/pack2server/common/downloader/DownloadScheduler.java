@@ -0,0 +1,118 @@
+package cloud.dbug.pack2server.common.downloader;
+
+import lombok.SneakyThrows;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 下载调度器
+ * <p>同一调度器下的全部下载共享一组许可；相同键的任务只执行一次，其余调用方等待并复用结果。
+ * 多个转换共用一个调度器即可跨整合包限流与去重；去重结果由调用方在各自转换结束时 {@link #release(Collection)}，
+ * 常驻服务中不会无限累积。</p>
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public final class DownloadScheduler {
+    /**
+     * 下载许可，不限流时为空
+     */
+    private final Semaphore permits;
+    /**
+     * 去重表
+     */
+    private final Map<Object, CompletableFuture<Object>> shared = new ConcurrentHashMap<>();
+    /**
+     * 复用次数
+     */
+    private final LongAdder reused = new LongAdder();
+
+    /**
+     * 创建调度器
+     * @param concurrency 下载并发上限，不大于 0 表示不限
+     */
+    public DownloadScheduler(final int concurrency) {
+        this.permits = concurrency > 0 ? new Semaphore(concurrency, Boolean.TRUE) : null;
+    }
+
+    /**
+     * 占用一个下载许可执行
+     * @param task 下载任务
+     * @return {@link T }
+     */
+    @SneakyThrows
+    public <T> T run(final Callable<T> task) {
+        if (Objects.isNull(permits)) {
+            return task.call();
+        }
+        permits.acquire();
+        try {
+            return task.call();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * 按键去重执行：同一键只由首个调用方执行，并发或后续调用方直接复用其结果
+     * <p>首个调用方失败时移除该键，等待方各自重新执行，避免一次失败波及其他整合包。</p>
+     * @param key  去重键
+     * @param task 任务
+     * @return {@link T }
+     */
+    @SneakyThrows
+    @SuppressWarnings("unchecked")
+    public <T> T shared(final Object key, final Callable<T> task) {
+        final CompletableFuture<Object> mine = new CompletableFuture<>();
+        final CompletableFuture<Object> existing = shared.putIfAbsent(key, mine);
+        if (Objects.nonNull(existing)) {
+            try {
+                final T result = (T) existing.join();
+                reused.increment();
+                return result;
+            } catch (final CompletionException ignore) {
+                return task.call();
+            }
+        }
+        try {
+            final T result = task.call();
+            mine.complete(result);
+            return result;
+        } catch (final Throwable e) {
+            shared.remove(key, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * 释放已完成的去重结果，之后的调用方重新执行；仍在执行中的键保留给其等待方
+     * @param keys 去重键
+     */
+    public void release(final Collection<?> keys) {
+        keys.forEach(key -> shared.computeIfPresent(key, (_, future) -> future.isDone() ? null : future));
+    }
+
+    /**
+     * 去重表中的键数
+     * @return int
+     */
+    public int size() {
+        return shared.size();
+    }
+
+    /**
+     * 复用次数
+     * @return long
+     */
+    public long reused() {
+        return reused.sum();
+    }
+}
@@ -1,14 +1,18 @@
 package cloud.dbug.pack2server.common.downloader;
 
+import cloud.dbug.pack2server.common.flight.HttpChunkEvent;
+import cloud.dbug.pack2server.common.flight.HttpRequestEvent;
+import cloud.dbug.pack2server.common.log.Log;
+import cloud.dbug.pack2server.common.metrics.MetricsRegistry;
 import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.io.IoUtil;
-import cn.hutool.core.lang.Console;
 import cn.hutool.core.lang.Opt;
 import cn.hutool.core.util.StrUtil;
 import lombok.Getter;
 import lombok.SneakyThrows;
-import lombok.experimental.UtilityClass;
 
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -16,11 +20,13 @@ import java.io.RandomAccessFile;
 import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -28,6 +34,7 @@ import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicLong;
@@ -37,10 +44,12 @@ import java.util.stream.Collectors;
 
 /**
  * 下载器
+ * <p>HTTP 客户端、下载进度、调度器与指标均属于实例；同一进程可持有多个互不干扰的下载器，
+ * 未显式创建时经 {@link #defaults()} 使用进程默认实例。GET/HEAD 请求遇连接错误或 429/5xx 时退避重试。
+ * 每次请求与每个分块各提交一条飞行记录事件（{@link HttpRequestEvent}、{@link HttpChunkEvent}）。</p>
  * @author 拒绝者
  * @date 2025-09-25
  */
-@UtilityClass
 public class Downloader {
     /**
      * 下载缓冲区大小
@@ -58,20 +67,94 @@ public class Downloader {
      * HTTP请求超时时间（秒）
      */
     private static final Duration TIMEOUT_DURATION = Duration.ofSeconds(30);
+    /**
+     * 单个请求的最多尝试次数
+     */
+    private static final int MAX_ATTEMPTS = 3;
+    /**
+     * 重试退避基数，按尝试次数线性增长
+     */
+    private static final Duration RETRY_BACKOFF = Duration.ofMillis(500);
+    /**
+     * 可安全重试的请求方法
+     */
+    private static final Set<String> IDEMPOTENT = Set.of("GET", "HEAD");
+    /**
+     * 可重试的响应状态
+     */
+    private static final Set<Integer> RETRYABLE = Set.of(429, 500, 502, 503, 504);
     /**
      * 存储每个文件下载进度的映射
      */
     private final Map<String, DownloadProgress> progressMap = new ConcurrentHashMap<>();
     /**
-     * HTTP客户端，配置为自动跟随重定向
+     * HTTP客户端
+     */
+    private final HttpClient httpClient;
+    /**
+     * 下载调度器
+     */
+    @Getter
+    private final DownloadScheduler scheduler;
+    /**
+     * 请求、流量与重试指标
+     */
+    @Getter
+    private final MetricsRegistry metrics;
+
+    /**
+     * 创建下载器
+     * @param httpClient HTTP客户端
+     * @param scheduler  下载调度器
+     */
+    public Downloader(final HttpClient httpClient, final DownloadScheduler scheduler) {
+        this(httpClient, scheduler, new MetricsRegistry());
+    }
+
+    /**
+     * 创建下载器
+     * @param httpClient HTTP客户端
+     * @param scheduler  下载调度器
+     * @param metrics    指标注册表
+     */
+    public Downloader(final HttpClient httpClient, final DownloadScheduler scheduler, final MetricsRegistry metrics) {
+        this.httpClient = httpClient;
+        this.scheduler = scheduler;
+        this.metrics = metrics;
+    }
+
+    /**
+     * 派生记录到另一注册表的下载器，共用 HTTP 客户端与调度器
+     * @param metrics 指标注册表
+     * @return {@link Downloader }
+     */
+    public Downloader withMetrics(final MetricsRegistry metrics) {
+        return new Downloader(httpClient, scheduler, metrics);
+    }
+
+    /**
+     * 进程默认下载器：不限流，首次使用时创建
+     * @return {@link Downloader }
+     */
+    public static Downloader defaults() {
+        return Defaults.INSTANCE;
+    }
+
+    /**
+     * 创建 HTTP 客户端，配置为自动跟随重定向
+     * @param executor 异步执行器
+     * @return {@link HttpClient }
      */
-    private final HttpClient httpClient = HttpClient.newBuilder()
-            .priority(1)
-            .connectTimeout(TIMEOUT_DURATION)
-            .version(HttpClient.Version.HTTP_2)
-            .followRedirects(HttpClient.Redirect.NORMAL)
-            .executor(Executors.newVirtualThreadPerTaskExecutor())
-            .build();
+    public static HttpClient newClient(final Executor executor) {
+        return HttpClient.newBuilder()
+                .priority(1)
+                .connectTimeout(TIMEOUT_DURATION)
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(executor)
+                .build();
+    }
+
     /**
      * 解析 Content-Disposition 头
      */
@@ -88,7 +171,7 @@ public class Downloader {
         try {
             Files.createDirectories(targetDirectory);
         } catch (final IOException e) {
-            Console.error("创建目标目录失败: {}", targetDirectory, e);
+            Log.error("创建目标目录失败: {}", targetDirectory, e);
             throw new RuntimeException("无法创建目标目录", e);
         }
         // 使用虚拟线程池并发执行下载任务
@@ -104,7 +187,7 @@ public class Downloader {
                                     );
                                     return Map.entry(url, resultPath);
                                 } catch (final Exception e) {
-                                    Console.error("无法从URL下载文件: {}", url, e);
+                                    Log.error("无法从URL下载文件: {}", url, e);
                                     return Map.entry(url, Path.of(""));
                                 }
                             }, executor)
@@ -114,7 +197,7 @@ public class Downloader {
                 // 等待所有下载完成
                 allDone.join();
             } catch (final Exception e) {
-                Console.error("批量下载时出错", e);
+                Log.error("批量下载时出错", e);
             }
             return futures.stream()
                     .map(CompletableFuture::join)
@@ -129,14 +212,24 @@ public class Downloader {
      * @param targetPath 下载的目标路径
      * @return 下载文件的目标路径
      */
-    @SneakyThrows
     public Path fetch(final String fileUrl, final Path targetPath) {
-        Console.log("开始下载: {} -> {}", fileUrl, targetPath);
+        return scheduler.run(() -> fetchNow(fileUrl, targetPath));
+    }
+
+    /**
+     * 单个文件下载（已占用调度许可）
+     * @param fileUrl    文件URL
+     * @param targetPath 下载的目标路径
+     * @return 下载文件的目标路径
+     */
+    @SneakyThrows
+    private Path fetchNow(final String fileUrl, final Path targetPath) {
+        Log.detail("开始下载: {} -> {}", fileUrl, targetPath);
         final long totalFileSize;
         boolean supportsRangeRequests;
         // --- 探测服务器支持情况 ---
         // 尝试发送 HEAD 请求
-        final HttpResponse<Void> headResponse = httpClient.send(
+        final HttpResponse<Void> headResponse = exchange(
                 HttpRequest.newBuilder().uri(URI.create(fileUrl)).timeout(TIMEOUT_DURATION).method("HEAD", HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.discarding()
         );
         final int headStatusCode = headResponse.statusCode();
@@ -149,7 +242,7 @@ public class Downloader {
                     .isPresent();
         } else {
             // 如果 HEAD 请求失败，尝试发送 GET 请求来探测
-            final HttpResponse<InputStream> getResponse = httpClient.send(
+            final HttpResponse<InputStream> getResponse = exchange(
                     HttpRequest.newBuilder().uri(URI.create(fileUrl)).timeout(TIMEOUT_DURATION).build(), HttpResponse.BodyHandlers.ofInputStream()
             );
             final int getStatusCode = getResponse.statusCode();
@@ -161,13 +254,13 @@ public class Downloader {
                         .isPresent();
                 IoUtil.close(getResponse.body());
             } else {
-                Console.error("URL的初始探测请求失败: {}. HEAD: {}, GET: {}", fileUrl, headStatusCode, getStatusCode);
+                Log.error("URL的初始探测请求失败: {}. HEAD: {}, GET: {}", fileUrl, headStatusCode, getStatusCode);
                 throw new IOException("未能探测服务器功能。头: %d, GET: %d".formatted(headStatusCode, getStatusCode));
             }
         }
         // 验证 Range 是否真正可用
         if (supportsRangeRequests && totalFileSize > 0) {
-            final HttpResponse<Void> rangeProbeResponse = httpClient.send(
+            final HttpResponse<Void> rangeProbeResponse = exchange(
                     HttpRequest.newBuilder().uri(URI.create(fileUrl)).timeout(TIMEOUT_DURATION).header("Range", "bytes=0-0").build(), HttpResponse.BodyHandlers.discarding()
             );
             supportsRangeRequests = rangeProbeResponse.statusCode() == HttpURLConnection.HTTP_PARTIAL
@@ -187,10 +280,212 @@ public class Downloader {
             singleThreadDownload(fileUrl, targetPath);
         }
         updateProgressOnCompletion(fileUrl);
-        Console.log("下载完成：{} -> {}", fileUrl, targetPath);
+        Log.detail("下载完成：{} -> {}", fileUrl, targetPath);
         return targetPath;
     }
 
+    /**
+     * 将文件读入内存，不落盘
+     * <p>响应声明或实际读取的字节数超过上限时放弃并返回空，由调用方回退到 {@link #fetch(String, Path)}。</p>
+     * @param fileUrl  文件URL
+     * @param maxBytes 内存缓冲上限
+     * @return {@link Optional }<{@link Payload }>
+     */
+    public Optional<Payload> load(final String fileUrl, final long maxBytes) {
+        return scheduler.run(() -> loadNow(fileUrl, maxBytes));
+    }
+
+    /**
+     * 将文件读入内存（已占用调度许可）
+     * @param fileUrl  文件URL
+     * @param maxBytes 内存缓冲上限
+     * @return {@link Optional }<{@link Payload }>
+     */
+    @SneakyThrows
+    private Optional<Payload> loadNow(final String fileUrl, final long maxBytes) {
+        final HttpResponse<InputStream> response = exchange(
+                HttpRequest.newBuilder().uri(URI.create(fileUrl)).timeout(TIMEOUT_DURATION).build(), HttpResponse.BodyHandlers.ofInputStream()
+        );
+        if (response.statusCode() != HttpURLConnection.HTTP_OK) {
+            IoUtil.close(response.body());
+            throw new IOException("服务器对内存下载的响应状态为%d。".formatted(response.statusCode()));
+        }
+        final long totalFileSize = response.headers().firstValueAsLong("Content-Length").orElse(-1L);
+        if (totalFileSize > maxBytes) {
+            IoUtil.close(response.body());
+            return Optional.empty();
+        }
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream(totalFileSize > 0 ? (int) totalFileSize : BUFFER_SIZE);
+        try (final InputStream inputStream = response.body()) {
+            int bytesRead;
+            final byte[] chunk = new byte[BUFFER_SIZE];
+            while ((bytesRead = inputStream.read(chunk)) != -1) {
+                buffer.write(chunk, 0, bytesRead);
+                if (buffer.size() > maxBytes) {
+                    return Optional.empty();
+                }
+            }
+        }
+        final String fileName = fileNameFromHeaders(response.headers())
+                .or(() -> fileNameFromPath(fileUrl))
+                .orElse("downloaded_file_%d".formatted(System.currentTimeMillis()));
+        received(fileUrl, buffer.size());
+        Log.detail("内存下载完成：{} -> {} ({} B)", fileUrl, fileName, buffer.size());
+        return Optional.of(new Payload(fileUrl, fileName, buffer.toByteArray()));
+    }
+
+    /**
+     * 以文本读取响应（元数据、接口查询等小响应）
+     * @param fileUrl 地址
+     * @return 响应文本
+     */
+    public String text(final String fileUrl) {
+        return send(HttpRequest.newBuilder().uri(URI.create(fileUrl)).timeout(TIMEOUT_DURATION).build());
+    }
+
+    /**
+     * 提交 JSON 请求并以文本读取响应
+     * @param url     地址
+     * @param headers 附加请求头
+     * @param json    请求体
+     * @return 响应文本
+     */
+    public String post(final String url, final Map<String, String> headers, final String json) {
+        final HttpRequest.Builder builder = HttpRequest.newBuilder().uri(URI.create(url)).timeout(TIMEOUT_DURATION)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        headers.forEach((name, value) -> Opt.ofBlankAble(value).ifPresent(v -> builder.header(name, v)));
+        return send(builder.build());
+    }
+
+    /**
+     * 发送请求并以文本读取响应，非 2xx 视为失败
+     * @param request 请求
+     * @return 响应文本
+     */
+    @SneakyThrows
+    private String send(final HttpRequest request) {
+        return scheduler.run(() -> {
+            final HttpResponse<byte[]> response = exchange(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() / 100 != 2) {
+                throw new IOException("请求失败 | url=%s status=%d".formatted(request.uri(), response.statusCode()));
+            }
+            // 按解码前的字节数计入流量
+            received(request.uri().toString(), response.body().length);
+            return new String(response.body(), StandardCharsets.UTF_8);
+        });
+    }
+
+    /**
+     * 打开响应体流，供调用方边下载边处理
+     * @param fileUrl 文件URL
+     * @return 响应体输入流，由调用方关闭
+     */
+    @SneakyThrows
+    public InputStream open(final String fileUrl) {
+        final HttpResponse<InputStream> response = exchange(
+                HttpRequest.newBuilder().uri(URI.create(fileUrl)).timeout(TIMEOUT_DURATION).build(), HttpResponse.BodyHandlers.ofInputStream()
+        );
+        if (response.statusCode() != HttpURLConnection.HTTP_OK) {
+            IoUtil.close(response.body());
+            throw new IOException("服务器对流式下载的响应状态为%d。".formatted(response.statusCode()));
+        }
+        Log.detail("开始流式下载: {} size={}", fileUrl, response.headers().firstValueAsLong("Content-Length").orElse(-1L));
+        final MetricsRegistry.Counter bytes = bytes(fileUrl);
+        return new FilterInputStream(response.body()) {
+            @Override
+            public int read() throws IOException {
+                final int b = super.read();
+                if (b >= 0) {
+                    bytes.increment();
+                }
+                return b;
+            }
+
+            @Override
+            public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+                final int n = super.read(buffer, offset, length);
+                if (n > 0) {
+                    bytes.add(n);
+                }
+                return n;
+            }
+        };
+    }
+
+    /**
+     * 发送请求并记录指标；GET/HEAD 遇连接错误或可重试状态时退避重试
+     * @param request 请求
+     * @param handler 响应体处理
+     * @return {@link HttpResponse }<{@link T }>
+     */
+    private <T> HttpResponse<T> exchange(final HttpRequest request, final HttpResponse.BodyHandler<T> handler) throws IOException, InterruptedException {
+        final String host = host(request.uri().toString());
+        final boolean idempotent = IDEMPOTENT.contains(request.method());
+        for (int attempt = 1; ; attempt++) {
+            final long begin = System.nanoTime();
+            final HttpRequestEvent event = new HttpRequestEvent();
+            event.begin();
+            try {
+                final HttpResponse<T> response = httpClient.send(request, handler);
+                event.finish(request.method(), request.uri().toString(), host, response.statusCode(),
+                        response.headers().firstValueAsLong("Content-Length").orElse(-1), attempt);
+                // 仅流式响应在收到响应头时返回；其余处理方式读完响应体才返回，不计入首包延迟
+                if (response.body() instanceof InputStream) {
+                    metrics.timer("p2s_http_request_seconds", "HTTP latency until response headers (streamed bodies only)", "host", host).since(begin);
+                }
+                metrics.counter("p2s_http_requests_total", "HTTP requests by host and status class",
+                        "host", host, "status", "%dxx".formatted(response.statusCode() / 100)).increment();
+                if (!idempotent || attempt >= MAX_ATTEMPTS || !RETRYABLE.contains(response.statusCode())) {
+                    return response;
+                }
+                if (response.body() instanceof final InputStream body) {
+                    IoUtil.close(body);
+                }
+            } catch (final IOException e) {
+                event.finish(request.method(), request.uri().toString(), host, -1, -1, attempt);
+                metrics.counter("p2s_http_requests_total", "HTTP requests by host and status class", "host", host, "status", "error").increment();
+                if (!idempotent || attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+            }
+            metrics.counter("p2s_http_retries_total", "HTTP requests retried", "host", host).increment();
+            Log.warn("[HTTP] 请求重试 | url={} attempt={}", request.uri(), attempt + 1);
+            Thread.sleep(RETRY_BACKOFF.multipliedBy(attempt));
+        }
+    }
+
+    /**
+     * 计入下载字节数
+     * @param fileUrl 文件URL
+     * @param bytes   字节数
+     */
+    private void received(final String fileUrl, final long bytes) {
+        bytes(fileUrl).add(bytes);
+    }
+
+    /**
+     * 按主机的下载字节计数器
+     * @param fileUrl 文件URL
+     * @return {@link MetricsRegistry.Counter }
+     */
+    private MetricsRegistry.Counter bytes(final String fileUrl) {
+        return metrics.counter("p2s_http_received_bytes_total", "Bytes downloaded by host", "host", host(fileUrl));
+    }
+
+    /**
+     * 地址的主机名
+     * @param fileUrl 地址
+     * @return 主机名，无法解析时为 {@code -}
+     */
+    private static String host(final String fileUrl) {
+        try {
+            return StrUtil.blankToDefault(URI.create(fileUrl).getHost(), "-");
+        } catch (final Exception ignore) {
+            return "-";
+        }
+    }
+
     /**
      * 使用多线程并发下载单个文件
      * @param fileUrl       文件URL
@@ -231,8 +526,11 @@ public class Downloader {
                 .uri(URI.create(fileUrl)).timeout(TIMEOUT_DURATION)
                 .header("Range", "bytes=%d-%d".formatted(startByte, endByte))
                 .build();
-        final HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        final HttpChunkEvent event = new HttpChunkEvent();
+        event.begin();
+        final HttpResponse<InputStream> response = exchange(request, HttpResponse.BodyHandlers.ofInputStream());
         if (response.statusCode() != HttpURLConnection.HTTP_PARTIAL) {
+            event.finish(fileUrl, startByte, endByte, response.statusCode(), 0);
             throw new IOException("服务器对范围请求的响应状态为%d。预期%d".formatted(response.statusCode(), HttpURLConnection.HTTP_PARTIAL));
         }
         // 使用RandomAccessFile直接写入文件的指定位置
@@ -240,12 +538,18 @@ public class Downloader {
              final InputStream inputStream = response.body()) {
             randomAccessFile.seek(startByte);
             final byte[] buffer = new byte[BUFFER_SIZE];
+            long written = 0;
             int bytesRead;
-            while ((bytesRead = inputStream.read(buffer)) != -1) {
-                randomAccessFile.write(buffer, 0, bytesRead);
-                updateProgress(fileUrl, bytesRead);
-                // 打印进度条 (现在由 DownloadProgress 内部控制频率)
-                Opt.ofNullable(progressMap.get(fileUrl)).ifPresent(DownloadProgress::printProgressBar);
+            try {
+                while ((bytesRead = inputStream.read(buffer)) != -1) {
+                    randomAccessFile.write(buffer, 0, bytesRead);
+                    written += bytesRead;
+                    updateProgress(fileUrl, bytesRead);
+                    // 打印进度条 (现在由 DownloadProgress 内部控制频率)
+                    Opt.ofNullable(progressMap.get(fileUrl)).ifPresent(DownloadProgress::printProgressBar);
+                }
+            } finally {
+                event.finish(fileUrl, startByte, endByte, response.statusCode(), written);
             }
         }
     }
@@ -258,7 +562,7 @@ public class Downloader {
     private void singleThreadDownload(final String fileUrl, final Path targetPath) throws IOException, InterruptedException {
         final HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(fileUrl)).timeout(TIMEOUT_DURATION).build();
-        final HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        final HttpResponse<InputStream> response = exchange(request, HttpResponse.BodyHandlers.ofInputStream());
         if (response.statusCode() != HttpURLConnection.HTTP_OK) {
             throw new IOException("服务器对单线程下载的响应状态为%d。".formatted(response.statusCode()));
         }
@@ -285,7 +589,7 @@ public class Downloader {
     private void streamDownload(final String fileUrl, final Path targetPath) throws IOException, InterruptedException {
         final HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(fileUrl)).timeout(TIMEOUT_DURATION).build();
-        final HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        final HttpResponse<InputStream> response = exchange(request, HttpResponse.BodyHandlers.ofInputStream());
         if (response.statusCode() != HttpURLConnection.HTTP_OK) {
             throw new IOException("服务器响应流下载状态为%d。".formatted(response.statusCode()));
         }
@@ -308,7 +612,7 @@ public class Downloader {
      * @param fileUrl 文件URL
      * @return 文件名的Optional
      */
-    private Optional<String> extractFileName(final String fileUrl) {
+    public Optional<String> extractFileName(final String fileUrl) {
         // 1. 首先尝试通过发送一个 HEAD 请求来获取 Content-Disposition 头
         try {
             final HttpRequest headRequest = HttpRequest.newBuilder()
@@ -316,67 +620,89 @@ public class Downloader {
                     .method("HEAD", HttpRequest.BodyPublishers.noBody())
                     .build();
             // 发送同步请求
-            final HttpResponse<Void> response = httpClient.send(headRequest, HttpResponse.BodyHandlers.discarding());
-            // 检查响应头
-            final Optional<String> contentDispositionHeaderOpt = response.headers().firstValue("Content-Disposition");
-            if (contentDispositionHeaderOpt.isPresent()) {
-                final String contentDisposition = contentDispositionHeaderOpt.get();
-                // 解析 Content-Disposition 头
-                final Matcher matcher = CONTENT_DISPOSITION_PATTERN.matcher(contentDisposition.trim());
-                if (matcher.find()) {
-                    // group(1) 匹配的是引号内的内容
-                    String encodedFilename = matcher.group(1);
-                    if (StrUtil.isNotEmpty(encodedFilename)) {
-                        // 处理 filename*=utf-8''encoded name 形式 (RFC 5987)
-                        if (contentDisposition.contains("filename*=")) {
-                            // 示例: filename*=UTF-8''%e6%b5%8b%e8%af%95.txt
-                            final int utf8Index = contentDisposition.indexOf("UTF-8''");
-                            if (utf8Index != -1) {
-                                encodedFilename = contentDisposition.substring(utf8Index + "UTF-8''".length());
-                            }
-                            // URL解码
-                            try {
-                                final String decodedFilename = java.net.URLDecoder.decode(encodedFilename, java.nio.charset.StandardCharsets.UTF_8);
-                                if (!decodedFilename.isEmpty()) {
-                                    Console.log("从 Content-Disposition (RFC 5987) 提取到文件名: {}", decodedFilename);
-                                    return Optional.of(decodedFilename);
-                                }
-                            } catch (final Exception e) {
-                                // 回退到未编码的 filename*
-                                try {
-                                    final String fallbackDecoded = java.net.URLDecoder.decode(matcher.group(1), java.nio.charset.StandardCharsets.ISO_8859_1);
-                                    if (!fallbackDecoded.isEmpty()) {
-                                        Console.log("回退到 ISO-8859-1 解码 filename*: {}", fallbackDecoded);
-                                        return Optional.of(fallbackDecoded);
-                                    }
-                                } catch (final Exception _) {
-                                }
+            final HttpResponse<Void> response = exchange(headRequest, HttpResponse.BodyHandlers.discarding());
+            final Optional<String> fromHeader = fileNameFromHeaders(response.headers());
+            if (fromHeader.isPresent()) {
+                return fromHeader;
+            }
+        } catch (final Exception _) {
+        }
+        // 2. 如果从头部获取失败，则尝试从 URL 路径解析
+        return fileNameFromPath(fileUrl);
+    }
+
+    /**
+     * 从响应头 Content-Disposition 解析文件名
+     * @param headers 响应头
+     * @return 文件名的Optional
+     */
+    private Optional<String> fileNameFromHeaders(final HttpHeaders headers) {
+        // 检查响应头
+        final Optional<String> contentDispositionHeaderOpt = headers.firstValue("Content-Disposition");
+        if (contentDispositionHeaderOpt.isEmpty()) {
+            Log.detail("响应头中未找到 Content-Disposition 字段");
+            return Optional.empty();
+        }
+        final String contentDisposition = contentDispositionHeaderOpt.get();
+        // 解析 Content-Disposition 头
+        final Matcher matcher = CONTENT_DISPOSITION_PATTERN.matcher(contentDisposition.trim());
+        if (matcher.find()) {
+            // group(1) 匹配的是引号内的内容
+            String encodedFilename = matcher.group(1);
+            if (StrUtil.isNotEmpty(encodedFilename)) {
+                // 处理 filename*=utf-8''encoded name 形式 (RFC 5987)
+                if (contentDisposition.contains("filename*=")) {
+                    // 示例: filename*=UTF-8''%e6%b5%8b%e8%af%95.txt
+                    final int utf8Index = contentDisposition.indexOf("UTF-8''");
+                    if (utf8Index != -1) {
+                        encodedFilename = contentDisposition.substring(utf8Index + "UTF-8''".length());
+                    }
+                    // URL解码
+                    try {
+                        final String decodedFilename = java.net.URLDecoder.decode(encodedFilename, java.nio.charset.StandardCharsets.UTF_8);
+                        if (!decodedFilename.isEmpty()) {
+                            Log.detail("从 Content-Disposition (RFC 5987) 提取到文件名: {}", decodedFilename);
+                            return Optional.of(decodedFilename);
+                        }
+                    } catch (final Exception e) {
+                        // 回退到未编码的 filename*
+                        try {
+                            final String fallbackDecoded = java.net.URLDecoder.decode(matcher.group(1), java.nio.charset.StandardCharsets.ISO_8859_1);
+                            if (!fallbackDecoded.isEmpty()) {
+                                Log.detail("回退到 ISO-8859-1 解码 filename*: {}", fallbackDecoded);
+                                return Optional.of(fallbackDecoded);
                             }
-                        } else {
-                            Console.log("从 Content-Disposition 提取到文件名: {}", encodedFilename);
-                            return Optional.of(encodedFilename);
+                        } catch (final Exception _) {
                         }
                     }
+                } else {
+                    Log.detail("从 Content-Disposition 提取到文件名: {}", encodedFilename);
+                    return Optional.of(encodedFilename);
                 }
-            } else {
-                Console.log("响应头中未找到 Content-Disposition 字段");
             }
-        } catch (final Exception _) {
         }
-        // 2. 如果从头部获取失败，则尝试从 URL 路径解析
+        return Optional.empty();
+    }
+
+    /**
+     * 从 URL 路径解析文件名
+     * @param fileUrl 文件URL
+     * @return 文件名的Optional
+     */
+    private Optional<String> fileNameFromPath(final String fileUrl) {
         try {
             // getPath 不包含查询参数和片段
             final String path = URI.create(fileUrl).getPath();
             if (path != null && !path.isEmpty() && !"/".equals(path)) {
                 final String fileName = Paths.get(path).getFileName().toString();
                 if (!fileName.isEmpty()) {
-                    Console.log("从 URL 路径提取到文件名: {}", fileName);
+                    Log.detail("从 URL 路径提取到文件名: {}", fileName);
                     return Optional.of(fileName);
                 }
             }
         } catch (final Exception _) {
         }
-        // 3. 如果两种方式都失败，返回空 Optional
+        // 如果两种方式都失败，返回空 Optional
         return Optional.empty();
     }
 
@@ -405,6 +731,7 @@ public class Downloader {
      * @param bytesDownloaded 已下载的字节数
      */
     private void updateProgress(final String fileUrl, final long bytesDownloaded) {
+        received(fileUrl, bytesDownloaded);
         Opt.ofNullable(progressMap.get(fileUrl))
                 .ifPresent(progress -> progress.addDownloadedBytes(bytesDownloaded));
     }
@@ -428,6 +755,24 @@ public class Downloader {
         return new HashMap<>(progressMap);
     }
 
+    /**
+     * 默认实例持有者，首次访问时初始化
+     */
+    private static final class Defaults {
+        private static final Downloader INSTANCE = new Downloader(newClient(Executors.newVirtualThreadPerTaskExecutor()), new DownloadScheduler(0));
+    }
+
+    /**
+     * 内存下载结果
+     * @param url      文件URL
+     * @param fileName 文件名
+     * @param bytes    文件内容
+     * @author 拒绝者
+     * @date 2026-10-18
+     */
+    public record Payload(String url, String fileName, byte[] bytes) {
+    }
+
     /**
      * 内部类，用于封装单个文件的下载进度信息
      * @author xuhaifeng
@@ -543,7 +888,7 @@ public class Downloader {
                     && (currentTimeMillis - this.lastPrintTimeMillis >= PROGRESS_PRINT_INTERVAL_MILLIS || currentCompletedStatus)) {
                 if (currentCompletedStatus) {
                     // 下载完成时打印最终状态
-                    Console.log("[{}] 下载完成。总大小: {}, 已下载: {}",
+                    Log.detail("[{}] 下载完成。总大小: {}, 已下载: {}",
                             this.url,
                             formatBytes(this.totalFileSize),
                             formatBytes(currentTotalDownloaded)
@@ -551,7 +896,7 @@ public class Downloader {
                 } else {
                     // 下载进行中时打印进度
                     final String progressInfo = getProgressInfo(currentTotalDownloaded);
-                    Console.log("[{}] {}", this.url, progressInfo);
+                    Log.detail("[{}] {}", this.url, progressInfo);
                 }
                 // 更新缓存的打印状态和时间，防止重复打印
                 this.lastPrintTimeMillis = currentTimeMillis;
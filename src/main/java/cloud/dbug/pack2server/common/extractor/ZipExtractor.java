@@ -0,0 +1,184 @@
+package cloud.dbug.pack2server.common.extractor;
+
+import cloud.dbug.pack2server.common.flight.ExtractEvent;
+import cloud.dbug.pack2server.common.log.Log;
+import cn.hutool.core.io.IORuntimeException;
+import cn.hutool.core.util.StrUtil;
+import lombok.SneakyThrows;
+import lombok.experimental.UtilityClass;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.UnaryOperator;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * 并行 zip 解压器
+ * <p>一次读取中央目录，先批量创建目录，再按 CPU 核数并行解压各条目；
+ * 每个文件经 {@link FileChannel} 写入并预分配大小；每个归档提交一条 {@link ExtractEvent}。</p>
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+@UtilityClass
+public class ZipExtractor {
+    /**
+     * zip 本地文件头魔数
+     */
+    private static final int LOCAL_HEADER_MAGIC = 0x504B0304;
+
+    /**
+     * 是否为 zip 格式
+     * @param file 文件
+     * @return boolean
+     */
+    public static boolean isZip(final Path file) {
+        try (final InputStream in = Files.newInputStream(file)) {
+            final byte[] head = in.readNBytes(4);
+            return head.length == 4 && ((head[0] & 0xFF) << 24 | (head[1] & 0xFF) << 16 | (head[2] & 0xFF) << 8 | (head[3] & 0xFF)) == LOCAL_HEADER_MAGIC;
+        } catch (final IOException ignore) {
+            return Boolean.FALSE;
+        }
+    }
+
+    /**
+     * 读取单个条目，不解压其余内容
+     * @param zip  zip 文件
+     * @param name 条目名
+     * @return {@link Optional }<{@link byte[] }>
+     */
+    @SneakyThrows
+    public static Optional<byte[]> read(final Path zip, final String name) {
+        try (final ZipFile zf = new ZipFile(zip.toFile(), StandardCharsets.UTF_8)) {
+            final ZipEntry entry = zf.getEntry(name);
+            if (Objects.isNull(entry) || entry.isDirectory()) return Optional.empty();
+            try (final InputStream in = zf.getInputStream(entry)) {
+                return Optional.of(in.readAllBytes());
+            }
+        }
+    }
+
+    /**
+     * 并行解压
+     * @param zip  zip 文件
+     * @param dest 目标目录
+     * @return 解压的文件数
+     */
+    public static int extract(final Path zip, final Path dest) {
+        return extract(zip, dest, UnaryOperator.identity());
+    }
+
+    /**
+     * 并行解压，条目名经映射后写入目标目录
+     * @param zip    zip 文件
+     * @param dest   目标目录
+     * @param mapper 条目名 -> 相对目标路径；返回 {@code null} 或空串表示跳过
+     * @return 解压的文件数
+     */
+    @SneakyThrows
+    public static int extract(final Path zip, final Path dest, final UnaryOperator<String> mapper) {
+        final Instant start = Instant.now();
+        final ExtractEvent event = new ExtractEvent();
+        event.begin();
+        final Path root = dest.toAbsolutePath().normalize();
+        try (final ZipFile zf = new ZipFile(zip.toFile(), StandardCharsets.UTF_8)) {
+            // 1. 读取中央目录，校验路径并收集目录
+            final List<Task> files = new ArrayList<>(zf.size());
+            final TreeSet<Path> dirs = new TreeSet<>();
+            zf.stream().forEach(entry -> {
+                final String name = mapper.apply(entry.getName());
+                if (StrUtil.isEmpty(name)) return;
+                final Path target = resolve(root, name);
+                if (entry.isDirectory()) {
+                    dirs.add(target);
+                } else {
+                    dirs.add(target.getParent());
+                    files.add(new Task(entry, target));
+                }
+            });
+            // 2. 批量创建目录：只建叶子目录，父目录随之创建
+            Path previous = null;
+            for (final Path dir : dirs.descendingSet()) {
+                if (previous == null || !previous.startsWith(dir)) {
+                    Files.createDirectories(dir);
+                }
+                previous = dir;
+            }
+            // 3. 并行解压
+            long bytes = 0;
+            try (final ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors())) {
+                final List<Future<Long>> futures = files.stream()
+                        .map(task -> executor.submit(() -> write(zf, task)))
+                        .toList();
+                for (final Future<Long> future : futures) {
+                    bytes += future.get();
+                }
+            }
+            event.finish(zip.toString(), root.toString(), files.size(), bytes);
+            Log.info("[EXTRACT] 并行解压完成 | file={} entries={} duration={}", zip.getFileName(), files.size(), Duration.between(start, Instant.now()));
+            return files.size();
+        }
+    }
+
+    /**
+     * 解析条目目标路径，拒绝越出目标目录的条目（zip-slip）
+     * @param root 目标根目录
+     * @param name 条目名
+     * @return {@link Path }
+     */
+    private static Path resolve(final Path root, final String name) {
+        final Path target = root.resolve(name).normalize();
+        if (!target.startsWith(root)) {
+            throw new IORuntimeException("[EXTRACT] 非法条目路径 | entry={}", name);
+        }
+        return target;
+    }
+
+    /**
+     * 写出单个条目
+     * @param zf   压缩文件
+     * @param task 任务
+     * @return 写出字节数
+     */
+    private static long write(final ZipFile zf, final Task task) throws IOException {
+        final long size = task.entry().getSize();
+        try (final InputStream in = zf.getInputStream(task.entry());
+             final ReadableByteChannel source = Channels.newChannel(in);
+             final RandomAccessFile file = new RandomAccessFile(task.target().toFile(), "rw");
+             final FileChannel channel = file.getChannel()) {
+            // 预分配
+            if (size > 0) file.setLength(size);
+            long position = 0, count;
+            while ((count = channel.transferFrom(source, position, Math.max(size - position, 8192))) > 0) {
+                position += count;
+            }
+            channel.truncate(position);
+            return position;
+        }
+    }
+
+    /**
+     * 解压任务
+     * @param entry  条目
+     * @param target 目标路径
+     */
+    private record Task(ZipEntry entry, Path target) {
+    }
+}
@@ -0,0 +1,132 @@
+package cloud.dbug.pack2server.common.fetcher;
+
+import cloud.dbug.pack2server.common.log.Log;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.lang.Opt;
+import cn.hutool.core.util.StrUtil;
+import lombok.experimental.UtilityClass;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * 本机 Java 运行时发现
+ * <p>扫描 {@code JAVA_HOME}、当前进程、系统包管理器与 SDKMAN 等常见位置，
+ * 读取各运行时根目录下的 {@code release} 文件确定主版本。</p>
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+@UtilityClass
+public class JavaDiscovery {
+    /**
+     * 版本行
+     */
+    private static final String VERSION_KEY = "JAVA_VERSION=";
+
+    /**
+     * 查找主版本匹配的本机运行时
+     * @param major 主版本
+     * @return {@link Optional }<{@link Runtime }>
+     */
+    public static Optional<Runtime> find(final int major) {
+        final Optional<Runtime> hit = scan().stream().filter(r -> r.major() == major).findFirst();
+        hit.ifPresentOrElse(
+                r -> Log.info("[JRE] 发现本机运行时 | major={} version={} home={}", r.major(), r.version(), r.home()),
+                () -> Log.info("[JRE] 未发现本机运行时 | major={}", major)
+        );
+        return hit;
+    }
+
+    /**
+     * 扫描全部候选位置
+     * @return {@link List }<{@link Runtime }>
+     */
+    public static List<Runtime> scan() {
+        final String userHome = System.getProperty("user.home");
+        final List<Path> homes = new ArrayList<>();
+        Opt.ofBlankAble(System.getenv("JAVA_HOME")).map(Path::of).ifPresent(homes::add);
+        homes.add(Path.of(System.getProperty("java.home")));
+        Stream.of(
+                Path.of("/usr/lib/jvm"),
+                Path.of("/usr/java"),
+                Path.of("/opt/java"),
+                Path.of(userHome, ".sdkman", "candidates", "java"),
+                Path.of(userHome, ".jdks"),
+                Path.of("/Library/Java/JavaVirtualMachines"),
+                Path.of("C:\\Program Files\\Java"),
+                Path.of("C:\\Program Files\\Eclipse Adoptium")
+        ).forEach(dir -> homes.addAll(children(dir)));
+        return homes.stream()
+                .map(h -> Files.exists(h.resolve("Contents/Home/release")) ? h.resolve("Contents/Home") : h)
+                .map(h -> h.toAbsolutePath().normalize())
+                .distinct()
+                .map(JavaDiscovery::inspect)
+                .flatMap(Optional::stream)
+                .toList();
+    }
+
+    /**
+     * 读取运行时主版本
+     * @param home 运行时根目录
+     * @return 主版本；无法识别时为空
+     */
+    public static OptionalInt readMajor(final Path home) {
+        return inspect(home).map(r -> OptionalInt.of(r.major())).orElse(OptionalInt.empty());
+    }
+
+    /**
+     * 解析单个运行时
+     * @param home 运行时根目录
+     * @return {@link Optional }<{@link Runtime }>
+     */
+    public static Optional<Runtime> inspect(final Path home) {
+        final Path release = home.resolve("release");
+        final boolean hasJava = Files.exists(home.resolve("bin/java")) || Files.exists(home.resolve("bin/java.exe"));
+        if (!hasJava || Files.notExists(release)) return Optional.empty();
+        try {
+            return FileUtil.readUtf8Lines(release.toFile()).stream()
+                    .map(String::trim)
+                    .filter(line -> line.startsWith(VERSION_KEY))
+                    .map(line -> StrUtil.unWrap(StrUtil.removePrefix(line, VERSION_KEY), '"'))
+                    .findFirst()
+                    .map(version -> new Runtime(home, parseMajor(version), version));
+        } catch (final Exception ignore) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * 解析主版本，兼容 {@code 1.8.0_392} 与 {@code 21.0.1}
+     * @param version 版本号
+     * @return int
+     */
+    private static int parseMajor(final String version) {
+        final String[] parts = version.split("[.+_-]");
+        return Integer.parseInt("1".equals(parts[0]) && parts.length > 1 ? parts[1] : parts[0]);
+    }
+
+    /**
+     * 列出子目录
+     * @param dir 目录
+     * @return {@link List }<{@link Path }>
+     */
+    private static List<Path> children(final Path dir) {
+        if (!Files.isDirectory(dir)) return List.of();
+        try (final Stream<Path> sub = Files.list(dir)) {
+            return sub.filter(Files::isDirectory).sorted(Comparator.reverseOrder()).toList();
+        } catch (final Exception ignore) {
+            return List.of();
+        }
+    }
+
+    /**
+     * 本机运行时
+     * @param home    根目录
+     * @param major   主版本
+     * @param version 完整版本
+     */
+    public record Runtime(Path home, int major, String version) {
+    }
+}
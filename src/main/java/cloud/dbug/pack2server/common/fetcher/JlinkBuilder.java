@@ -0,0 +1,134 @@
+package cloud.dbug.pack2server.common.fetcher;
+
+import cloud.dbug.pack2server.common.ServerWorkspace;
+import cloud.dbug.pack2server.common.cache.CacheStore;
+import cloud.dbug.pack2server.common.log.Log;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
+import cn.hutool.core.util.StrUtil;
+import lombok.SneakyThrows;
+import lombok.experimental.UtilityClass;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * jlink 精简运行时构建器
+ * <p>使用本机同主版本 JDK 生成仅含服务端所需模块的运行时，可选附带默认 CDS 归档；
+ * 产物缓存在共享仓库中，按 JDK 完整版本区分。</p>
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+@UtilityClass
+public class JlinkBuilder {
+    /**
+     * 覆盖主流服务端加载器（Fabric/Quilt/Forge/NeoForge）及常见模组的模块集
+     */
+    public static final List<String> SERVER_MODULES = List.of(
+            "java.base", "java.compiler", "java.desktop", "java.instrument", "java.logging",
+            "java.management", "java.management.rmi", "java.naming", "java.net.http", "java.prefs",
+            "java.rmi", "java.scripting", "java.security.jgss", "java.security.sasl", "java.sql",
+            "java.transaction.xa", "java.xml", "java.xml.crypto", "jdk.crypto.cryptoki", "jdk.crypto.ec",
+            "jdk.httpserver", "jdk.jfr", "jdk.localedata", "jdk.management", "jdk.management.agent",
+            "jdk.naming.dns", "jdk.net", "jdk.security.auth", "jdk.unsupported", "jdk.zipfs"
+    );
+    /**
+     * 就绪标记文件
+     */
+    private static final String READY_MARKER = ".ready";
+    /**
+     * 镜像目录名
+     */
+    private static final String IMAGE = "image";
+
+    /**
+     * 构建或复用精简运行时
+     * @param major  主版本
+     * @param cds    是否生成默认 CDS 归档
+     * @param keyDir 共享仓库中的版本/系统/架构目录
+     * @return 发行版目录（其下 {@code image} 为运行时根目录）；无可用 JDK 或构建失败时为空
+     */
+    public static Optional<Path> build(final int major, final boolean cds, final Path keyDir) {
+        final Optional<JavaDiscovery.Runtime> jdk = JavaDiscovery.scan().stream()
+                .filter(r -> r.major() == major)
+                .filter(r -> Files.exists(r.home().resolve("bin/jlink")) || Files.exists(r.home().resolve("bin/jlink.exe")))
+                .findFirst();
+        if (jdk.isEmpty()) {
+            Log.info("[JLINK] 未发现可用 JDK，回退完整 JRE | major={}", major);
+            return Optional.empty();
+        }
+        final Path releaseDir = keyDir.resolve(ServerWorkspace.legalFileName(jdk.get().version()) + (cds ? "-cds" : ""));
+        try {
+            return Optional.of(CacheStore.locked(keyDir, () -> {
+                if (Files.exists(releaseDir.resolve(READY_MARKER))) {
+                    Log.info("[JLINK] 命中精简运行时 | dir={}", releaseDir);
+                    return releaseDir;
+                }
+                link(jdk.get(), cds, releaseDir);
+                return releaseDir;
+            }));
+        } catch (final Exception e) {
+            Log.warn("[JLINK] 构建失败，回退完整 JRE | err={}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * 执行 jlink（需持有目录锁）
+     * @param jdk        JDK
+     * @param cds        是否生成默认 CDS 归档
+     * @param releaseDir 发行版目录
+     */
+    private static void link(final JavaDiscovery.Runtime jdk, final boolean cds, final Path releaseDir) {
+        final Instant start = Instant.now();
+        final Path partial = releaseDir.resolveSibling(".partial-%s".formatted(releaseDir.getFileName()));
+        FileUtil.del(partial);
+        ServerWorkspace.ensure(partial, Boolean.FALSE, null);
+        final Path image = partial.resolve(IMAGE);
+        // 只保留该 JDK 实际提供的模块
+        final Set<String> available = new HashSet<>();
+        exec(List.of(jdk.home().resolve("bin/java").toString(), "--list-modules"))
+                .lines().map(l -> StrUtil.subBefore(l.trim(), "@", Boolean.FALSE)).forEach(available::add);
+        final List<String> modules = SERVER_MODULES.stream().filter(available::contains).toList();
+        try {
+            exec(List.of(
+                    jdk.home().resolve("bin/jlink").toString(),
+                    "--add-modules", String.join(",", modules),
+                    "--strip-debug", "--no-man-pages", "--no-header-files",
+                    "--compress=%s".formatted(jdk.major() >= 21 ? "zip-6" : "2"),
+                    "--output", image.toString()
+            ));
+            // 以精简镜像自身生成默认 CDS 归档（lib/server/classes.jsa）
+            if (cds) exec(List.of(image.resolve("bin/java").toString(), "-Xshare:dump"));
+        } catch (final RuntimeException e) {
+            FileUtil.del(partial);
+            throw e;
+        }
+        FileUtil.writeUtf8String("%s %s".formatted(jdk.version(), String.join(",", modules)), partial.resolve(READY_MARKER).toFile());
+        FileUtil.del(releaseDir);
+        FileUtil.move(partial.toFile(), releaseDir.toFile(), Boolean.TRUE);
+        Log.info("[JLINK] 精简运行时已生成 | jdk={} modules={} cds={} size={} duration={}",
+                jdk.home(), modules.size(), cds, FileUtil.readableFileSize(FileUtil.size(releaseDir.toFile())), Duration.between(start, Instant.now()));
+    }
+
+    /**
+     * 执行外部命令
+     * @param command 命令
+     * @return 标准输出
+     */
+    @SneakyThrows
+    private static String exec(final List<String> command) {
+        final Process process = new ProcessBuilder(command).redirectErrorStream(Boolean.TRUE).start();
+        final String output = IoUtil.readUtf8(process.getInputStream());
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("命令执行失败 | cmd=%s out=%s".formatted(String.join(" ", command), output.trim()));
+        }
+        return output;
+    }
+}
@@ -1,19 +1,42 @@
 package cloud.dbug.pack2server.common.fetcher;
 
 import cloud.dbug.pack2server.common.ServerWorkspace;
+import cloud.dbug.pack2server.common.cache.CacheStore;
 import cloud.dbug.pack2server.common.downloader.Downloader;
+import cloud.dbug.pack2server.common.fetcher.enums.RuntimeLink;
+import cloud.dbug.pack2server.common.log.Log;
+import cloud.dbug.pack2server.common.materializer.Materializer;
+import cloud.dbug.pack2server.common.materializer.enums.Strategy;
+import cloud.dbug.pack2server.entity.PackManifest;
 import cn.hutool.core.io.FileUtil;
-import cn.hutool.core.lang.Console;
+import cn.hutool.core.io.IORuntimeException;
+import cn.hutool.core.util.HexUtil;
 import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONObject;
 import cn.hutool.json.JSONUtil;
+import lombok.SneakyThrows;
+import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.compress.archivers.ArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 /**
  * Jre提取器
@@ -26,59 +49,290 @@ public class JreFetcher {
      */
     private static final String RELEASE_DIRECTORY = ".jre-runtime";
     /**
-     * Jre地址
+     * 最新发行版资产地址（含校验和）
      */
-    private static final String JRE_URL = "https://api.adoptium.net/v3/binary/latest/%d/ga/%s/%s/jre/hotspot/normal/eclipse?project=jdk";
+    private static final String ASSET_URL = "https://api.adoptium.net/v3/assets/latest/%d/hotspot?architecture=%s&image_type=jre&os=%s&vendor=eclipse";
+    /**
+     * 就绪标记文件
+     */
+    private static final String READY_MARKER = ".ready";
+    /**
+     * 共享仓库子目录
+     */
+    private static final String RUNTIME_STORE = "runtimes";
+    /**
+     * 当前发行版指针文件
+     */
+    private static final String CURRENT_POINTER = "current";
+    /**
+     * 共享运行时刷新间隔
+     */
+    private static final Duration REFRESH_INTERVAL = Duration.ofDays(7);
+
+    /**
+     * 设置运行时，优先复用本机运行时，否则以硬链接方式引用共享仓库
+     * @param manifestPath 清单路径
+     * @param extractDir   提取目录
+     * @return {@link Path }
+     */
+    public static Path setupRuntime(final Path manifestPath, final Path extractDir) {
+        return setupRuntime(manifestPath, extractDir, Options.DEFAULT);
+    }
 
     /**
      * 设置运行时
+     * <p>依次尝试：jlink 精简运行时（需开启）→ 主版本一致的本机运行时 → 共享仓库中的 Adoptium JRE。
+     * 运行时存放于机器级仓库 {@code <cache>/runtimes/<version>-<os>-<arch>/<release>}，
+     * 超过 {@link #REFRESH_INTERVAL} 才查询新发行版；多进程并发准备同一运行时由目录锁保证只下载一次。</p>
      * @param manifestPath 清单路径
      * @param extractDir   提取目录
+     * @param options      运行时选项
+     * @return {@link Path }
+     */
+    public static Path setupRuntime(final Path manifestPath, final Path extractDir, final Options options) {
+        return setupRuntime(PackManifest.read(manifestPath), extractDir, options);
+    }
+
+    /**
+     * 设置运行时
+     * @param manifest   清单
+     * @param extractDir 提取目录
+     * @param options    运行时选项
+     * @return {@link Path }
+     */
+    public static Path setupRuntime(final PackManifest manifest, final Path extractDir, final Options options) {
+        return setupRuntime(manifest, extractDir, options, Downloader.defaults());
+    }
+
+    /**
+     * 设置运行时
+     * @param manifest   清单
+     * @param extractDir 提取目录
+     * @param options    运行时选项
+     * @param downloader 下载器
      * @return {@link Path }
      */
-    public static Path setupRuntime(final Path manifestPath, Path extractDir) {
+    public static Path setupRuntime(final PackManifest manifest, final Path extractDir, final Options options, final Downloader downloader) {
         final Instant start = Instant.now();
+        final int version = detectJavaVersion(manifest.getMinecraftVersion());
         final String os = getNormalizedOS();
         final String arch = getNormalizedArch();
-        final int version = detectJavaVersion(manifestPath);
-        // 处理释放目录
-        extractDir = extractDir.resolve(RELEASE_DIRECTORY);
-        ServerWorkspace.ensure(extractDir);
-        final String jreUrl = JRE_URL.formatted(version, os, arch);
-        Console.log("[JRE] 信息 | version={} os={} arch={} url={}", version, os, arch, jreUrl);
-        // 生成下载路径
-        final Path downloadPath = extractDir.resolve("jre-runtime.%s".formatted(StrUtil.equals(os, "windows") ? "zip" : "tar.gz"));
-        // 清理路径
-        FileUtil.del(downloadPath);
-        // 获取Jre绝对路径
-        final Path jarPath = Downloader.fetch(jreUrl, downloadPath);
-        if (Files.notExists(jarPath)) {
-            Console.error("[JRE] 提取失败");
-            return null;
+        if (options.jlink()) {
+            final Optional<Path> trimmed = JlinkBuilder.build(version, options.cds(),
+                    CacheStore.resolve(RUNTIME_STORE, "jlink-%d-%s-%s".formatted(version, os, arch)));
+            if (trimmed.isPresent()) {
+                return attach(trimmed.get(), extractDir, options.link(), start);
+            }
         }
-        Console.log(
-                "[JRE] 信息 | file={} size={} duration={}",
-                jarPath.toAbsolutePath(),
-                formatBytes(FileUtil.size(jarPath.toFile())),
-                Duration.between(start, Instant.now())
-        );
-        Console.log("[JRE] 开始解压 | file={}", jarPath);
-        // 获取Jre目录
-        final Path jarDir = ServerWorkspace.EXTRACT_FILES.get(jarPath, extractDir);
-        Console.log("[JRE] 解压完成 | home={}", jarDir);
-        FileUtil.del(jarPath);
-        Console.log("[JRE] 临时包已清理 | file={}", jarPath);
-        return jarDir.toAbsolutePath().normalize();
+        if (options.preferHost()) {
+            final Optional<JavaDiscovery.Runtime> host = JavaDiscovery.find(version);
+            if (host.isPresent()) {
+                return host.get().home();
+            }
+        }
+        final Path keyDir = CacheStore.resolve(RUNTIME_STORE, "%d-%s-%s".formatted(version, os, arch));
+        final Path releaseDir = CacheStore.locked(keyDir, () -> ensureShared(keyDir, version, os, arch, downloader));
+        return attach(releaseDir, extractDir, options.link(), start);
+    }
+
+    /**
+     * 将共享仓库中的发行版关联到服务目录
+     * @param releaseDir 发行版目录
+     * @param extractDir 提取目录
+     * @param link       引用方式
+     * @param start      开始时间
+     * @return 运行时根目录
+     */
+    private static Path attach(final Path releaseDir, final Path extractDir, final RuntimeLink link, final Instant start) {
+        final Path sharedHome = homeOf(releaseDir);
+        if (RuntimeLink.SHARED.equals(link)) {
+            Log.info("[JRE] 使用共享运行时 | home={} duration={}", sharedHome, Duration.between(start, Instant.now()));
+            return sharedHome;
+        }
+        // 镜像到服务目录
+        final Path runtimeDir = extractDir.resolve(RELEASE_DIRECTORY);
+        ServerWorkspace.ensure(runtimeDir, Boolean.FALSE, null);
+        FileUtil.clean(runtimeDir.toFile());
+        Materializer.materialize(releaseDir, runtimeDir, EnumSet.of(Strategy.HARDLINK, Strategy.REFLINK, Strategy.COPY));
+        final Path home = runtimeDir.resolve(sharedHome.getFileName().toString());
+        Log.info("[JRE] 共享运行时已链接 | home={} duration={}", home, Duration.between(start, Instant.now()));
+        return home.toAbsolutePath().normalize();
+    }
+
+    /**
+     * 确保共享仓库中存在可用运行时（需持有目录锁）
+     * @param keyDir     版本/系统/架构对应目录
+     * @param version    主版本
+     * @param os         操作系统
+     * @param arch       架构
+     * @param downloader 下载器
+     * @return 发行版目录
+     */
+    private static Path ensureShared(final Path keyDir, final int version, final String os, final String arch, final Downloader downloader) {
+        final Path current = keyDir.resolve(CURRENT_POINTER);
+        final Optional<Path> cached = Optional.of(current).filter(Files::exists)
+                .map(p -> keyDir.resolve(FileUtil.readUtf8String(p.toFile()).trim()))
+                .filter(dir -> Files.exists(dir.resolve(READY_MARKER)));
+        if (CacheStore.lookup(downloader.getMetrics(), "jre", cached.isPresent() && CacheStore.fresh(current, REFRESH_INTERVAL))) {
+            Log.info("[JRE] 命中共享运行时 | dir={}", cached.get());
+            return cached.get();
+        }
+        final Optional<Release> release = queryRelease(version, os, arch, downloader);
+        // 无法获取发行版信息时沿用缓存；无缓存时不安装未经校验的运行时
+        if (release.isEmpty()) {
+            final Path dir = cached.orElseThrow(() -> new IllegalStateException("[JRE] 发行版信息获取失败，无法校验运行时 | version=%d os=%s arch=%s".formatted(version, os, arch)));
+            Log.info("[JRE] 沿用共享运行时 | dir={}", dir);
+            return dir;
+        }
+        return install(keyDir, release.get(), version, os, arch, downloader);
+    }
+
+    /**
+     * 下载、校验并安装发行版到共享仓库（需持有目录锁）
+     * @param keyDir     版本/系统/架构对应目录
+     * @param release    发行版
+     * @param version    主版本
+     * @param os         操作系统
+     * @param arch       架构
+     * @param downloader 下载器
+     * @return 发行版目录
+     */
+    private static Path install(final Path keyDir, final Release release, final int version, final String os, final String arch, final Downloader downloader) {
+        final Path current = keyDir.resolve(CURRENT_POINTER);
+        final Path releaseDir = keyDir.resolve(ServerWorkspace.legalFileName(release.name()));
+        if (Files.exists(releaseDir.resolve(READY_MARKER))) {
+            FileUtil.writeUtf8String(releaseDir.getFileName().toString(), current.toFile());
+            Log.info("[JRE] 共享运行时已是最新 | dir={}", releaseDir);
+            return releaseDir;
+        }
+        Log.info("[JRE] 信息 | version={} os={} arch={} release={} url={}", version, os, arch, release.name(), release.link());
+        final Path partial = keyDir.resolve(".partial-%s".formatted(releaseDir.getFileName()));
+        FileUtil.del(partial);
+        ServerWorkspace.ensure(partial, Boolean.FALSE, null);
+        final long written;
+        try {
+            written = streamExtract(release, partial, StrUtil.equals(os, "windows"), downloader);
+        } catch (final RuntimeException e) {
+            FileUtil.del(partial);
+            throw e;
+        }
+        // 校验通过后才写就绪标记并移入仓库
+        FileUtil.writeUtf8String("%s %s".formatted(release.name(), release.checksum()), partial.resolve(READY_MARKER).toFile());
+        FileUtil.del(releaseDir);
+        FileUtil.move(partial.toFile(), releaseDir.toFile(), Boolean.TRUE);
+        FileUtil.writeUtf8String(releaseDir.getFileName().toString(), current.toFile());
+        Log.info("[JRE] 共享运行时已就绪 | dir={} size={}", releaseDir, formatBytes(written));
+        return releaseDir;
+    }
+
+    /**
+     * 发行版目录下的 JRE 根目录
+     * @param releaseDir 发行版目录
+     * @return {@link Path }
+     */
+    private static Path homeOf(final Path releaseDir) {
+        try (final Stream<Path> sub = Files.list(releaseDir)) {
+            return sub.filter(Files::isDirectory)
+                    .filter(p -> !StrUtil.startWith(p.getFileName().toString(), "."))
+                    .findFirst()
+                    .orElseThrow(() -> new IORuntimeException("[JRE] 文件释放失败 | home={}", releaseDir))
+                    .toAbsolutePath().normalize();
+        } catch (final IOException e) {
+            throw new IORuntimeException(e);
+        }
+    }
+
+    /**
+     * 查询最新发行版的下载地址与校验和
+     * @param version    主版本
+     * @param os         操作系统
+     * @param arch       架构
+     * @param downloader 下载器
+     * @return {@link Optional }<{@link Release }>，查询失败或缺少校验和时为空
+     */
+    private static Optional<Release> queryRelease(final int version, final String os, final String arch, final Downloader downloader) {
+        try {
+            final JSONObject asset = JSONUtil.parseArray(downloader.text(ASSET_URL.formatted(version, arch, os)))
+                    .getJSONObject(0);
+            final JSONObject pkg = asset.getByPath("binary.package", JSONObject.class);
+            return Optional.of(new Release(asset.getStr("release_name"), pkg.getStr("link"), pkg.getStr("checksum")))
+                    .filter(r -> StrUtil.isAllNotBlank(r.name(), r.link(), r.checksum()));
+        } catch (final Exception e) {
+            Log.warn("[JRE] 发行版信息获取失败 | err={}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * 流式下载并解包；链接条目的目标不得越出释放目录，响应体读完后校验摘要，不符时清空释放目录
+     * @param release    发行版
+     * @param extractDir 释放目录
+     * @param zip        是否为 zip 包
+     * @param downloader 下载器
+     * @return 写出的字节数
+     */
+    @SneakyThrows
+    private static long streamExtract(final Release release, final Path extractDir, final boolean zip, final Downloader downloader) {
+        final Path root = extractDir.toAbsolutePath().normalize();
+        final MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+        long written = 0;
+        try (final DigestInputStream body = new DigestInputStream(downloader.open(release.link()), sha256)) {
+            final ArchiveInputStream<? extends ArchiveEntry> archive = zip
+                    ? new ZipArchiveInputStream(body)
+                    : new TarArchiveInputStream(new GzipCompressorInputStream(body));
+            ArchiveEntry entry;
+            while (Objects.nonNull(entry = archive.getNextEntry())) {
+                final Path target = root.resolve(entry.getName()).normalize();
+                if (!target.startsWith(root)) {
+                    throw new IORuntimeException("[JRE] 非法条目路径 | entry={}", entry.getName());
+                }
+                if (entry.isDirectory()) {
+                    Files.createDirectories(target);
+                    continue;
+                }
+                Files.createDirectories(target.getParent());
+                if (entry instanceof final TarArchiveEntry tar && tar.isSymbolicLink()) {
+                    final Path link = Path.of(tar.getLinkName());
+                    if (link.isAbsolute() || !target.getParent().resolve(link).normalize().startsWith(root)) {
+                        throw new IORuntimeException("[JRE] 非法链接目标 | entry={} link={}", entry.getName(), tar.getLinkName());
+                    }
+                    Files.deleteIfExists(target);
+                    Files.createSymbolicLink(target, link);
+                    continue;
+                }
+                if (entry instanceof final TarArchiveEntry tar && tar.isLink()) {
+                    final Path source = root.resolve(tar.getLinkName()).normalize();
+                    if (!source.startsWith(root)) {
+                        throw new IORuntimeException("[JRE] 非法链接目标 | entry={} link={}", entry.getName(), tar.getLinkName());
+                    }
+                    Files.deleteIfExists(target);
+                    Files.createLink(target, source);
+                    continue;
+                }
+                written += Files.copy(archive, target, StandardCopyOption.REPLACE_EXISTING);
+                if (entry instanceof final TarArchiveEntry tar && (tar.getMode() & 0111) != 0) {
+                    FileUtil.file(target.toFile()).setExecutable(Boolean.TRUE, Boolean.FALSE);
+                }
+            }
+            // 读完尾部填充，保证摘要覆盖完整响应体
+            body.transferTo(OutputStream.nullOutputStream());
+        }
+        final String actual = HexUtil.encodeHexStr(sha256.digest());
+        if (!StrUtil.equalsIgnoreCase(actual, release.checksum())) {
+            FileUtil.clean(extractDir.toFile());
+            throw new IllegalStateException("[JRE] 校验和不匹配 | expected=%s actual=%s".formatted(release.checksum(), actual));
+        }
+        Log.info("[JRE] 校验通过 | sha256={}", actual);
+        return written;
     }
 
     /**
      * 检测Java版本
-     * @param manifestPath 清单路径
+     * @param minecraftVersion Minecraft 版本
      * @return int
      */
-    private static int detectJavaVersion(final Path manifestPath) {
-        return Optional.of(JSONUtil.parseObj(FileUtil.readUtf8String(manifestPath.toFile())))
-                .map(json -> json.getByPath("minecraft.version", String.class))
+    private static int detectJavaVersion(final String minecraftVersion) {
+        return Optional.ofNullable(minecraftVersion)
                 .map(ver -> Arrays.stream(ver.split("\\.")).mapToInt(Integer::parseInt).toArray())
                 .filter(v -> v.length >= 2)
                 .map(v -> switch (v[1]) {
@@ -131,4 +385,27 @@ public class JreFetcher {
         final double gb = mb / 1024.0;
         return String.format("%.2f GB", gb);
     }
-}
\ No newline at end of file
+
+    /**
+     * 发行版
+     * @param name     发行版名称
+     * @param link     下载地址
+     * @param checksum SHA-256，必须提供；接口未给出摘要的运行时不予使用
+     */
+    private record Release(String name, String link, String checksum) {
+    }
+
+    /**
+     * 运行时选项
+     * @param link       服务目录引用方式
+     * @param preferHost 优先复用主版本一致的本机运行时
+     * @param jlink      以本机 JDK 生成精简运行时
+     * @param cds        精简运行时附带默认 CDS 归档
+     */
+    public record Options(RuntimeLink link, boolean preferHost, boolean jlink, boolean cds) {
+        /**
+         * 默认选项
+         */
+        public static final Options DEFAULT = new Options(RuntimeLink.HARDLINK, Boolean.TRUE, Boolean.FALSE, Boolean.FALSE);
+    }
+}
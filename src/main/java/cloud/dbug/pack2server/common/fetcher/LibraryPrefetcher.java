@@ -0,0 +1,218 @@
+package cloud.dbug.pack2server.common.fetcher;
+
+import cloud.dbug.pack2server.common.cache.CacheStore;
+import cloud.dbug.pack2server.common.digest.FileDigest;
+import cloud.dbug.pack2server.common.downloader.Downloader;
+import cloud.dbug.pack2server.common.extractor.ZipExtractor;
+import cloud.dbug.pack2server.common.log.Log;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import lombok.experimental.UtilityClass;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Forge / NeoForge 依赖库预取器
+ * <p>读取安装器内的 {@code install_profile.json} 与 {@code version.json}，
+ * 将声明的全部库并行下载到共享仓库并校验 SHA-1，再放置到服务目录的 {@code libraries/}，
+ * 使加载器首次启动时无需逐个下载。</p>
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+@UtilityClass
+public class LibraryPrefetcher {
+    /**
+     * 服务目录下的库目录
+     */
+    public static final String LIBRARIES = "libraries";
+    /**
+     * 同时下载的库数量
+     */
+    private static final int PARALLELISM = 16;
+    /**
+     * 安装器摘要缓存有效期；已发布的安装器不会变化
+     */
+    private static final Duration CHECKSUM_TTL = Duration.ofDays(365);
+    /**
+     * SHA-1 摘要
+     */
+    private static final Pattern SHA1 = Pattern.compile("^[0-9a-fA-F]{40}$");
+
+    /**
+     * 预取加载器依赖库
+     * @param loader        加载器
+     * @param workDirectory 服务目录
+     * @return 已就位的库；非 Forge/NeoForge 加载器返回空列表
+     */
+    public static List<Library> prefetch(final LoaderFetcher.Loader loader, final Path workDirectory) {
+        return prefetch(loader, workDirectory, Downloader.defaults());
+    }
+
+    /**
+     * 预取加载器依赖库
+     * @param loader        加载器
+     * @param workDirectory 服务目录
+     * @param downloader    下载器
+     * @return 已就位的库；非 Forge/NeoForge 加载器返回空列表
+     */
+    public static List<Library> prefetch(final LoaderFetcher.Loader loader, final Path workDirectory, final Downloader downloader) {
+        final String[] parts = loader.getLoaderName().split("-", 2);
+        final String installerUrl = switch (parts[0]) {
+            case "forge" ->
+                    "https://maven.minecraftforge.net/net/minecraftforge/forge/%1$s-%2$s/forge-%1$s-%2$s-installer.jar".formatted(loader.getMinecraftVersion(), parts[1]);
+            case "neoforge" ->
+                    "https://maven.neoforged.net/releases/net/neoforged/neoforge/%1$s/neoforge-%1$s-installer.jar".formatted(parts[1]);
+            default -> null;
+        };
+        if (Objects.isNull(installerUrl)) {
+            return List.of();
+        }
+        final Instant start = Instant.now();
+        final List<Library> libraries;
+        try {
+            final Path installerFile = CacheStore.resolve("loaders", parts[0], loader.getMinecraftVersion(), parts[1], "installer.jar");
+            // 取仓库发布的 .sha1 校验安装器，摘要随安装器一同缓存
+            final String installerSha1 = StrUtil.subBefore(CacheStore.text(installerFile.resolveSibling("installer.jar.sha1"), CHECKSUM_TTL,
+                    () -> downloader.text("%s.sha1".formatted(installerUrl))).strip(), " ", Boolean.FALSE);
+            if (!SHA1.matcher(installerSha1).matches()) {
+                throw new IllegalStateException("安装器摘要无效 | url=%s.sha1".formatted(installerUrl));
+            }
+            final Path installer = cached(installerFile, installerUrl, installerSha1, downloader);
+            libraries = Stream.of("install_profile.json", "version.json")
+                    .map(name -> ZipExtractor.read(installer, name))
+                    .flatMap(Optional::stream)
+                    .map(StrUtil::utf8Str)
+                    .flatMap(LibraryPrefetcher::parse)
+                    .distinct()
+                    .toList();
+        } catch (final Exception e) {
+            Log.warn("[LIBS] 安装器获取失败，依赖库留待加载器自行下载 | loader={} err={}", loader.getLoaderName(), e.getMessage());
+            return List.of();
+        }
+        Log.info("[LIBS] 依赖库解析完成 | loader={} libraries={}", loader.getLoaderName(), libraries.size());
+        final Path libraryDir = workDirectory.resolve(LIBRARIES);
+        final List<Library> placed = new ArrayList<>();
+        final Semaphore slots = new Semaphore(PARALLELISM);
+        try (final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            final List<Future<Library>> futures = libraries.stream().map(lib -> executor.submit(() -> {
+                slots.acquire();
+                try {
+                    final Path jar = cached(resolve(CacheStore.resolve(LIBRARIES), lib.path()), lib.url(), lib.sha1(), downloader);
+                    CacheStore.place(jar, resolve(libraryDir, lib.path()));
+                    return lib;
+                } finally {
+                    slots.release();
+                }
+            })).toList();
+            for (final Future<Library> future : futures) {
+                try {
+                    placed.add(future.get());
+                } catch (final Exception e) {
+                    Log.warn("[LIBS] 依赖库预取失败，留待加载器自行下载 | err={}", e.getMessage());
+                }
+            }
+        }
+        Log.info("[LIBS] 依赖库预取完成 | placed={}/{} duration={}", placed.size(), libraries.size(), Duration.between(start, Instant.now()));
+        return placed;
+    }
+
+    /**
+     * 解析描述文件中的库声明，跳过无下载地址（由安装处理器生成）或结构不符的条目
+     * @param json {@code install_profile.json} 或 {@code version.json} 内容
+     * @return {@link Stream }<{@link Library }>；内容无法解析或缺少 {@code libraries} 时为空
+     */
+    public static Stream<Library> parse(final String json) {
+        final JSONArray array;
+        try {
+            array = JSONUtil.parseObj(json).getJSONArray("libraries");
+        } catch (final Exception e) {
+            Log.warn("[LIBS] 库声明解析失败 | err={}", e.getMessage());
+            return Stream.empty();
+        }
+        if (Objects.isNull(array)) {
+            return Stream.empty();
+        }
+        return array.stream().filter(JSONObject.class::isInstance).map(JSONObject.class::cast)
+                .map(o -> o.get("downloads") instanceof final JSONObject downloads ? downloads.get("artifact") : null)
+                .filter(JSONObject.class::isInstance).map(JSONObject.class::cast)
+                .filter(a -> StrUtil.isAllNotBlank(a.getStr("path"), a.getStr("url")))
+                .map(a -> new Library(a.getStr("path"), a.getStr("url"), a.getStr("sha1")));
+    }
+
+    /**
+     * 在库目录下解析 Maven 相对路径，拒绝绝对路径与越出库目录的路径
+     * @param root 库目录
+     * @param path Maven 相对路径
+     * @return {@link Path }
+     */
+    public static Path resolve(final Path root, final String path) {
+        final Path base = root.toAbsolutePath().normalize();
+        final Path resolved = base.resolve(path).normalize();
+        if (Path.of(path).isAbsolute() || resolved.equals(base) || !resolved.startsWith(base)) {
+            throw new IllegalStateException("非法依赖库路径 | path=%s".formatted(path));
+        }
+        return resolved;
+    }
+
+    /**
+     * 确保共享仓库中存在文件，缺失或校验失败时下载
+     * @param file       缓存文件
+     * @param url        下载地址
+     * @param sha1       期望 SHA-1；为空不校验
+     * @param downloader 下载器
+     * @return 缓存文件
+     */
+    private static Path cached(final Path file, final String url, final String sha1, final Downloader downloader) {
+        if (CacheStore.lookup(downloader.getMetrics(), LIBRARIES, valid(file, sha1))) {
+            return file;
+        }
+        return CacheStore.locked(file.getParent(), () -> {
+            // 等锁期间可能已由其他转换下载完成，不重复计数
+            if (valid(file, sha1)) {
+                return file;
+            }
+            final Path partial = file.resolveSibling(".partial-%s".formatted(file.getFileName()));
+            FileUtil.del(partial);
+            downloader.fetch(url, partial);
+            if (!valid(partial, sha1)) {
+                FileUtil.del(partial);
+                throw new IllegalStateException("SHA-1 校验失败 | url=%s".formatted(url));
+            }
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return file;
+        });
+    }
+
+    /**
+     * 文件存在且摘要一致
+     * @param file 文件
+     * @param sha1 期望 SHA-1；为空仅判断存在
+     * @return boolean
+     */
+    private static boolean valid(final Path file, final String sha1) {
+        return Files.exists(file) && (StrUtil.isBlank(sha1) || StrUtil.equalsIgnoreCase(sha1, FileDigest.sha1(file)));
+    }
+
+    /**
+     * 依赖库
+     * @param path Maven 相对路径
+     * @param url  下载地址
+     * @param sha1 SHA-1
+     */
+    public record Library(String path, String url, String sha1) {
+    }
+}
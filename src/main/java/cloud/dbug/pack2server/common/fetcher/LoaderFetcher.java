@@ -1,14 +1,16 @@
 package cloud.dbug.pack2server.common.fetcher;
 
 import cloud.dbug.pack2server.common.ServerWorkspace;
+import cloud.dbug.pack2server.common.cache.CacheStore;
 import cloud.dbug.pack2server.common.downloader.Downloader;
+import cloud.dbug.pack2server.common.log.Log;
+import cloud.dbug.pack2server.common.runner.AppCds;
+import cloud.dbug.pack2server.common.runner.WarmupRunner;
+import cloud.dbug.pack2server.common.runner.enums.WarmupStatus;
+import cloud.dbug.pack2server.entity.PackManifest;
 import cn.hutool.core.collection.ListUtil;
 import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.lang.Opt;
-import cn.hutool.core.util.CharsetUtil;
-import cn.hutool.http.HttpUtil;
-import cn.hutool.json.JSONObject;
-import cn.hutool.json.JSONUtil;
 import com.jayway.jsonpath.JsonPath;
 import lombok.Data;
 import lombok.SneakyThrows;
@@ -16,10 +18,14 @@ import lombok.experimental.UtilityClass;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.function.Function;
 
@@ -36,9 +42,13 @@ import java.util.function.Function;
 @UtilityClass
 public final class LoaderFetcher {
     /**
-     * 虚拟线程执行器
+     * 共享仓库子目录
      */
-    private static final Executor VIRTUAL_THREAD_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+    private static final String LOADER_STORE = "loaders";
+    /**
+     * 安装器元数据有效期；加载器 jar 按版本不可变，永久复用
+     */
+    private static final Duration META_TTL = Duration.ofHours(24);
 
     /**
      * 执行加载器的获取、下载和初步准备流程。
@@ -53,56 +63,106 @@ public final class LoaderFetcher {
      * @return 准备好的 {@link Loader} 实例。
      */
     public static Loader exec(final Path manifestPath, final Path workDirectory) {
-        ServerWorkspace.ensure(workDirectory);
+        return exec(PackManifest.read(manifestPath), workDirectory);
+    }
+
+    /**
+     * 执行加载器的获取、下载和初步准备流程。
+     * @param manifest      清单。
+     * @param workDirectory 工作目录的路径。
+     * @return 准备好的 {@link Loader} 实例。
+     */
+    public static Loader exec(final PackManifest manifest, final Path workDirectory) {
+        return exec(manifest, workDirectory, Downloader.defaults());
+    }
+
+    /**
+     * 执行加载器的获取、下载和初步准备流程。
+     * @param manifest      清单。
+     * @param workDirectory 工作目录的路径。
+     * @param downloader    下载器。
+     * @return 准备好的 {@link Loader} 实例。
+     */
+    public static Loader exec(final PackManifest manifest, final Path workDirectory, final Downloader downloader) {
+        try (final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            return exec(manifest, workDirectory, downloader, executor);
+        }
+    }
+
+    /**
+     * 执行加载器的获取、下载和初步准备流程。
+     * @param manifest      清单。
+     * @param workDirectory 工作目录的路径。
+     * @param downloader    下载器。
+     * @param executor      执行器，由调用方持有并关闭。
+     * @return 准备好的 {@link Loader} 实例。
+     */
+    public static Loader exec(final PackManifest manifest, final Path workDirectory, final Downloader downloader, final Executor executor) {
+        ServerWorkspace.ensure(workDirectory, Boolean.FALSE, null);
         return CompletableFuture
-                .supplyAsync(() -> parse(manifestPath, workDirectory), VIRTUAL_THREAD_EXECUTOR)
+                .supplyAsync(() -> parse(manifest, workDirectory, downloader), executor)
                 .thenApplyAsync(loader -> {
-                    loader.download(workDirectory);
+                    loader.download(workDirectory, downloader);
                     return loader;
-                }, VIRTUAL_THREAD_EXECUTOR)
-                .thenApplyAsync(Function.identity(), VIRTUAL_THREAD_EXECUTOR)
+                }, executor)
+                .thenApplyAsync(Function.identity(), executor)
                 .join();
     }
 
     /**
-     * 根据清单文件解析加载器信息。
-     * @param manifestPath  清单文件路径。
+     * 根据清单描述加载器，不下载。
+     * @param manifest      清单。
+     * @param workDirectory 工作目录的路径。
+     * @return {@link Loader}
+     */
+    public static Loader describe(final PackManifest manifest, final Path workDirectory) {
+        return describe(manifest, workDirectory, Downloader.defaults());
+    }
+
+    /**
+     * 根据清单描述加载器，不下载。
+     * @param manifest      清单。
+     * @param workDirectory 工作目录的路径。
+     * @param downloader    下载器（用于读取加载器元数据）。
+     * @return {@link Loader}
+     */
+    public static Loader describe(final PackManifest manifest, final Path workDirectory, final Downloader downloader) {
+        return parse(manifest, workDirectory, downloader);
+    }
+
+    /**
+     * 根据清单解析加载器信息。
+     * @param manifest      清单。
      * @param workDirectory 工作目录路径。
+     * @param downloader    下载器。
      * @return 解析得到的 {@link Loader} 对象。
-     * @throws IllegalStateException 如果清单中未找到支持的加载器。
      */
-    private static Loader parse(final Path manifestPath, final Path workDirectory) {
-        return Opt.ofNullable(JSONUtil.readJSONObject(manifestPath.toFile(), CharsetUtil.CHARSET_UTF_8))
-                .map(rootJsonObject -> {
-                    // 提取 Minecraft 版本和加载器 ID (例如 "fabric-0.15.2")
-                    final String modLoaderId = rootJsonObject.getByPath("minecraft.modLoaders[0].id", String.class);
-                    // 生成加载器的 JAR 文件名 (例如 "fabric-server.jar")
-                    final String jarFileName = modLoaderId.replaceFirst("(?<=-)[\\d.]+", "server.jar");
-                    // 解析下载地址
-                    final String downloadUrl = parseUrl(rootJsonObject);
-                    // 创建并返回 Loader 对象
-                    return new Loader(workDirectory, modLoaderId, jarFileName, downloadUrl);
-                })
-                .orElseThrow(() -> new IllegalStateException("未能从清单文件中找到支持的加载程序配置"));
+    private static Loader parse(final PackManifest manifest, final Path workDirectory, final Downloader downloader) {
+        // 生成加载器的 JAR 文件名 (例如 "fabric-server.jar")
+        final String jarFileName = manifest.getLoaderId().replaceFirst("(?<=-)[\\d.]+", "server.jar");
+        return new Loader(workDirectory, manifest.getLoaderId(), manifest.getMinecraftVersion(), jarFileName, parseUrl(manifest, downloader));
     }
 
     /**
      * 根据加载器类型和版本解析其下载地址。
-     * @param rootJsonObject 清单文件的根 JSON 对象。
+     * @param manifest   清单。
+     * @param downloader 下载器。
      * @return 加载器 JAR 文件的下载 URL。
      * @throws IllegalArgumentException 如果加载器类型未知。
      */
     @SneakyThrows
-    private static String parseUrl(final JSONObject rootJsonObject) {
-        final String minecraftVersion = rootJsonObject.getByPath("minecraft.version", String.class);
-        final String modLoaderId = rootJsonObject.getByPath("minecraft.modLoaders[0].id", String.class);
-        // 将加载器ID分割为类型和版本 (例如 ["fabric", "0.15.2"])
-        final String[] parts = modLoaderId.split("-");
+    private static String parseUrl(final PackManifest manifest, final Downloader downloader) {
+        final String minecraftVersion = manifest.getMinecraftVersion();
+        // 加载器类型和版本 (例如 ["fabric", "0.15.2"])
+        final String[] parts = {manifest.getLoaderType(), manifest.getLoaderVersion()};
         // 根据加载器类型构造下载URL
         return switch (parts[0]) {
             case "fabric" -> "https://meta.fabricmc.net/v2/versions/loader/%s/%s/%s/server/jar".formatted(
                     minecraftVersion, parts[1],
-                    JsonPath.parse(HttpUtil.get("https://meta.fabricmc.net/v2/versions"))
+                    JsonPath.parse(CacheStore.text(
+                                    CacheStore.resolve(LOADER_STORE, "meta", "fabric-versions.json"), META_TTL,
+                                    () -> downloader.text("https://meta.fabricmc.net/v2/versions")
+                            ))
                             .read("$.installer[?(@.stable==true)].version", List.class).getFirst()
             );
             case "forge" ->
@@ -135,6 +195,10 @@ public final class LoaderFetcher {
          * 加载器的标识符 (例如 "fabric-0.15.2")。
          */
         private final String loaderName;
+        /**
+         * Minecraft 版本 (例如 "1.20.1")。
+         */
+        private final String minecraftVersion;
         /**
          * 加载器 JAR 文件的名称 (例如 "fabric-server.jar")。
          */
@@ -147,27 +211,45 @@ public final class LoaderFetcher {
         /**
          * 构造一个新的 Loader 实例。
          * @param workDirectory 工作目录。
-         * @param loaderName    加载器名称。
-         * @param jarFileName   JAR 文件名。
-         * @param downloadUrl   下载地址。
+         * @param loaderName       加载器名称。
+         * @param minecraftVersion Minecraft 版本。
+         * @param jarFileName      JAR 文件名。
+         * @param downloadUrl      下载地址。
          */
-        public Loader(final Path workDirectory, final String loaderName, final String jarFileName, final String downloadUrl) {
+        public Loader(final Path workDirectory, final String loaderName, final String minecraftVersion, final String jarFileName, final String downloadUrl) {
             this.loaderName = loaderName;
+            this.minecraftVersion = minecraftVersion;
             this.jarFileName = jarFileName;
             this.downloadUrl = downloadUrl;
             this.workDirectory = workDirectory;
         }
 
         /**
-         * 从指定的 URL 下载加载器 JAR 文件到工作目录。
+         * 将加载器 JAR 文件放置到工作目录。
+         * <p>
+         * JAR 按加载器类型、加载器版本与 Minecraft 版本缓存于共享仓库，
+         * 缓存缺失时才从指定的 URL 下载。
+         * </p>
          * @param workDirectory 工作目录路径。
+         * @param downloader    下载器。
          */
-        private void download(final Path workDirectory) {
+        private void download(final Path workDirectory, final Downloader downloader) {
             final File targetFile = FileUtil.file(workDirectory.toFile(), this.jarFileName);
-            // 如果目标文件已存在，则先删除它
-            FileUtil.del(targetFile);
-            // 调用 Downloader 工具类执行下载
-            this.jarPath = Downloader.fetch(this.downloadUrl, targetFile.toPath());
+            final String[] parts = this.loaderName.split("-", 2);
+            final Path cacheDir = CacheStore.resolve(LOADER_STORE, parts[0], this.minecraftVersion, parts.length > 1 ? parts[1] : "unknown");
+            final Path cached = CacheStore.locked(cacheDir, () -> {
+                final Path jar = cacheDir.resolve(this.jarFileName);
+                if (CacheStore.lookup(downloader.getMetrics(), "loader", Files.exists(jar))) {
+                    Log.info("[LOADER] 命中缓存 | jar={}", jar);
+                    return jar;
+                }
+                final Path partial = cacheDir.resolve(".partial-%s".formatted(this.jarFileName));
+                FileUtil.del(partial);
+                downloader.fetch(this.downloadUrl, partial);
+                Files.move(partial, jar, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                return jar;
+            });
+            this.jarPath = CacheStore.place(cached, targetFile.toPath());
         }
 
         /**
@@ -179,15 +261,48 @@ public final class LoaderFetcher {
          * @return 包含启动命令各部分的列表。
          */
         public List<String> buildStartCommand(final Path jrePath) {
-            return ListUtil.toList(
-                    ServerWorkspace.JAVA_PROGRAM.apply(jrePath),
+            return this.buildStartCommand(jrePath, List.of());
+        }
+
+        /**
+         * 构建启动命令，附带调优参数；AppCDS 归档有效时一并启用
+         * @param jrePath  JRE 的可执行文件路径。
+         * @param jvmFlags 额外 JVM 参数。
+         * @return 启动命令
+         */
+        public List<String> buildStartCommand(final Path jrePath, final List<String> jvmFlags) {
+            final List<String> flags = ListUtil.toList(jvmFlags);
+            flags.addAll(AppCds.useFlags(this.workDirectory, this.runtimeHome(jrePath), this.jarFileName));
+            return this.buildCommand(jrePath, flags);
+        }
+
+        /**
+         * 构建启动命令
+         * @param jrePath  JRE 的可执行文件路径。
+         * @param jvmFlags 额外 JVM 参数。
+         * @return 启动命令
+         */
+        private List<String> buildCommand(final Path jrePath, final List<String> jvmFlags) {
+            final List<String> command = ListUtil.toList(ServerWorkspace.JAVA_PROGRAM.apply(jrePath));
+            command.addAll(jvmFlags);
+            command.addAll(List.of(
                     "-jar",
                     // 使用 resolve 确保正确的相对路径
                     this.workDirectory.resolve(this.jarFileName).toString(),
                     "--nogui",
                     "--universe",
                     this.workDirectory.resolve("cache").toString()
-            );
+            ));
+            return command;
+        }
+
+        /**
+         * 运行时根目录
+         * @param jrePath JRE 路径，为空时取当前进程运行时
+         * @return {@link Path }
+         */
+        private Path runtimeHome(final Path jrePath) {
+            return Opt.ofNullable(jrePath).orElseGet(() -> Path.of(System.getProperty("java.home")));
         }
 
         /**
@@ -210,6 +325,26 @@ public final class LoaderFetcher {
                     .start();
         }
 
+        /**
+         * 首次运行：启动至就绪后正常停止，受硬超时约束。
+         * <p>开启归档时，以本次加载的类生成 AppCDS 归档，仅在正常就绪后生效。</p>
+         * @param jrePath JRE 的可执行文件路径。
+         * @param timeout 硬超时。
+         * @param archive 是否生成 AppCDS 归档。
+         * @return {@link WarmupRunner.Result}
+         */
+        public WarmupRunner.Result warmup(final Path jrePath, final Duration timeout, final boolean archive) {
+            final Path home = this.runtimeHome(jrePath);
+            final WarmupRunner.Result result = WarmupRunner.run(
+                    archive ? this.buildCommand(jrePath, AppCds.dumpFlags(this.workDirectory, home)) : this.buildStartCommand(jrePath),
+                    this.workDirectory, timeout
+            );
+            if (archive && result.status() == WarmupStatus.READY) {
+                AppCds.commit(this.workDirectory, home, this.jarFileName);
+            }
+            return result;
+        }
+
         /**
          * 启动加载器进程，并等待其完成
          * @param jrePath JRE 的可执行文件路径。
@@ -1,135 +1,398 @@
 package cloud.dbug.pack2server.common.fetcher;
 
 import cloud.dbug.pack2server.common.ServerWorkspace;
+import cloud.dbug.pack2server.common.detector.ServerModDetector;
+import cloud.dbug.pack2server.common.detector.Verdict;
+import cloud.dbug.pack2server.common.digest.FileDigest;
 import cloud.dbug.pack2server.common.downloader.Downloader;
-import cn.hutool.core.collection.CollUtil;
+import cloud.dbug.pack2server.common.log.Log;
+import cloud.dbug.pack2server.entity.PackManifest;
 import cn.hutool.core.io.FileUtil;
-import cn.hutool.core.lang.Console;
 import cn.hutool.core.lang.Opt;
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.http.HttpRequest;
-import cn.hutool.http.HttpResponse;
 import cn.hutool.json.JSONObject;
 import cn.hutool.json.JSONUtil;
-import lombok.experimental.UtilityClass;
 
-import java.nio.charset.Charset;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
 /**
  * 模组批量提取器
+ * <p>API 密钥、内存驻留上限、下载器与规则命中统计均属于实例，多个转换可各自持有互不干扰。</p>
  * @author 拒绝者
  * @date 2025-09-05
  */
-@UtilityClass
 public class ModsBulkFetcher {
     /**
      * 组
      */
     private static final int GROUP = 50;
     /**
-     * 单文件解析超时 ms
+     * 内存检测的单文件上限
      */
-    private static final int TIMEOUT = 8_000;
+    private static final long MEMORY_LIMIT = 8L * 1024 * 1024;
+    /**
+     * 默认同时驻留内存的下载数
+     */
+    public static final int DEFAULT_MEMORY_SLOTS = 24;
     /**
      * CurseForge api url
      */
     private static final String CF_API_URL = "https://api.curseforge.com/v1/mods/files";
+    /**
+     * 下载器
+     */
+    private final Downloader downloader;
     /**
      * CurseForge api密钥
      */
-    private static final String CF_API_KEY = Opt.ofBlankAble(System.getenv("CF_API_KEY")).orElseGet(() -> System.getProperty("CF_API_KEY"));
+    private final String apiKey;
+    /**
+     * 同时驻留内存的下载数，限制峰值占用
+     */
+    private final Semaphore memorySlots;
+    /**
+     * 各规则作出结论的次数
+     */
+    private final Map<String, LongAdder> hits = new ConcurrentHashMap<>();
+
+    /**
+     * 创建提取器
+     * @param downloader  下载器
+     * @param apiKey      CurseForge api密钥
+     * @param memorySlots 同时驻留内存的下载数
+     */
+    public ModsBulkFetcher(final Downloader downloader, final String apiKey, final int memorySlots) {
+        this(downloader, apiKey, new Semaphore(Math.max(1, memorySlots)));
+    }
+
+    private ModsBulkFetcher(final Downloader downloader, final String apiKey, final Semaphore memorySlots) {
+        this.downloader = downloader;
+        this.apiKey = apiKey;
+        this.memorySlots = memorySlots;
+    }
+
+    /**
+     * 派生使用另一下载器的提取器：共用密钥与内存驻留上限，规则命中统计独立
+     * @param downloader 下载器
+     * @return {@link ModsBulkFetcher }
+     */
+    public ModsBulkFetcher withDownloader(final Downloader downloader) {
+        return new ModsBulkFetcher(downloader, apiKey, memorySlots);
+    }
+
+    /**
+     * 环境中的 CurseForge api密钥（环境变量优先，其次系统属性）
+     * @return {@link String }
+     */
+    public static String envApiKey() {
+        return Opt.ofBlankAble(System.getenv("CF_API_KEY")).orElseGet(() -> System.getProperty("CF_API_KEY"));
+    }
 
     /**
      * 获取清单内全部模组
      * @param manifest 清单文件路径
      * @param saveDir  目标保存目录
      */
-    public static void fetch(final Path manifest, final Path saveDir) {
+    public void fetch(final Path manifest, final Path saveDir) {
         if (Files.notExists(manifest)) {
-            Console.log("[Mods] 清单文件不存在，任务终止 | path={}", manifest.toAbsolutePath());
+            Log.info("[Mods] 清单文件不存在，任务终止 | path={}", manifest.toAbsolutePath());
             return;
         }
+        fetch(PackManifest.read(manifest), saveDir);
+    }
+
+    /**
+     * 获取清单内全部模组
+     * @param manifest 清单
+     * @param saveDir  目标保存目录
+     */
+    public void fetch(final PackManifest manifest, final Path saveDir) {
         // 整理目录
-        ServerWorkspace.ensure(saveDir);
+        ServerWorkspace.ensure(saveDir, Boolean.FALSE, null);
         // 清理目录
         FileUtil.clean(saveDir.toFile());
-        // 解析模组
-        final List<Mod> mods = parseMods(manifest);
-        Console.log("[MODS] 模组清单，解析完成 | mods={}", mods.size());
-        if (mods.isEmpty()) {
-            Console.log("[MODS] 无有效模组，任务结束");
+        Log.info("[MODS] 模组清单，解析完成 | mods={}", manifest.size());
+        if (manifest.size() == 0) {
+            Log.info("[MODS] 无有效模组，任务结束");
             return;
         }
         // 批量获取下载地址
-        final Map<Long, String> id2url = queryDownloadUrl(mods);
-        Console.log("[MODS] 模组下载地址，获取完成 | mods={}", id2url.size());
-        // 矢量化组装下载任务
-        final List<String> tasks = mods.stream().filter(Objects::nonNull)
-                .map(m -> id2url.getOrDefault(m.fileId, ""))
-                .filter(StrUtil::isNotEmpty).toList();
-        Console.log("[MODS] 开始批量下载 | tasks={}", tasks.size());
-        Downloader.fetchAll(tasks, saveDir);
-        Console.log("[MODS] 全部模组，下载完成 | dir={}", saveDir.toAbsolutePath());
+        final List<String> tasks = resolveTasks(manifest);
+        Log.info("[MODS] 开始批量下载 | tasks={}", tasks.size());
+        downloader.fetchAll(tasks, saveDir);
+        Log.info("[MODS] 全部模组，下载完成 | dir={}", saveDir.toAbsolutePath());
+    }
+
+    /**
+     * 获取清单内全部模组，并在落盘前完成服务端侧检测
+     * <p>不超过 {@link #MEMORY_LIMIT} 的 jar 直接在内存中检测，仅服务端相关模组写入目录；
+     * 更大的 jar 回退到落盘后检测，客户端专用的立即删除。</p>
+     * @param manifest 清单文件路径
+     * @param saveDir  目标保存目录
+     * @return 各模组获取结果（含已丢弃的客户端模组）
+     */
+    public List<Fetched> fetchServerMods(final Path manifest, final Path saveDir) {
+        if (Files.notExists(manifest)) {
+            Log.info("[Mods] 清单文件不存在，任务终止 | path={}", manifest.toAbsolutePath());
+            return List.of();
+        }
+        return fetchServerMods(PackManifest.read(manifest), saveDir);
     }
 
     /**
-     * 解析mods
-     * @param manifest 清单清单路径
-     * @return {@link List }<{@link Mod }>
+     * 获取清单内全部模组，并在落盘前完成服务端侧检测
+     * @param manifest 清单
+     * @param saveDir  目标保存目录
+     * @return 各模组获取结果（含已丢弃的客户端模组）
      */
-    private static List<Mod> parseMods(final Path manifest) {
-        return JSONUtil.readJSONObject(manifest.toFile(), Charset.defaultCharset())
-                .getJSONArray("files")
-                .stream().filter(Objects::nonNull)
-                .filter(JSONObject.class::isInstance).map(JSONObject.class::cast)
-                .map(o -> new Mod(o.getLong("projectID"), o.getLong("fileID")))
-                .toList();
+    public List<Fetched> fetchServerMods(final PackManifest manifest, final Path saveDir) {
+        // 整理目录
+        ServerWorkspace.ensure(saveDir, Boolean.FALSE, null);
+        // 清理目录
+        FileUtil.clean(saveDir.toFile());
+        Log.info("[MODS] 模组清单，解析完成 | mods={}", manifest.size());
+        if (manifest.size() == 0) {
+            Log.info("[MODS] 无有效模组，任务结束");
+            return List.of();
+        }
+        return fetchServerMods(resolve(manifest.fileIds().toArray()), saveDir);
     }
 
     /**
-     * 查询模组实际下载地址
-     * @param mods 模组
-     * @return {@link Map }<{@link Long }, {@link String }>
+     * 获取指定模组并检测，不清理目标目录（供增量更新使用）
+     * <p>同一调度器下并发进行的转换按 fileId 共享下载与检测，本批结束后释放去重结果。</p>
+     * @param mods    模组文件
+     * @param saveDir 目标保存目录
+     * @return 各模组获取结果
      */
-    private static Map<Long, String> queryDownloadUrl(final List<Mod> mods) {
-        if (CollUtil.isEmpty(mods)) {
+    public List<Fetched> fetchServerMods(final List<ModFile> mods, final Path saveDir) {
+        ServerWorkspace.ensure(saveDir, Boolean.FALSE, null);
+        Log.info("[MODS] 开始下载并检测 | tasks={}", mods.size());
+        final List<Fetched> fetched = Collections.synchronizedList(new ArrayList<>());
+        final List<String> keys = mods.stream().map(mod -> "mod:%d".formatted(mod.fileId())).toList();
+        try (final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            IntStream.range(0, mods.size()).forEach(i -> executor.submit(() -> {
+                final ModFile mod = mods.get(i);
+                try {
+                    fetched.add(adopt(downloader.getScheduler().shared(keys.get(i), () -> classify(mod, saveDir)), mod, saveDir));
+                } catch (final Exception e) {
+                    Log.error("[MODS] 模组下载检测失败 | url={} err={}", mod.url(), e.getMessage());
+                }
+            }));
+        } finally {
+            downloader.getScheduler().release(keys);
+        }
+        Log.info("[MODS] 全部模组，下载检测完成 | dir={} kept={}", saveDir.toAbsolutePath(),
+                fetched.stream().filter(f -> f.verdict().side().isServer()).count());
+        return List.copyOf(fetched);
+    }
+
+    /**
+     * 下载并检测单个模组
+     * @param mod     模组文件
+     * @param saveDir 目标保存目录
+     * @return {@link Fetched }
+     */
+    private Fetched classify(final ModFile mod, final Path saveDir) throws Exception {
+        final Optional<Downloader.Payload> payload;
+        memorySlots.acquire();
+        try {
+            payload = downloader.load(mod.url(), MEMORY_LIMIT);
+            if (payload.isPresent()) {
+                final Path jar = saveDir.resolve(FileUtil.getName(payload.get().fileName()));
+                final String sha1 = checked(mod, FileDigest.hex("SHA-1", payload.get().bytes()));
+                final Verdict verdict = judged(payload.get().fileName(), "memory", () -> ServerModDetector.judge(payload.get().fileName(), payload.get().bytes()));
+                if (verdict.side().isServer()) {
+                    Files.write(jar, payload.get().bytes());
+                }
+                return new Fetched(mod, jar, sha1, verdict);
+            }
+        } finally {
+            memorySlots.release();
+        }
+        // 超出内存上限，落盘后检测
+        final Path jar = downloader.fetch(mod.url(), saveDir.resolve(
+                downloader.extractFileName(mod.url()).orElse("downloaded_file_%d".formatted(System.currentTimeMillis()))
+        ));
+        final String sha1;
+        try {
+            sha1 = checked(mod, FileDigest.sha1(jar));
+        } catch (final IllegalStateException e) {
+            FileUtil.del(jar);
+            throw e;
+        }
+        final Verdict verdict = judged(jar.getFileName().toString(), "disk", () -> ServerModDetector.judge(jar));
+        if (!verdict.side().isServer()) {
+            FileUtil.del(jar);
+        }
+        return new Fetched(mod, jar, sha1, verdict);
+    }
+
+    /**
+     * 复用已获取的同一文件：服务端模组复制到本目录，不与其他服务目录共用文件；源文件缺失时重新获取
+     * @param first   首个获取结果
+     * @param mod     模组文件
+     * @param saveDir 目标保存目录
+     * @return {@link Fetched }
+     */
+    private Fetched adopt(final Fetched first, final ModFile mod, final Path saveDir) throws Exception {
+        final Path jar = saveDir.resolve(first.file().getFileName());
+        if (!first.verdict().side().isServer()) {
+            return new Fetched(mod, jar, first.sha1(), first.verdict());
+        }
+        if (jar.equals(first.file())) {
+            return first;
+        }
+        try {
+            return new Fetched(mod, Files.copy(first.file(), jar, StandardCopyOption.REPLACE_EXISTING), first.sha1(), first.verdict());
+        } catch (final NoSuchFileException e) {
+            // 源目录可能已被清理（如常驻服务中同一目录重新转换）
+            return classify(mod, saveDir);
+        }
+    }
+
+    /**
+     * 检测并计入规则命中统计与检测耗时
+     * @param fileName 文件名
+     * @param mode     检测方式（memory/disk）
+     * @param judge    检测
+     * @return {@link Verdict }
+     */
+    private Verdict judged(final String fileName, final String mode, final Supplier<Verdict> judge) {
+        final long begin = System.nanoTime();
+        final Verdict verdict = judge.get();
+        final Duration elapsed = downloader.getMetrics()
+                .timer("p2s_detect_seconds", "Side detection time per jar", "rule", verdict.rule(), "mode", mode).since(begin);
+        downloader.getMetrics().slowest("detect", fileName, elapsed);
+        hits.computeIfAbsent(verdict.rule(), _ -> new LongAdder()).increment();
+        return verdict;
+    }
+
+    /**
+     * 各规则命中次数快照
+     * @return {@link Map }<{@link String }, {@link Long }>
+     */
+    public Map<String, Long> stats() {
+        return hits.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().sum(), Long::sum, TreeMap::new));
+    }
+
+    /**
+     * 与接口提供的摘要比对
+     * @param mod  模组文件
+     * @param sha1 实际摘要
+     * @return 实际摘要
+     */
+    private static String checked(final ModFile mod, final String sha1) {
+        if (StrUtil.isNotEmpty(mod.sha1()) && !StrUtil.equalsIgnoreCase(mod.sha1(), sha1)) {
+            throw new IllegalStateException("SHA-1 不匹配 | file=%s expected=%s actual=%s".formatted(mod.fileName(), mod.sha1(), sha1));
+        }
+        return sha1;
+    }
+
+    /**
+     * 按清单顺序组装下载任务
+     * @param manifest 清单
+     * @return 下载地址
+     */
+    private List<String> resolveTasks(final PackManifest manifest) {
+        return resolve(manifest.fileIds().toArray()).stream().map(ModFile::url).toList();
+    }
+
+    /**
+     * 按给定顺序查询模组文件信息，无下载地址的文件被忽略
+     * @param fileIds 文件 ID
+     * @return {@link List }<{@link ModFile }>
+     */
+    public List<ModFile> resolve(final long[] fileIds) {
+        final Map<Long, ModFile> files = queryFiles(fileIds);
+        Log.info("[MODS] 模组下载地址，获取完成 | mods={}", files.size());
+        return LongStream.of(fileIds).mapToObj(files::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * 查询模组文件信息（下载地址、文件名、SHA-1）
+     * @param fileIds 文件 ID
+     * @return {@link Map }<{@link Long }, {@link ModFile }>
+     */
+    private Map<Long, ModFile> queryFiles(final long[] fileIds) {
+        if (fileIds.length == 0) {
             return Map.of();
         }
-        return IntStream.iterate(0, i -> i < mods.size(), i -> i + GROUP)
-                .parallel().mapToObj(i -> mods.subList(i, Math.min(i + GROUP, mods.size())))
-                .map(list -> list.stream().filter(Objects::nonNull).map(Mod::fileId))
-                .map(sub -> JSONUtil.createObj().set("fileIds", sub.toList()).toString())
+        return IntStream.iterate(0, i -> i < fileIds.length, i -> i + GROUP)
+                .parallel().mapToObj(i -> Arrays.copyOfRange(fileIds, i, Math.min(i + GROUP, fileIds.length)))
+                .map(sub -> JSONUtil.createObj().set("fileIds", sub).toString())
                 .flatMap(body -> {
-                    try (final HttpResponse resp = HttpRequest.post(CF_API_URL)
-                            .header("x-api-key", CF_API_KEY)
-                            .header("Content-Type", "application/json")
-                            .body(body).timeout(TIMEOUT).execute()) {
+                    try {
                         // 解析模组原始下载地址
-                        return JSONUtil.parseObj(resp.body()).getJSONArray("data")
+                        return JSONUtil.parseObj(downloader.post(CF_API_URL, Map.of("x-api-key", StrUtil.nullToEmpty(apiKey)), body)).getJSONArray("data")
                                 .stream().filter(Objects::nonNull).map(JSONObject.class::cast)
                                 .filter(o -> StrUtil.isNotEmpty(o.getStr("downloadUrl")))
-                                .map(obj -> Map.entry(obj.getLong("id"), obj.getStr("downloadUrl")));
+                                .map(ModsBulkFetcher::toModFile);
                     } catch (final Exception e) {
-                        Console.log("[MODS] 模组地址获取失败 | body={}", body);
+                        Log.warn("[MODS] 模组地址获取失败 | body={}", body);
                         return null;
                     }
                 }).filter(Objects::nonNull)
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (u, v) -> v, HashMap::new));
+                .collect(Collectors.toMap(ModFile::fileId, Function.identity(), (u, v) -> v, HashMap::new));
+    }
+
+    /**
+     * 转换接口返回的文件信息
+     * @param obj 文件对象
+     * @return {@link ModFile }
+     */
+    private static ModFile toModFile(final JSONObject obj) {
+        // hashes[].algo: 1 = SHA-1, 2 = MD5
+        final String sha1 = Opt.ofNullable(obj.getJSONArray("hashes")).map(hashes -> hashes.stream()
+                        .filter(JSONObject.class::isInstance).map(JSONObject.class::cast)
+                        .filter(h -> h.getInt("algo", 0) == 1)
+                        .map(h -> h.getStr("value")).findFirst().orElse(null))
+                .orElse(null);
+        return new ModFile(obj.getLong("modId", 0L), obj.getLong("id"), obj.getStr("fileName"), obj.getStr("downloadUrl"), sha1);
+    }
+
+    /**
+     * 模组文件
+     * @param projectId 项目 ID
+     * @param fileId    文件 ID
+     * @param fileName  文件名
+     * @param url       下载地址
+     * @param sha1      接口提供的 SHA-1，可能为空
+     */
+    public record ModFile(long projectId, long fileId, String fileName, String url, String sha1) {
     }
 
     /**
-     * 模组
-     * @author 拒绝者
-     * @date 2025-09-05
+     * 模组获取结果
+     * @param mod     模组文件
+     * @param file    本地路径（客户端模组未落盘）
+     * @param sha1    实际 SHA-1
+     * @param verdict 检测结论
      */
-    private record Mod(long projectId, long fileId) {
+    public record Fetched(ModFile mod, Path file, String sha1, Verdict verdict) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,17 @@
+package cloud.dbug.pack2server.common.fetcher.enums;
+
+/**
+ * 服务目录引用共享运行时的方式
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public enum RuntimeLink {
+    /**
+     * 直接指向共享仓库中的运行时
+     */
+    SHARED,
+    /**
+     * 以硬链接镜像到服务目录（跨文件系统时回退为 reflink/复制）
+     */
+    HARDLINK
+}
@@ -0,0 +1,41 @@
+package cloud.dbug.pack2server.common.flight;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 模组侧检测事件
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+@Name("pack2server.Detect")
+@Label("Mod Detection")
+@Category({"pack2server", "Detection"})
+@Description("Client/server side detection of one mod jar and the rule that decided it")
+public final class DetectEvent extends Event {
+    @Label("File")
+    private String file;
+    @Label("Side")
+    private String side;
+    @Label("Rule")
+    private String rule;
+
+    /**
+     * 结束计时并提交
+     * @param file 文件名
+     * @param side 检测结论
+     * @param rule 作出结论的规则名
+     */
+    public void finish(final String file, final String side, final String rule) {
+        end();
+        if (shouldCommit()) {
+            this.file = file;
+            this.side = side;
+            this.rule = rule;
+            commit();
+        }
+    }
+}
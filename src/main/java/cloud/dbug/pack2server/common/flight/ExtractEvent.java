@@ -0,0 +1,47 @@
+package cloud.dbug.pack2server.common.flight;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 归档解压事件
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+@Name("pack2server.Extract")
+@Label("Archive Extraction")
+@Category({"pack2server", "Extraction"})
+@Description("Parallel extraction of one zip archive")
+public final class ExtractEvent extends Event {
+    @Label("Archive")
+    private String archive;
+    @Label("Destination")
+    private String destination;
+    @Label("Entries")
+    private int entries;
+    @Label("Bytes")
+    @DataAmount
+    private long bytes;
+
+    /**
+     * 结束计时并提交
+     * @param archive     归档文件
+     * @param destination 目标目录
+     * @param entries     解压的文件数
+     * @param bytes       写出字节数
+     */
+    public void finish(final String archive, final String destination, final int entries, final long bytes) {
+        end();
+        if (shouldCommit()) {
+            this.archive = archive;
+            this.destination = destination;
+            this.entries = entries;
+            this.bytes = bytes;
+            commit();
+        }
+    }
+}
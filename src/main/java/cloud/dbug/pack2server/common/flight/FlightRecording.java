@@ -0,0 +1,81 @@
+package cloud.dbug.pack2server.common.flight;
+
+import cloud.dbug.pack2server.common.log.Log;
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import lombok.SneakyThrows;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 飞行记录
+ * <p>以 JDK 自带的 {@code default} 配置（含 GC、虚拟线程固定等事件）录制，并启用本工具的阶段、HTTP、检测与解压事件；
+ * 关闭时停止录制并写出 {@code .jfr} 文件，可用 {@code jfr print} 或 JDK Mission Control 查看。</p>
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public final class FlightRecording implements AutoCloseable {
+    /**
+     * 录制配置
+     */
+    private static final String CONFIGURATION = "default";
+    /**
+     * 本工具的事件
+     */
+    private static final List<Class<? extends Event>> EVENTS = List.of(
+            StageEvent.class, HttpRequestEvent.class, HttpChunkEvent.class, DetectEvent.class, ExtractEvent.class);
+    /**
+     * 录制，未启用时为空
+     */
+    private final Recording recording;
+    /**
+     * 输出文件
+     */
+    private final Path file;
+
+    private FlightRecording(final Recording recording, final Path file) {
+        this.recording = recording;
+        this.file = file;
+    }
+
+    /**
+     * 开始录制
+     * @param file 输出文件，为空时不录制
+     * @return {@link FlightRecording }
+     */
+    @SneakyThrows
+    public static FlightRecording start(final Path file) {
+        if (Objects.isNull(file)) {
+            return new FlightRecording(null, null);
+        }
+        final Path target = file.toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        final Recording recording = new Recording(Configuration.getConfiguration(CONFIGURATION));
+        recording.setName("pack2server");
+        EVENTS.forEach(recording::enable);
+        recording.setDestination(target);
+        recording.start();
+        Log.info("[JFR] 开始飞行记录 | file={}", target);
+        return new FlightRecording(recording, target);
+    }
+
+    /**
+     * 停止录制并写出文件
+     */
+    @Override
+    public void close() {
+        if (Objects.isNull(recording)) {
+            return;
+        }
+        try (recording) {
+            recording.stop();
+            Log.info("[JFR] 飞行记录已写出 | file={}", file);
+        } catch (final Exception e) {
+            Log.error("[JFR] 飞行记录写出失败 | file={} err={}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package cloud.dbug.pack2server.common.flight;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 分块下载事件，持续时间覆盖一个范围请求从发送到写完
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+@Name("pack2server.HttpChunk")
+@Label("HTTP Range Chunk")
+@Category({"pack2server", "Download"})
+@Description("One byte range of a multi-threaded download, from request to last byte written")
+public final class HttpChunkEvent extends Event {
+    @Label("URL")
+    private String url;
+    @Label("Range Start")
+    private long rangeStart;
+    @Label("Range End")
+    private long rangeEnd;
+    @Label("Status")
+    private int status;
+    @Label("Bytes")
+    @DataAmount
+    private long bytes;
+
+    /**
+     * 结束计时并提交
+     * @param url        地址
+     * @param rangeStart 范围起点
+     * @param rangeEnd   范围终点（含）
+     * @param status     响应状态
+     * @param bytes      实际写入字节数
+     */
+    public void finish(final String url, final long rangeStart, final long rangeEnd, final int status, final long bytes) {
+        end();
+        if (shouldCommit()) {
+            this.url = url;
+            this.rangeStart = rangeStart;
+            this.rangeEnd = rangeEnd;
+            this.status = status;
+            this.bytes = bytes;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package cloud.dbug.pack2server.common.flight;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * HTTP 请求事件，持续时间覆盖发送到收到响应头；每次重试各记一条
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+@Name("pack2server.HttpRequest")
+@Label("HTTP Request")
+@Category({"pack2server", "Download"})
+@Description("One HTTP exchange until response headers, one event per attempt")
+public final class HttpRequestEvent extends Event {
+    @Label("Method")
+    private String method;
+    @Label("URL")
+    private String url;
+    @Label("Host")
+    private String host;
+    @Label("Status")
+    @Description("Response status, -1 on connection error")
+    private int status;
+    @Label("Content Length")
+    @Description("Declared response size, -1 when unknown")
+    @DataAmount
+    private long bytes;
+    @Label("Attempt")
+    private int attempt;
+
+    /**
+     * 结束计时并提交
+     * @param method  请求方法
+     * @param url     地址
+     * @param host    主机
+     * @param status  响应状态，连接失败为 -1
+     * @param bytes   声明的响应大小，未知为 -1
+     * @param attempt 第几次尝试
+     */
+    public void finish(final String method, final String url, final String host, final int status, final long bytes, final int attempt) {
+        end();
+        if (shouldCommit()) {
+            this.method = method;
+            this.url = url;
+            this.host = host;
+            this.status = status;
+            this.bytes = bytes;
+            this.attempt = attempt;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package cloud.dbug.pack2server.common.flight;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 阶段执行事件，持续时间覆盖阶段开始到结束
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+@Name("pack2server.Stage")
+@Label("Stage")
+@Category({"pack2server", "Conversion"})
+@Description("A conversion stage from start to end")
+public final class StageEvent extends Event {
+    @Label("Stage")
+    private String stage;
+    @Label("Status")
+    private String status;
+
+    /**
+     * 结束计时并提交
+     * @param stage  阶段名
+     * @param status 最终状态
+     */
+    public void finish(final String stage, final String status) {
+        end();
+        if (shouldCommit()) {
+            this.stage = stage;
+            this.status = status;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package cloud.dbug.pack2server.common.launcher;
+
+import cloud.dbug.pack2server.common.ServerWorkspace;
+import cloud.dbug.pack2server.common.fetcher.JavaDiscovery;
+import cloud.dbug.pack2server.common.fetcher.LoaderFetcher;
+import cloud.dbug.pack2server.common.launcher.enums.LaunchProfile;
+import cloud.dbug.pack2server.common.log.Log;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.lang.Opt;
+import lombok.SneakyThrows;
+import lombok.experimental.UtilityClass;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 启动脚本生成器
+ * <p>按宿主内存、模组数量与模组总体积估算堆大小，按运行时主版本与档位选择 GC 参数，
+ * 写出 {@code start.sh} 与 {@code start.bat}。</p>
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+@UtilityClass
+public class LaunchScript {
+    /**
+     * Unix 脚本
+     */
+    public static final String SHELL = "start.sh";
+    /**
+     * Windows 脚本
+     */
+    public static final String BATCH = "start.bat";
+    /**
+     * 基础堆（MB）
+     */
+    private static final long BASE_HEAP_MB = 2048;
+    /**
+     * 每个模组追加的堆（MB）
+     */
+    private static final long PER_MOD_MB = 48;
+    /**
+     * 最小堆（MB）
+     */
+    private static final long MIN_HEAP_MB = 1024;
+    /**
+     * 压缩指针上限内的最大堆（MB）
+     */
+    private static final long MAX_HEAP_MB = 31 * 1024;
+    /**
+     * 为系统保留的内存（MB）
+     */
+    private static final long RESERVED_MB = 1024;
+    /**
+     * 对齐粒度（MB）
+     */
+    private static final long ALIGN_MB = 512;
+
+    /**
+     * 写出启动脚本
+     * @param loader  加载器
+     * @param jrePath 运行时根目录
+     * @param tuning  调优选项
+     * @return 启动命令
+     */
+    @SneakyThrows
+    public static List<String> write(final LoaderFetcher.Loader loader, final Path jrePath, final Tuning tuning) {
+        final Path workDirectory = loader.getWorkDirectory();
+        final Path mods = workDirectory.resolve(ServerWorkspace.MOD);
+        long count = 0;
+        long bytes = 0;
+        if (Files.isDirectory(mods)) {
+            try (final Stream<Path> files = Files.list(mods)) {
+                for (final Path file : files.filter(f -> f.getFileName().toString().endsWith(".jar")).toList()) {
+                    count++;
+                    bytes += Files.size(file);
+                }
+            }
+        }
+        final long heap = heapMb(hostMemoryMb(), count, bytes >> 20);
+        final int major = JavaDiscovery.readMajor(Opt.ofNullable(jrePath).orElseGet(() -> Path.of(System.getProperty("java.home")))).orElse(8);
+        final List<String> command = loader.buildStartCommand(jrePath, jvmFlags(tuning, major, heap));
+        final Path shell = workDirectory.resolve(SHELL);
+        Files.writeString(shell, "#!/usr/bin/env sh\ncd \"$(dirname \"$0\")\"\nexec %s \"$@\"\n".formatted(shellLine(command)));
+        try {
+            Files.setPosixFilePermissions(shell, PosixFilePermissions.fromString("rwxr-xr-x"));
+        } catch (final UnsupportedOperationException ignore) {
+            // 非 POSIX 文件系统
+        }
+        FileUtil.writeUtf8String("@echo off\r\ncd /d \"%%~dp0\"\r\n%s %%*\r\n".formatted(batchLine(command)), workDirectory.resolve(BATCH).toFile());
+        Log.info("[LAUNCH] 启动脚本已生成 | profile={} java={} heap={}M mods={} size={}M", tuning.profile(), major, heap, count, bytes >> 20);
+        return command;
+    }
+
+    /**
+     * 估算堆大小
+     * @param hostMb 宿主内存（MB）
+     * @param mods   模组数量
+     * @param jarMb  模组总体积（MB）
+     * @return 堆大小（MB）
+     */
+    public static long heapMb(final long hostMb, final long mods, final long jarMb) {
+        final long wanted = BASE_HEAP_MB + mods * PER_MOD_MB + jarMb * 2;
+        final long ceiling = Math.min(MAX_HEAP_MB, Math.max(MIN_HEAP_MB, Math.min(hostMb * 3 / 4, hostMb - RESERVED_MB)));
+        return Math.max(MIN_HEAP_MB, Math.min(wanted, ceiling) / ALIGN_MB * ALIGN_MB);
+    }
+
+    /**
+     * 生成 JVM 参数
+     * @param tuning 调优选项
+     * @param major  运行时主版本
+     * @param heapMb 堆大小（MB）
+     * @return JVM 参数
+     */
+    public static List<String> jvmFlags(final Tuning tuning, final int major, final long heapMb) {
+        final boolean zgc = tuning.profile() == LaunchProfile.LOW_PAUSE && major >= 15;
+        final List<String> flags = new ArrayList<>();
+        flags.add("-Xms%dM".formatted(tuning.profile() == LaunchProfile.THROUGHPUT || tuning.preTouch() ? heapMb : heapMb / 2));
+        flags.add("-Xmx%dM".formatted(heapMb));
+        if (zgc) {
+            flags.add("-XX:+UseZGC");
+            // 21、22 需显式开启分代，23 起为默认
+            if (major == 21 || major == 22) flags.add("-XX:+ZGenerational");
+        } else {
+            flags.addAll(List.of(
+                    "-XX:+UseG1GC",
+                    "-XX:+ParallelRefProcEnabled",
+                    "-XX:MaxGCPauseMillis=%d".formatted(tuning.profile() == LaunchProfile.LOW_PAUSE ? 50 : 200),
+                    "-XX:+UnlockExperimentalVMOptions",
+                    "-XX:G1NewSizePercent=30",
+                    "-XX:G1MaxNewSizePercent=40",
+                    "-XX:G1HeapRegionSize=%dM".formatted(heapMb >= 12 * 1024 ? 16 : 8),
+                    "-XX:G1ReservePercent=20",
+                    "-XX:InitiatingHeapOccupancyPercent=15"
+            ));
+        }
+        flags.add("-XX:+DisableExplicitGC");
+        if (tuning.preTouch()) flags.add("-XX:+AlwaysPreTouch");
+        if (tuning.largePages()) {
+            flags.add(System.getProperty("os.name", "").toLowerCase().contains("linux") ? "-XX:+UseTransparentHugePages" : "-XX:+UseLargePages");
+        }
+        return flags;
+    }
+
+    /**
+     * 宿主物理内存（MB）
+     * @return long
+     */
+    private static long hostMemoryMb() {
+        if (ManagementFactory.getOperatingSystemMXBean() instanceof final com.sun.management.OperatingSystemMXBean os) {
+            return os.getTotalMemorySize() >> 20;
+        }
+        return Runtime.getRuntime().maxMemory() >> 20;
+    }
+
+    /**
+     * 拼接 sh 命令行：参数置于单引号内，单引号写作 {@code '\''}
+     * @param command 命令
+     * @return 单行命令
+     */
+    public static String shellLine(final List<String> command) {
+        return command.stream().map(arg -> "'" + arg.replace("'", "'\\''") + "'").collect(Collectors.joining(" "));
+    }
+
+    /**
+     * 拼接批处理命令行：参数置于双引号内，{@code %} 写作 {@code %%}，双引号写作 {@code ""}
+     * @param command 命令
+     * @return 单行命令
+     */
+    public static String batchLine(final List<String> command) {
+        return command.stream().map(arg -> "\"" + arg.replace("%", "%%").replace("\"", "\"\"") + "\"").collect(Collectors.joining(" "));
+    }
+
+    /**
+     * 调优选项
+     * @param profile    档位
+     * @param preTouch   启动时预触全部堆内存
+     * @param largePages 启用大页
+     */
+    public record Tuning(LaunchProfile profile, boolean preTouch, boolean largePages) {
+        /**
+         * 默认选项
+         */
+        public static final Tuning DEFAULT = new Tuning(LaunchProfile.THROUGHPUT, Boolean.FALSE, Boolean.FALSE);
+    }
+}
@@ -0,0 +1,17 @@
+package cloud.dbug.pack2server.common.launcher.enums;
+
+/**
+ * 启动参数档位
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public enum LaunchProfile {
+    /**
+     * 吞吐优先：G1，固定堆
+     */
+    THROUGHPUT,
+    /**
+     * 停顿优先：支持时使用 ZGC，否则使用低停顿目标的 G1
+     */
+    LOW_PAUSE
+}
@@ -0,0 +1,241 @@
+package cloud.dbug.pack2server.common.lock;
+
+import cloud.dbug.pack2server.common.detector.enums.Side;
+import cloud.dbug.pack2server.common.fetcher.JavaDiscovery;
+import cloud.dbug.pack2server.common.fetcher.LibraryPrefetcher;
+import cloud.dbug.pack2server.common.fetcher.ModsBulkFetcher;
+import cloud.dbug.pack2server.common.launcher.LaunchScript;
+import cloud.dbug.pack2server.common.launcher.enums.LaunchProfile;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.EnumUtil;
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * 转换锁定文件（{@code pack2server.lock.json}）
+ * <p>记录一次转换的全部产物：模组文件 ID、摘要与侧别结论，覆盖文件摘要，依赖库，加载器与运行时版本，
+ * 以及启动脚本调优选项；供增量更新与校验修复使用。</p>
+ * @param schema    格式版本
+ * @param pack      整合包信息
+ * @param loader    加载器
+ * @param jre       运行时
+ * @param mods      模组
+ * @param overrides 覆盖文件：相对路径 -> CRC32
+ * @param libraries 依赖库
+ * @param tuning    启动脚本调优选项
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public record LockFile(int schema, Pack pack, Loader loader, Runtime jre, List<Mod> mods,
+                       SortedMap<String, String> overrides, List<LibraryPrefetcher.Library> libraries, LaunchScript.Tuning tuning) {
+    /**
+     * 文件名
+     */
+    public static final String NAME = "pack2server.lock.json";
+    /**
+     * 当前格式版本
+     */
+    public static final int SCHEMA = 1;
+
+    /**
+     * 读取服务目录中的锁定文件
+     * @param serverDir 服务目录
+     * @return {@link Optional }<{@link LockFile }>
+     */
+    public static Optional<LockFile> read(final Path serverDir) {
+        final Path file = serverDir.resolve(NAME);
+        if (Files.notExists(file)) return Optional.empty();
+        final JSONObject root = JSONUtil.parseObj(FileUtil.readUtf8String(file.toFile()));
+        if (root.getInt("schema", 0) != SCHEMA) {
+            throw new IllegalStateException("锁定文件版本不受支持：%s".formatted(root.get("schema")));
+        }
+        final JSONObject pack = root.getJSONObject("pack");
+        final JSONObject loader = root.getJSONObject("loader");
+        final JSONObject jre = root.getJSONObject("jre");
+        return Optional.of(new LockFile(SCHEMA,
+                new Pack(pack.getStr("name"), pack.getStr("version"), pack.getStr("minecraft")),
+                new Loader(loader.getStr("id"), loader.getStr("jar")),
+                new Runtime(jre.getStr("home"), jre.getStr("version")),
+                mods(root.getJSONArray("mods")), overrides(root.getJSONObject("overrides")), libraries(root.getJSONArray("libraries")),
+                tuning(root.getJSONObject("tuning"))));
+    }
+
+    /**
+     * 写入服务目录
+     * @param serverDir 服务目录
+     * @return 锁定文件路径
+     */
+    public Path write(final Path serverDir) {
+        final JSONObject root = JSONUtil.createObj()
+                .set("schema", schema)
+                .set("pack", JSONUtil.createObj().set("name", pack.name()).set("version", pack.version()).set("minecraft", pack.minecraft()))
+                .set("loader", JSONUtil.createObj().set("id", loader.id()).set("jar", loader.jar()))
+                .set("jre", JSONUtil.createObj().set("home", jre.home()).set("version", jre.version()));
+        root.set("mods", modsJson(mods)).set("overrides", overridesJson(overrides)).set("libraries", librariesJson(libraries))
+                .set("tuning", JSONUtil.createObj().set("profile", tuning.profile().name()).set("preTouch", tuning.preTouch()).set("largePages", tuning.largePages()));
+        final Path file = serverDir.resolve(NAME);
+        FileUtil.writeUtf8String(root.toStringPretty(), file.toFile());
+        return file;
+    }
+
+    /**
+     * 模组列表转 JSON（按文件 ID 排序）
+     * @param mods 模组
+     * @return {@link JSONArray }
+     */
+    public static JSONArray modsJson(final List<Mod> mods) {
+        final JSONArray array = new JSONArray();
+        mods.stream().sorted(Comparator.comparingLong(Mod::fileId)).forEach(m -> array.add(JSONUtil.createObj()
+                .set("projectId", m.projectId()).set("fileId", m.fileId()).set("file", m.file()).set("url", m.url())
+                .set("sha1", m.sha1()).set("side", m.side()).set("rule", m.rule())));
+        return array;
+    }
+
+    /**
+     * 解析模组列表
+     * @param array JSON 数组
+     * @return {@link List }<{@link Mod }>
+     */
+    public static List<Mod> mods(final JSONArray array) {
+        return objects(array).stream()
+                .map(o -> new Mod(o.getLong("projectId"), o.getLong("fileId"), o.getStr("file"), o.getStr("url"),
+                        o.getStr("sha1"), o.getStr("side"), o.getStr("rule")))
+                .toList();
+    }
+
+    /**
+     * 覆盖文件索引转 JSON
+     * @param overrides 覆盖文件索引
+     * @return {@link JSONObject }
+     */
+    public static JSONObject overridesJson(final SortedMap<String, String> overrides) {
+        final JSONObject object = new JSONObject(new LinkedHashMap<>());
+        overrides.forEach(object::set);
+        return object;
+    }
+
+    /**
+     * 解析覆盖文件索引
+     * @param object JSON 对象
+     * @return {@link SortedMap }<{@link String }, {@link String }>
+     */
+    public static SortedMap<String, String> overrides(final JSONObject object) {
+        final SortedMap<String, String> overrides = new TreeMap<>();
+        Optional.ofNullable(object).ifPresent(o -> o.forEach((k, v) -> overrides.put(k, String.valueOf(v))));
+        return overrides;
+    }
+
+    /**
+     * 依赖库列表转 JSON（按路径排序）
+     * @param libraries 依赖库
+     * @return {@link JSONArray }
+     */
+    public static JSONArray librariesJson(final List<LibraryPrefetcher.Library> libraries) {
+        final JSONArray array = new JSONArray();
+        libraries.stream().sorted(Comparator.comparing(LibraryPrefetcher.Library::path)).forEach(l -> array.add(JSONUtil.createObj()
+                .set("path", l.path()).set("url", l.url()).set("sha1", l.sha1())));
+        return array;
+    }
+
+    /**
+     * 解析依赖库列表
+     * @param array JSON 数组
+     * @return {@link List }<{@link LibraryPrefetcher.Library }>
+     */
+    public static List<LibraryPrefetcher.Library> libraries(final JSONArray array) {
+        return objects(array).stream()
+                .map(o -> new LibraryPrefetcher.Library(o.getStr("path"), o.getStr("url"), o.getStr("sha1")))
+                .toList();
+    }
+
+    /**
+     * 解析启动脚本调优选项；早期锁定文件没有该项，取默认值
+     * @param object JSON 对象
+     * @return {@link LaunchScript.Tuning }
+     */
+    public static LaunchScript.Tuning tuning(final JSONObject object) {
+        return Optional.ofNullable(object)
+                .map(o -> new LaunchScript.Tuning(
+                        EnumUtil.fromString(LaunchProfile.class, o.getStr("profile"), LaunchScript.Tuning.DEFAULT.profile()),
+                        o.getBool("preTouch", Boolean.FALSE), o.getBool("largePages", Boolean.FALSE)))
+                .orElse(LaunchScript.Tuning.DEFAULT);
+    }
+
+    /**
+     * 数组中的对象元素
+     * @param array 数组
+     * @return {@link List }<{@link JSONObject }>
+     */
+    private static List<JSONObject> objects(final JSONArray array) {
+        return Optional.ofNullable(array).map(a -> a.stream().filter(JSONObject.class::isInstance).map(JSONObject.class::cast).toList())
+                .orElse(List.of());
+    }
+
+    /**
+     * 整合包信息
+     * @param name      名称
+     * @param version   版本
+     * @param minecraft Minecraft 版本
+     */
+    public record Pack(String name, String version, String minecraft) {
+    }
+
+    /**
+     * 加载器
+     * @param id  加载器 ID
+     * @param jar 服务端 jar 文件名
+     */
+    public record Loader(String id, String jar) {
+    }
+
+    /**
+     * 运行时
+     * @param home    根目录
+     * @param version 版本
+     */
+    public record Runtime(String home, String version) {
+        /**
+         * 由运行时根目录生成
+         * @param home 根目录
+         * @return {@link Runtime }
+         */
+        public static Runtime of(final Path home) {
+            return new Runtime(home.toString(), JavaDiscovery.inspect(home).map(JavaDiscovery.Runtime::version).orElse(null));
+        }
+    }
+
+    /**
+     * 模组
+     * @param projectId 项目 ID
+     * @param fileId    文件 ID
+     * @param file      文件名（位于 mods/）
+     * @param url       下载地址
+     * @param sha1      SHA-1
+     * @param side      侧别结论
+     * @param rule      作出结论的规则
+     */
+    public record Mod(long projectId, long fileId, String file, String url, String sha1, String side, String rule) {
+        /**
+         * 由获取结果生成
+         * @param fetched 获取结果
+         * @return {@link Mod }
+         */
+        public static Mod of(final ModsBulkFetcher.Fetched fetched) {
+            return new Mod(fetched.mod().projectId(), fetched.mod().fileId(), fetched.file().getFileName().toString(), fetched.mod().url(),
+                    fetched.sha1(), fetched.verdict().side().name(), fetched.verdict().rule());
+        }
+
+        /**
+         * 是否保留在服务目录
+         * @return boolean
+         */
+        public boolean kept() {
+            return Side.valueOf(side).isServer();
+        }
+    }
+}
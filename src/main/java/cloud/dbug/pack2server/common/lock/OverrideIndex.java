@@ -0,0 +1,108 @@
+package cloud.dbug.pack2server.common.lock;
+
+import cn.hutool.core.io.IORuntimeException;
+import cn.hutool.core.util.StrUtil;
+import lombok.experimental.UtilityClass;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * 覆盖文件索引：相对路径 -> CRC32
+ * <p>zip 整合包直接取中央目录中的 CRC，无需解压。</p>
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+@UtilityClass
+public class OverrideIndex {
+    /**
+     * 从 zip 整合包建立索引
+     * @param pack      整合包
+     * @param overrides 清单声明的覆盖目录
+     * @return {@link SortedMap }<{@link String }, {@link String }>
+     */
+    public static SortedMap<String, String> fromZip(final Path pack, final String overrides) {
+        final String prefix = overrides + "/";
+        final SortedMap<String, String> index = new TreeMap<>();
+        try (final ZipFile zip = new ZipFile(pack.toFile())) {
+            Collections.list(zip.entries()).stream()
+                    .filter(e -> !e.isDirectory() && e.getName().startsWith(prefix))
+                    .forEach(e -> index.put(StrUtil.removePrefix(e.getName(), prefix), crc(e)));
+        } catch (final IOException e) {
+            throw new IORuntimeException(e);
+        }
+        return index;
+    }
+
+    /**
+     * 从已解压的覆盖目录建立索引
+     * @param overridesDir 覆盖目录
+     * @return {@link SortedMap }<{@link String }, {@link String }>
+     */
+    public static SortedMap<String, String> fromDir(final Path overridesDir) {
+        final SortedMap<String, String> index = new TreeMap<>();
+        if (Files.notExists(overridesDir)) return index;
+        try (final Stream<Path> files = Files.walk(overridesDir)) {
+            for (final Path file : files.filter(Files::isRegularFile).toList()) {
+                index.put(overridesDir.relativize(file).toString().replace('\\', '/'), crc(file));
+            }
+        } catch (final IOException e) {
+            throw new IORuntimeException(e);
+        }
+        return index;
+    }
+
+    /**
+     * 索引中的文件是否都已就位且内容一致
+     * @param serverDir 服务目录
+     * @param index     覆盖文件索引
+     * @return boolean
+     */
+    public static boolean intact(final Path serverDir, final SortedMap<String, String> index) {
+        try {
+            for (final Map.Entry<String, String> entry : index.entrySet()) {
+                final Path file = serverDir.resolve(entry.getKey());
+                if (!Files.isRegularFile(file) || !entry.getValue().equals(crc(file))) return false;
+            }
+            return true;
+        } catch (final IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 条目 CRC
+     * @param entry 条目
+     * @return 8 位十六进制
+     */
+    private static String crc(final ZipEntry entry) {
+        return "%08x".formatted(entry.getCrc());
+    }
+
+    /**
+     * 文件 CRC
+     * @param file 文件
+     * @return 8 位十六进制
+     */
+    private static String crc(final Path file) throws IOException {
+        final CRC32 crc = new CRC32();
+        try (final InputStream in = Files.newInputStream(file)) {
+            final byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return "%08x".formatted(crc.getValue());
+    }
+}
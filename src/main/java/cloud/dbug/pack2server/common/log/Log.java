@@ -0,0 +1,367 @@
+package cloud.dbug.pack2server.common.log;
+
+import cloud.dbug.pack2server.common.log.enums.LogFormat;
+import cloud.dbug.pack2server.common.log.enums.LogLevel;
+import cn.hutool.core.exceptions.ExceptionUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import lombok.experimental.UtilityClass;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 异步日志
+ * <p>调用方线程只做级别过滤、格式化并写入 {@link RingBuffer}，由唯一的后台线程按批取出后写到控制台或文件；
+ * 下载循环中的数百个虚拟线程不再争用 {@link System#out}。模板沿用 {@code {}} 占位符，
+ * {@code [标签]} 前缀与 {@code 键={}} 占位符在 JSON 格式下分别输出为 {@code tag} 与 {@code fields}。</p>
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+@UtilityClass
+public class Log {
+    /**
+     * 缓冲区容量
+     */
+    private static final int CAPACITY = 8192;
+    /**
+     * 单批最多写出条数
+     */
+    private static final int BATCH = 512;
+    /**
+     * 写出线程空闲时的休眠上限
+     */
+    private static final Duration IDLE = Duration.ofMillis(20);
+    /**
+     * 等待写出的超时
+     */
+    private static final Duration FLUSH_TIMEOUT = Duration.ofSeconds(5);
+    /**
+     * 模板中的占位符，带键名时记为字段
+     */
+    private static final Pattern PLACEHOLDER = Pattern.compile("(?:(\\w+)=)?\\{}");
+    /**
+     * 消息前缀标签
+     */
+    private static final Pattern TAG = Pattern.compile("^\\[([^\\]\\s]+)] ?");
+    /**
+     * 缓冲区
+     */
+    private static final RingBuffer<Entry> RING = new RingBuffer<>(CAPACITY);
+    /**
+     * 当前配置
+     */
+    private static volatile Settings settings = Settings.DEFAULT;
+    /**
+     * 已写出条数
+     */
+    private static volatile long written;
+    /**
+     * 写出线程是否空闲
+     */
+    private static volatile boolean idle;
+    /**
+     * 写出线程
+     */
+    private static final Thread WRITER = Thread.ofPlatform().daemon().name("p2s-log").start(Log::drainLoop);
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(Log::flush, "p2s-log-flush"));
+    }
+
+    /**
+     * 设置级别、格式与输出位置
+     * @param level  最低输出级别
+     * @param format 格式
+     * @param file   输出文件（追加），为空时输出到控制台
+     */
+    public static void configure(final LogLevel level, final LogFormat format, final Path file) {
+        settings = new Settings(level, format, file);
+    }
+
+    /**
+     * 级别是否输出
+     * @param level 级别
+     * @return boolean
+     */
+    public static boolean enabled(final LogLevel level) {
+        return level.compareTo(settings.level()) >= 0;
+    }
+
+    /**
+     * 逐文件明细，静默模式下不输出
+     * @param template 模板
+     * @param args     参数
+     */
+    public static void detail(final String template, final Object... args) {
+        log(LogLevel.DETAIL, template, args);
+    }
+
+    /**
+     * 阶段汇总
+     * @param template 模板
+     * @param args     参数
+     */
+    public static void info(final String template, final Object... args) {
+        log(LogLevel.INFO, template, args);
+    }
+
+    /**
+     * 警告
+     * @param template 模板
+     * @param args     参数
+     */
+    public static void warn(final String template, final Object... args) {
+        log(LogLevel.WARN, template, args);
+    }
+
+    /**
+     * 错误；末尾多出的 {@link Throwable} 参数随堆栈一并输出
+     * @param template 模板
+     * @param args     参数
+     */
+    public static void error(final String template, final Object... args) {
+        log(LogLevel.ERROR, template, args);
+    }
+
+    /**
+     * 记录一条日志；缓冲区满时让出执行直至写出线程腾出空间
+     * @param level    级别
+     * @param template 模板，无参数时原样输出
+     * @param args     参数
+     */
+    public static void log(final LogLevel level, final String template, final Object... args) {
+        final Settings current = settings;
+        if (level.compareTo(current.level()) < 0) {
+            return;
+        }
+        final Entry entry = entry(level, template, args, current.format() == LogFormat.JSON);
+        while (!RING.offer(entry)) {
+            LockSupport.unpark(WRITER);
+            Thread.yield();
+        }
+        if (idle) {
+            LockSupport.unpark(WRITER);
+        }
+    }
+
+    /**
+     * 等待已记录的日志全部写出
+     */
+    public static void flush() {
+        final long target = RING.claimed();
+        final long deadline = System.nanoTime() + FLUSH_TIMEOUT.toNanos();
+        while (written < target && System.nanoTime() < deadline) {
+            LockSupport.unpark(WRITER);
+            LockSupport.parkNanos(Duration.ofMillis(1).toNanos());
+        }
+    }
+
+    /**
+     * 在调用方线程构造条目：格式化消息，JSON 格式下另取字段
+     * @param level    级别
+     * @param template 模板
+     * @param args     参数
+     * @param json     是否需要字段
+     * @return {@link Entry }
+     */
+    private static Entry entry(final LogLevel level, final String template, final Object[] args, final boolean json) {
+        final String text = Objects.toString(template);
+        final Map<String, String> fields = new LinkedHashMap<>();
+        int placeholders = 0;
+        final Matcher matcher = PLACEHOLDER.matcher(text);
+        while (matcher.find()) {
+            if (json && Objects.nonNull(matcher.group(1)) && placeholders < args.length) {
+                fields.put(matcher.group(1), StrUtil.toString(args[placeholders]));
+            }
+            placeholders++;
+        }
+        final Throwable error = args.length > placeholders && args[args.length - 1] instanceof final Throwable t ? t : null;
+        final Thread thread = Thread.currentThread();
+        return new Entry(System.currentTimeMillis(), level, StrUtil.blankToDefault(thread.getName(), "#%d".formatted(thread.threadId())),
+                args.length == 0 ? text : StrUtil.format(text, args), fields, error);
+    }
+
+    /**
+     * 写出线程：按批取出、按原顺序渲染并写出，空闲时休眠
+     */
+    private static void drainLoop() {
+        final Output output = new Output();
+        while (true) {
+            final Settings current = settings;
+            final int count = RING.drain(entry -> render(entry, current.format(),
+                    output.next(current.file(), entry.level().compareTo(LogLevel.WARN) >= 0)), BATCH);
+            if (count == 0) {
+                idle = Boolean.TRUE;
+                if (RING.claimed() == RING.consumed()) {
+                    LockSupport.parkNanos(IDLE.toNanos());
+                }
+                idle = Boolean.FALSE;
+                continue;
+            }
+            output.flush(current.file());
+            written = RING.consumed();
+        }
+    }
+
+    /**
+     * 渲染一条日志
+     * @param entry  条目
+     * @param format 格式
+     * @param target 目标缓冲
+     */
+    private static void render(final Entry entry, final LogFormat format, final StringBuilder target) {
+        if (format == LogFormat.TEXT) {
+            target.append(entry.message()).append(System.lineSeparator());
+            if (Objects.nonNull(entry.error())) {
+                target.append(ExceptionUtil.stacktraceToString(entry.error(), -1));
+            }
+            return;
+        }
+        final Matcher tag = TAG.matcher(entry.message());
+        final boolean tagged = tag.find();
+        final JSONObject json = JSONUtil.createObj()
+                .set("time", Instant.ofEpochMilli(entry.time()).toString())
+                .set("level", entry.level().name())
+                .set("thread", entry.thread())
+                .set("tag", tagged ? tag.group(1) : null)
+                .set("msg", tagged ? entry.message().substring(tag.end()) : entry.message());
+        if (!entry.fields().isEmpty()) {
+            json.set("fields", entry.fields());
+        }
+        if (Objects.nonNull(entry.error())) {
+            json.set("error", ExceptionUtil.getMessage(entry.error()));
+        }
+        target.append(json).append(System.lineSeparator());
+    }
+
+    /**
+     * 日志配置
+     * @param level  最低输出级别
+     * @param format 格式
+     * @param file   输出文件，为空时输出到控制台
+     */
+    private record Settings(LogLevel level, LogFormat format, Path file) {
+        /**
+         * 默认：全部级别、纯文本、控制台
+         */
+        private static final Settings DEFAULT = new Settings(LogLevel.DETAIL, LogFormat.TEXT, null);
+    }
+
+    /**
+     * 日志条目
+     * @param time    时间戳（毫秒）
+     * @param level   级别
+     * @param thread  线程名
+     * @param message 消息
+     * @param fields  字段，仅 JSON 格式下填充
+     * @param error   附带的异常
+     */
+    private record Entry(long time, LogLevel level, String thread, String message, Map<String, String> fields, Throwable error) {
+    }
+
+    /**
+     * 输出端，仅由写出线程使用
+     */
+    private static final class Output {
+        /**
+         * 待写出内容
+         */
+        private final StringBuilder pending = new StringBuilder();
+        /**
+         * 待写出内容是否属于标准错误
+         */
+        private boolean error;
+        /**
+         * 当前打开的文件
+         */
+        private Path file;
+        /**
+         * 文件写出流
+         */
+        private Writer writer;
+
+        /**
+         * 取得下一条日志的渲染位置；输出到控制台时，标准输出与标准错误切换前先写出已有内容，保持条目顺序
+         * @param target  输出文件，为空时输出到控制台
+         * @param toError 是否属于标准错误
+         * @return {@link StringBuilder }
+         */
+        private StringBuilder next(final Path target, final boolean toError) {
+            if (Objects.isNull(target) && toError != error) {
+                flush(null);
+                error = toError;
+            }
+            return pending;
+        }
+
+        /**
+         * 写出并清空待写出内容；文件不可写时回退到控制台
+         * @param target 输出文件，为空时输出到控制台
+         */
+        private void flush(final Path target) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            try {
+                if (Objects.nonNull(target)) {
+                    open(target).append(pending).flush();
+                    pending.setLength(0);
+                    return;
+                }
+                close();
+            } catch (final IOException e) {
+                close();
+                System.err.printf("[LOG] 日志文件写出失败 | file=%s err=%s%n", target, e.getMessage());
+            }
+            final PrintStream stream = Objects.isNull(target) && error ? System.err : System.out;
+            stream.print(pending);
+            stream.flush();
+            pending.setLength(0);
+        }
+
+        /**
+         * 打开（或沿用）目标文件
+         * @param target 输出文件
+         * @return {@link Writer }
+         */
+        private Writer open(final Path target) throws IOException {
+            if (!target.equals(file)) {
+                close();
+                final Path absolute = target.toAbsolutePath();
+                Files.createDirectories(absolute.getParent());
+                writer = Files.newBufferedWriter(absolute, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                file = target;
+            }
+            return writer;
+        }
+
+        /**
+         * 关闭当前文件
+         */
+        private void close() {
+            if (Objects.nonNull(writer)) {
+                try {
+                    writer.close();
+                } catch (final IOException ignore) {
+                    // 关闭失败不影响后续输出
+                }
+            }
+            writer = null;
+            file = null;
+        }
+    }
+}
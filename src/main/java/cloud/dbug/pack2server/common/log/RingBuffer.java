@@ -0,0 +1,113 @@
+package cloud.dbug.pack2server.common.log;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * 有界无锁环形缓冲区（多生产者、单消费者）
+ * <p>每个槽位带序号：生产者以 CAS 抢占写入位置，写入后发布序号；唯一的消费者按序号顺序批量取出。
+ * 全程不使用锁与监视器，虚拟线程写入时不会固定载体线程。</p>
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public final class RingBuffer<T> {
+    /**
+     * 下标掩码（容量为 2 的幂）
+     */
+    private final int mask;
+    /**
+     * 槽位
+     */
+    private final AtomicReferenceArray<T> items;
+    /**
+     * 槽位序号：等于写入位置时可写，等于写入位置 + 1 时可读
+     */
+    private final AtomicLongArray sequences;
+    /**
+     * 下一个写入位置
+     */
+    private final AtomicLong tail = new AtomicLong();
+    /**
+     * 下一个读取位置，仅消费者修改
+     */
+    private volatile long head;
+
+    /**
+     * 创建缓冲区
+     * @param capacity 容量，向上取整为 2 的幂
+     */
+    public RingBuffer(final int capacity) {
+        final int size = 1 << (Integer.SIZE - Integer.numberOfLeadingZeros(Math.max(2, capacity) - 1));
+        this.mask = size - 1;
+        this.items = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * 写入一项
+     * @param item 条目
+     * @return 缓冲区已满时为 {@code false}
+     */
+    public boolean offer(final T item) {
+        long position = tail.get();
+        while (true) {
+            final int index = (int) (position & mask);
+            final long difference = sequences.getAcquire(index) - position;
+            if (difference == 0 && tail.compareAndSet(position, position + 1)) {
+                items.setPlain(index, item);
+                sequences.setRelease(index, position + 1);
+                return Boolean.TRUE;
+            }
+            if (difference < 0) {
+                return Boolean.FALSE;
+            }
+            position = tail.get();
+        }
+    }
+
+    /**
+     * 按写入顺序取出已发布的条目；仅可由唯一的消费者线程调用
+     * @param sink  接收方
+     * @param limit 本批最多取出数
+     * @return 取出数
+     */
+    public int drain(final Consumer<? super T> sink, final int limit) {
+        long position = head;
+        int count = 0;
+        while (count < limit) {
+            final int index = (int) (position & mask);
+            if (sequences.getAcquire(index) != position + 1) {
+                break;
+            }
+            final T item = items.getPlain(index);
+            items.setPlain(index, null);
+            sequences.setRelease(index, position + mask + 1);
+            position++;
+            count++;
+            sink.accept(item);
+        }
+        head = position;
+        return count;
+    }
+
+    /**
+     * 已抢占的写入位置总数
+     * @return long
+     */
+    public long claimed() {
+        return tail.get();
+    }
+
+    /**
+     * 已取出的条目总数
+     * @return long
+     */
+    public long consumed() {
+        return head;
+    }
+}
@@ -0,0 +1,17 @@
+package cloud.dbug.pack2server.common.log.enums;
+
+/**
+ * 日志输出格式
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public enum LogFormat {
+    /**
+     * 纯文本，每条一行
+     */
+    TEXT,
+    /**
+     * 每行一个 JSON 对象：时间、级别、线程、标签、消息及 {@code 键={}} 占位符对应的字段
+     */
+    JSON
+}
@@ -0,0 +1,25 @@
+package cloud.dbug.pack2server.common.log.enums;
+
+/**
+ * 日志级别（由低到高）
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public enum LogLevel {
+    /**
+     * 逐文件明细：单个下载、文件名解析、进度条、首次运行的服务端输出
+     */
+    DETAIL,
+    /**
+     * 阶段汇总
+     */
+    INFO,
+    /**
+     * 可恢复的异常情况
+     */
+    WARN,
+    /**
+     * 失败
+     */
+    ERROR
+}
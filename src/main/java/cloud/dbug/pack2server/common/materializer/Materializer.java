@@ -0,0 +1,286 @@
+package cloud.dbug.pack2server.common.materializer;
+
+import cloud.dbug.pack2server.common.log.Log;
+import cloud.dbug.pack2server.common.materializer.enums.Strategy;
+import lombok.SneakyThrows;
+import lombok.experimental.UtilityClass;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 目录落地器
+ * <p>按 {@link Strategy} 顺序分轮处理：移动 → 硬链接 → reflink → 并行复制，上一轮未落地的文件进入下一轮。
+ * 某策略失败只影响当前文件，从未成功过的策略在某个目标文件系统上首次失败后即对该文件系统停用；
+ * reflink 按目标文件系统探测一次，并按目录分批交给有限个 {@code cp} 进程。空目录同样重建；
+ * 遍历不跟随符号链接，链接按原指向在目标处重建。</p>
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+@UtilityClass
+public class Materializer {
+    /**
+     * 操作系统名
+     */
+    private static final String OS_NAME = System.getProperty("os.name", "").toLowerCase(Locale.ROOT);
+    /**
+     * 单个 reflink 进程处理的文件数上限
+     */
+    private static final int REFLINK_BATCH = 256;
+    /**
+     * 同时运行的 reflink 进程数上限
+     */
+    private static final int REFLINK_PARALLELISM = Math.max(2, Runtime.getRuntime().availableProcessors());
+    /**
+     * 各文件系统的 reflink 支持情况
+     */
+    private static final Map<FileStore, Boolean> REFLINK_SUPPORT = new ConcurrentHashMap<>();
+
+    /**
+     * 将源目录内容落地到目标目录
+     * @param src        源目录
+     * @param dest       目标目录
+     * @param disposable 源是否可丢弃（允许移动/硬链接）
+     * @return 各策略处理的文件数
+     */
+    public static Map<Strategy, Long> materialize(final Path src, final Path dest, final boolean disposable) {
+        return materialize(src, dest, Arrays.stream(Strategy.values())
+                .filter(s -> disposable || !s.isDisposableOnly())
+                .collect(Collectors.toCollection(() -> EnumSet.noneOf(Strategy.class))));
+    }
+
+    /**
+     * 以指定策略集合将源目录内容落地到目标目录
+     * @param src        源目录
+     * @param dest       目标目录
+     * @param strategies 允许的策略，按声明顺序尝试
+     * @return 各策略处理的文件数
+     */
+    @SneakyThrows
+    public static Map<Strategy, Long> materialize(final Path src, final Path dest, final Set<Strategy> strategies) {
+        final Instant start = Instant.now();
+        final List<Path> files = new ArrayList<>();
+        final List<Path> dirs = new ArrayList<>();
+        final List<Path> links = new ArrayList<>();
+        try (final Stream<Path> walk = Files.walk(src)) {
+            walk.forEach(path -> (Files.isSymbolicLink(path) ? links : Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS) ? dirs : files).add(path));
+        }
+        // 批量创建目录（含空目录）
+        for (final Path dir : dirs) {
+            Files.createDirectories(target(src, dest, dir));
+        }
+        // 符号链接按原指向重建，不展开为空目录或链接目标的副本
+        for (final Path link : links) {
+            try {
+                final Path target = target(src, dest, link);
+                Files.deleteIfExists(target);
+                Files.createSymbolicLink(target, Files.readSymbolicLink(link));
+            } catch (final IOException | UnsupportedOperationException e) {
+                Log.error("[MATERIALIZE] 符号链接重建失败 | link={} err={}", link, e.getMessage());
+            }
+        }
+        final Map<Strategy, LongAdder> hits = new ConcurrentHashMap<>();
+        List<Path> pending = List.copyOf(files);
+        for (final Strategy strategy : strategies.stream().sorted().toList()) {
+            if (pending.isEmpty()) break;
+            pending = Strategy.REFLINK.equals(strategy)
+                    ? reflink(src, dest, pending, hits)
+                    : each(strategy, src, dest, pending, hits);
+        }
+        pending.forEach(file -> Log.error("[MATERIALIZE] 文件落地失败 | file={}", file));
+        final Map<Strategy, Long> result = hits.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().sum(), Long::sum, () -> new EnumMap<>(Strategy.class)));
+        Log.info("[MATERIALIZE] 落地完成 | src={} dest={} files={} dirs={} links={} strategies={} duration={}",
+                src, dest, files.size(), dirs.size(), links.size(), result, Duration.between(start, Instant.now()));
+        return result;
+    }
+
+    /**
+     * 逐文件并行执行单个策略
+     * @param strategy 策略
+     * @param src      源目录
+     * @param dest     目标目录
+     * @param files    待落地文件
+     * @param hits     命中计数
+     * @return 本轮未落地的文件
+     */
+    private static List<Path> each(final Strategy strategy, final Path src, final Path dest, final List<Path> files,
+                                   final Map<Strategy, LongAdder> hits) {
+        final Set<Path> failed = ConcurrentHashMap.newKeySet();
+        final Set<Optional<FileStore>> succeeded = ConcurrentHashMap.newKeySet();
+        final Set<Optional<FileStore>> disabled = ConcurrentHashMap.newKeySet();
+        try (final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            files.forEach(file -> executor.submit(() -> {
+                final Path target = target(src, dest, file);
+                // 策略能否生效取决于目标所在文件系统；目标文件尚不存在，取其目录
+                final Optional<FileStore> store = Optional.ofNullable(store(target.getParent()));
+                if (disabled.contains(store)) {
+                    failed.add(file);
+                    return;
+                }
+                try {
+                    apply(strategy, file, target);
+                    succeeded.add(store);
+                    hits.computeIfAbsent(strategy, _ -> new LongAdder()).increment();
+                } catch (final Exception e) {
+                    failed.add(file);
+                    if (!succeeded.contains(store)) disabled.add(store);
+                }
+            }));
+        }
+        return files.stream().filter(failed::contains).toList();
+    }
+
+    /**
+     * 按目标目录分批 reflink；目标文件系统不支持或跨文件系统时整轮跳过
+     * @param src   源目录
+     * @param dest  目标目录
+     * @param files 待落地文件
+     * @param hits  命中计数
+     * @return 本轮未落地的文件
+     */
+    private static List<Path> reflink(final Path src, final Path dest, final List<Path> files, final Map<Strategy, LongAdder> hits) {
+        if (!reflinkable(src, dest)) {
+            return files;
+        }
+        final List<List<Path>> batches = new ArrayList<>();
+        files.stream().collect(Collectors.groupingBy(f -> target(src, dest, f).getParent(), LinkedHashMap::new, Collectors.toList()))
+                .forEach((_, group) -> {
+                    for (int i = 0; i < group.size(); i += REFLINK_BATCH) {
+                        batches.add(group.subList(i, Math.min(group.size(), i + REFLINK_BATCH)));
+                    }
+                });
+        final Set<Path> failed = ConcurrentHashMap.newKeySet();
+        final Semaphore processes = new Semaphore(REFLINK_PARALLELISM);
+        try (final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            batches.forEach(batch -> executor.submit(() -> {
+                try {
+                    processes.acquire();
+                    try {
+                        clone(batch, target(src, dest, batch.getFirst()).getParent());
+                    } finally {
+                        processes.release();
+                    }
+                    hits.computeIfAbsent(Strategy.REFLINK, _ -> new LongAdder()).add(batch.size());
+                } catch (final Exception e) {
+                    failed.addAll(batch);
+                }
+            }));
+        }
+        return files.stream().filter(failed::contains).toList();
+    }
+
+    /**
+     * 源与目标位于同一文件系统且该文件系统支持 reflink；结果按文件系统缓存
+     * @param src  源目录
+     * @param dest 目标目录
+     * @return boolean
+     */
+    private static boolean reflinkable(final Path src, final Path dest) {
+        if (!OS_NAME.contains("nux") && !OS_NAME.contains("mac")) {
+            return Boolean.FALSE;
+        }
+        final FileStore store = store(dest);
+        if (Objects.isNull(store) || !store.equals(store(src))) {
+            return Boolean.FALSE;
+        }
+        return REFLINK_SUPPORT.computeIfAbsent(store, _ -> probe(dest));
+    }
+
+    /**
+     * 以临时文件探测目录所在文件系统是否支持 reflink
+     * @param dir 目录
+     * @return boolean
+     */
+    private static boolean probe(final Path dir) {
+        Path probe = null;
+        Path clone = null;
+        try {
+            probe = Files.createTempFile(dir, ".p2s-reflink", ".probe");
+            Files.writeString(probe, "p");
+            clone = probe.resolveSibling(probe.getFileName() + ".clone");
+            clone(List.of(probe), clone);
+            return Boolean.TRUE;
+        } catch (final Exception ignore) {
+            return Boolean.FALSE;
+        } finally {
+            for (final Path path : Arrays.asList(probe, clone)) {
+                if (Objects.nonNull(path)) {
+                    try {
+                        Files.deleteIfExists(path);
+                    } catch (final IOException ignore) {
+                        // 探测文件残留不影响落地
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 以一个 {@code cp} 进程克隆一批文件
+     * @param sources 源文件
+     * @param target  单个源时为目标文件，多个源时为目标目录
+     */
+    private static void clone(final List<Path> sources, final Path target) throws IOException, InterruptedException {
+        final List<String> command = new ArrayList<>(OS_NAME.contains("mac") ? List.of("cp", "-c") : List.of("cp", "--reflink=always"));
+        sources.forEach(source -> command.add(source.toString()));
+        command.add(target.toString());
+        final Process process = new ProcessBuilder(command).redirectErrorStream(Boolean.TRUE)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+        if (process.waitFor() != 0) {
+            throw new IOException("reflink 不受支持 | target=%s".formatted(target));
+        }
+    }
+
+    /**
+     * 执行单个逐文件策略
+     * @param strategy 策略
+     * @param source   源文件
+     * @param target   目标文件
+     */
+    private static void apply(final Strategy strategy, final Path source, final Path target) throws IOException {
+        switch (strategy) {
+            case MOVE -> Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+            case HARDLINK -> {
+                Files.deleteIfExists(target);
+                Files.createLink(target, source);
+            }
+            case COPY -> Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+            case REFLINK -> throw new IllegalArgumentException("reflink 按批执行");
+        }
+    }
+
+    /**
+     * 源路径对应的目标路径
+     * @param src  源目录
+     * @param dest 目标目录
+     * @param path 源路径
+     * @return {@link Path }
+     */
+    private static Path target(final Path src, final Path dest, final Path path) {
+        return dest.resolve(src.relativize(path).toString());
+    }
+
+    /**
+     * 路径所在文件系统，无法获取时为空
+     * @param path 路径
+     * @return {@link FileStore }
+     */
+    private static FileStore store(final Path path) {
+        try {
+            return Files.getFileStore(path);
+        } catch (final IOException ignore) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package cloud.dbug.pack2server.common.materializer.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 文件落地策略，按声明顺序逐个尝试
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+@Getter
+@AllArgsConstructor
+public enum Strategy {
+    /**
+     * 同文件系统内重命名，仅适用于可丢弃的源
+     */
+    MOVE(Boolean.TRUE),
+    /**
+     * 硬链接，与源共享 inode，仅适用于可丢弃的源
+     */
+    HARDLINK(Boolean.TRUE),
+    /**
+     * 写时复制克隆（btrfs/xfs/APFS 等）
+     */
+    REFLINK(Boolean.FALSE),
+    /**
+     * 字节复制
+     */
+    COPY(Boolean.FALSE);
+    /**
+     * 是否要求源可丢弃
+     */
+    private final boolean disposableOnly;
+}
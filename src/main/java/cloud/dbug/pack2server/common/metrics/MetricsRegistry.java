@@ -0,0 +1,411 @@
+package cloud.dbug.pack2server.common.metrics;
+
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import lombok.SneakyThrows;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * 指标注册表
+ * <p>计数器、计时器与函数型指标按名称和标签登记，可导出为 Prometheus 文本格式或 JSON。
+ * 子注册表的计数与计时同时累加到父注册表：单次转换持有子表生成运行报告，父表在批量与服务模式中提供全局实时指标。</p>
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public final class MetricsRegistry {
+    /**
+     * 每类最慢条目的保留数
+     */
+    private static final int SLOWEST = 10;
+    /**
+     * 父注册表，顶层为空
+     */
+    private final MetricsRegistry parent;
+    /**
+     * 指标族（按名称有序）
+     */
+    private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+    /**
+     * 各类最慢条目
+     */
+    private final Map<String, Slowest> slowest = new ConcurrentHashMap<>();
+
+    public MetricsRegistry() {
+        this(null);
+    }
+
+    private MetricsRegistry(final MetricsRegistry parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * 创建子注册表
+     * @return {@link MetricsRegistry }
+     */
+    public MetricsRegistry child() {
+        return new MetricsRegistry(this);
+    }
+
+    /**
+     * 获取或创建计数器
+     * @param name   名称
+     * @param help   说明
+     * @param labels 标签，按键值交替给出
+     * @return {@link Counter }
+     */
+    public Counter counter(final String name, final String help, final String... labels) {
+        return (Counter) family(name, help, Type.COUNTER).series.computeIfAbsent(Labels.of(labels),
+                key -> new Counter(Optional.ofNullable(parent).map(p -> p.counter(name, help, labels)).orElse(null)));
+    }
+
+    /**
+     * 获取或创建计时器
+     * @param name   名称（秒）
+     * @param help   说明
+     * @param labels 标签，按键值交替给出
+     * @return {@link Timer }
+     */
+    public Timer timer(final String name, final String help, final String... labels) {
+        return (Timer) family(name, help, Type.SUMMARY).series.computeIfAbsent(Labels.of(labels),
+                key -> new Timer(Optional.ofNullable(parent).map(p -> p.timer(name, help, labels)).orElse(null)));
+    }
+
+    /**
+     * 登记函数型计数器，导出时读取当前值；不向父注册表传播
+     * @param name  名称
+     * @param help  说明
+     * @param value 取值
+     */
+    public void counter(final String name, final String help, final LongSupplier value) {
+        family(name, help, Type.COUNTER).series.put(Labels.NONE, (Sampled) () -> new double[]{value.getAsLong()});
+    }
+
+    /**
+     * 登记函数型仪表，导出时读取当前值；不向父注册表传播
+     * @param name  名称
+     * @param help  说明
+     * @param value 取值
+     */
+    public void gauge(final String name, final String help, final DoubleSupplier value) {
+        family(name, help, Type.GAUGE).series.put(Labels.NONE, (Sampled) () -> new double[]{value.getAsDouble()});
+    }
+
+    /**
+     * 记录一条耗时，按类别保留最慢的若干条
+     * @param kind     类别
+     * @param key      条目
+     * @param duration 耗时
+     */
+    public void slowest(final String kind, final String key, final Duration duration) {
+        slowest.computeIfAbsent(kind, _ -> new Slowest()).offer(key, duration.toNanos());
+        Optional.ofNullable(parent).ifPresent(p -> p.slowest(kind, key, duration));
+    }
+
+    /**
+     * 获取指标族，类型不符时报错
+     * @param name 名称
+     * @param help 说明
+     * @param type 类型
+     * @return {@link Family }
+     */
+    private Family family(final String name, final String help, final Type type) {
+        final Family family = families.computeIfAbsent(name, _ -> new Family(help, type));
+        if (family.type != type) {
+            throw new IllegalStateException("指标类型冲突 | name=%s registered=%s requested=%s".formatted(name, family.type, type));
+        }
+        return family;
+    }
+
+    /**
+     * 导出 Prometheus 文本格式
+     * @return 指标文本
+     */
+    public String prometheus() {
+        final StringBuilder text = new StringBuilder();
+        families.forEach((name, family) -> {
+            text.append("# HELP %s %s\n# TYPE %s %s\n".formatted(name, family.help, name, family.type.text));
+            family.series.forEach((labels, series) -> {
+                final double[] values = series.sample();
+                if (family.type == Type.SUMMARY) {
+                    text.append("%s_sum%s %s\n%s_count%s %s\n".formatted(name, labels, number(values[1]), name, labels, number(values[0])));
+                } else {
+                    text.append("%s%s %s\n".formatted(name, labels, number(values[0])));
+                }
+            });
+            if (family.type == Type.SUMMARY) {
+                text.append("# HELP %s_max Largest observation of %s\n# TYPE %s_max gauge\n".formatted(name, name, name));
+                family.series.forEach((labels, series) -> text.append("%s_max%s %s\n".formatted(name, labels, number(series.sample()[2]))));
+            }
+        });
+        return text.toString();
+    }
+
+    /**
+     * 导出 JSON：{@code {名称: [{labels, value} 或 {labels, count, sum, max}]}}，另含 {@code slowest} 各类最慢条目
+     * @return {@link JSONObject }
+     */
+    public JSONObject toJson() {
+        final JSONObject json = JSONUtil.createObj();
+        families.forEach((name, family) -> json.set(name, new JSONArray(family.series.entrySet().stream().map(e -> {
+            final double[] values = e.getValue().sample();
+            final JSONObject series = JSONUtil.createObj().set("labels", e.getKey().toJson());
+            return family.type == Type.SUMMARY
+                    ? series.set("count", (long) values[0]).set("sum", values[1]).set("max", values[2])
+                    : series.set("value", values[0] == Math.rint(values[0]) ? (Number) (long) values[0] : (Number) values[0]);
+        }).toList())));
+        final JSONObject slow = JSONUtil.createObj();
+        slowest.forEach((kind, entries) -> slow.set(kind, entries.toJson()));
+        return json.set("slowest", slow);
+    }
+
+    /**
+     * 以 Prometheus 文本格式原子写出文件（兼容 node_exporter textfile 收集器）
+     * @param file 目标文件
+     * @return 目标文件
+     */
+    @SneakyThrows
+    public Path writePrometheus(final Path file) {
+        final Path target = file.toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        final Path partial = target.resolveSibling(".%s.%d".formatted(target.getFileName(), ProcessHandle.current().pid()));
+        Files.writeString(partial, prometheus());
+        return Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 数值文本，整数不带小数
+     * @param value 数值
+     * @return 文本
+     */
+    private static String number(final double value) {
+        return value == Math.rint(value) && !Double.isInfinite(value) ? Long.toString((long) value) : Double.toString(value);
+    }
+
+    /**
+     * 指标类型
+     */
+    private enum Type {
+        COUNTER("counter"), GAUGE("gauge"), SUMMARY("summary");
+        /**
+         * 导出文本
+         */
+        private final String text;
+
+        Type(final String text) {
+            this.text = text;
+        }
+    }
+
+    /**
+     * 指标族
+     * @param help   说明
+     * @param type   类型
+     * @param series 各标签组合的序列
+     */
+    private record Family(String help, Type type, Map<Labels, Sampled> series) {
+        private Family(final String help, final Type type) {
+            this(help, type, new ConcurrentSkipListMap<>());
+        }
+    }
+
+    /**
+     * 可采样序列：计数器与仪表为 {@code [value]}，计时器为 {@code [count, sum, max]}
+     */
+    private interface Sampled {
+        double[] sample();
+    }
+
+    /**
+     * 标签组合
+     * @param text 导出文本，无标签时为空串
+     * @param map  标签
+     */
+    private record Labels(String text, SequencedMap<String, String> map) implements Comparable<Labels> {
+        /**
+         * 无标签
+         */
+        private static final Labels NONE = new Labels("", new LinkedHashMap<>());
+
+        private static Labels of(final String... pairs) {
+            if (pairs.length % 2 != 0) {
+                throw new IllegalArgumentException("标签须按键值成对给出");
+            }
+            if (pairs.length == 0) {
+                return NONE;
+            }
+            final SequencedMap<String, String> map = new LinkedHashMap<>();
+            for (int i = 0; i < pairs.length; i += 2) {
+                map.put(pairs[i], Objects.toString(pairs[i + 1], ""));
+            }
+            return new Labels(map.entrySet().stream()
+                    .map(e -> "%s=\"%s\"".formatted(e.getKey(), e.getValue().replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n")))
+                    .collect(Collectors.joining(",", "{", "}")), map);
+        }
+
+        private JSONObject toJson() {
+            final JSONObject json = JSONUtil.createObj();
+            map.forEach(json::set);
+            return json;
+        }
+
+        @Override
+        public int compareTo(final Labels other) {
+            return text.compareTo(other.text);
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    /**
+     * 计数器
+     */
+    public static final class Counter implements Sampled {
+        /**
+         * 计数
+         */
+        private final LongAdder value = new LongAdder();
+        /**
+         * 父注册表中的同名计数器
+         */
+        private final Counter parent;
+
+        private Counter(final Counter parent) {
+            this.parent = parent;
+        }
+
+        /**
+         * 加一
+         */
+        public void increment() {
+            add(1);
+        }
+
+        /**
+         * 累加
+         * @param amount 增量
+         */
+        public void add(final long amount) {
+            value.add(amount);
+            if (Objects.nonNull(parent)) {
+                parent.add(amount);
+            }
+        }
+
+        /**
+         * 当前值
+         * @return long
+         */
+        public long get() {
+            return value.sum();
+        }
+
+        @Override
+        public double[] sample() {
+            return new double[]{value.sum()};
+        }
+    }
+
+    /**
+     * 计时器，导出为 summary（秒）及其最大值
+     */
+    public static final class Timer implements Sampled {
+        /**
+         * 次数
+         */
+        private final LongAdder count = new LongAdder();
+        /**
+         * 累计纳秒
+         */
+        private final LongAdder nanos = new LongAdder();
+        /**
+         * 最大纳秒
+         */
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+        /**
+         * 父注册表中的同名计时器
+         */
+        private final Timer parent;
+
+        private Timer(final Timer parent) {
+            this.parent = parent;
+        }
+
+        /**
+         * 记录一次耗时
+         * @param duration 耗时
+         */
+        public void record(final Duration duration) {
+            final long value = Math.max(0, duration.toNanos());
+            count.increment();
+            nanos.add(value);
+            max.accumulate(value);
+            if (Objects.nonNull(parent)) {
+                parent.record(duration);
+            }
+        }
+
+        /**
+         * 记录自起点到现在的耗时
+         * @param startNanos {@link System#nanoTime()} 起点
+         * @return 耗时
+         */
+        public Duration since(final long startNanos) {
+            final Duration elapsed = Duration.ofNanos(System.nanoTime() - startNanos);
+            record(elapsed);
+            return elapsed;
+        }
+
+        /**
+         * 次数
+         * @return long
+         */
+        public long count() {
+            return count.sum();
+        }
+
+        @Override
+        public double[] sample() {
+            return new double[]{count.sum(), nanos.sum() / 1e9, max.get() / 1e9};
+        }
+    }
+
+    /**
+     * 最慢条目（小顶堆，保留耗时最大的若干条）
+     */
+    private static final class Slowest {
+        /**
+         * 条目
+         */
+        private final PriorityQueue<Map.Entry<String, Long>> heap = new PriorityQueue<>(Map.Entry.comparingByValue());
+
+        private synchronized void offer(final String key, final long nanos) {
+            heap.offer(Map.entry(key, nanos));
+            if (heap.size() > SLOWEST) {
+                heap.poll();
+            }
+        }
+
+        private synchronized JSONArray toJson() {
+            return new JSONArray(heap.stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                    .map(e -> JSONUtil.createObj().set("key", e.getKey()).set("seconds", e.getValue() / 1e9))
+                    .toList());
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package cloud.dbug.pack2server.common.runner;
+
+import cloud.dbug.pack2server.common.ServerWorkspace;
+import cloud.dbug.pack2server.common.fetcher.JavaDiscovery;
+import cloud.dbug.pack2server.common.log.Log;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.HexUtil;
+import lombok.SneakyThrows;
+import lombok.experimental.UtilityClass;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * 动态 AppCDS 归档
+ * <p>首次运行以 {@code -XX:ArchiveClassesAtExit} 记录已加载类，后续启动以 {@code -XX:SharedArchiveFile} 复用；
+ * 归档与模组清单、加载器及 JRE 的指纹绑定，任一变化即失效。</p>
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+@UtilityClass
+public class AppCds {
+    /**
+     * 归档目录
+     */
+    public static final String DIR = ".cds";
+    /**
+     * 归档文件
+     */
+    private static final String ARCHIVE = "server.jsa";
+    /**
+     * 指纹文件
+     */
+    private static final String STAMP = "fingerprint";
+    /**
+     * 动态归档所需最低主版本
+     */
+    private static final int MIN_MAJOR = 13;
+
+    /**
+     * 运行时是否支持动态归档
+     * @param jreHome 运行时根目录
+     * @return boolean
+     */
+    public static boolean supported(final Path jreHome) {
+        return JavaDiscovery.readMajor(jreHome).orElse(0) >= MIN_MAJOR;
+    }
+
+    /**
+     * 生成归档所需参数，并清除旧归档
+     * @param workDirectory 服务目录
+     * @param jreHome       运行时根目录
+     * @return 额外 JVM 参数
+     */
+    public static List<String> dumpFlags(final Path workDirectory, final Path jreHome) {
+        if (!supported(jreHome)) {
+            Log.info("[CDS] 运行时不支持动态归档，跳过 | jre={}", jreHome);
+            return List.of();
+        }
+        final Path dir = workDirectory.resolve(DIR);
+        FileUtil.del(dir.toFile());
+        ServerWorkspace.ensure(dir, Boolean.FALSE, null);
+        return List.of("-XX:ArchiveClassesAtExit=" + dir.resolve(ARCHIVE).toAbsolutePath().normalize());
+    }
+
+    /**
+     * 归档生成后写入指纹，使其生效
+     * @param workDirectory 服务目录
+     * @param jreHome       运行时根目录
+     * @param loaderJar     加载器文件名
+     * @return 归档是否可用
+     */
+    public static boolean commit(final Path workDirectory, final Path jreHome, final String loaderJar) {
+        final Path archive = workDirectory.resolve(DIR).resolve(ARCHIVE);
+        if (!Files.isRegularFile(archive)) return Boolean.FALSE;
+        FileUtil.writeUtf8String(fingerprint(workDirectory, jreHome, loaderJar), workDirectory.resolve(DIR).resolve(STAMP).toFile());
+        Log.info("[CDS] 归档已生成 | file={} size={}", archive, FileUtil.size(archive.toFile()));
+        return Boolean.TRUE;
+    }
+
+    /**
+     * 使用归档所需参数；归档缺失或指纹不符时为空
+     * @param workDirectory 服务目录
+     * @param jreHome       运行时根目录
+     * @param loaderJar     加载器文件名
+     * @return 额外 JVM 参数
+     */
+    public static List<String> useFlags(final Path workDirectory, final Path jreHome, final String loaderJar) {
+        final Path archive = workDirectory.resolve(DIR).resolve(ARCHIVE);
+        final Path stamp = workDirectory.resolve(DIR).resolve(STAMP);
+        if (!Files.isRegularFile(archive) || !Files.isRegularFile(stamp)) return List.of();
+        if (!Objects.equals(FileUtil.readUtf8String(stamp.toFile()), fingerprint(workDirectory, jreHome, loaderJar))) {
+            Log.info("[CDS] 模组或运行时已变化，归档失效 | file={}", archive);
+            return List.of();
+        }
+        return List.of("-XX:SharedArchiveFile=" + archive.toAbsolutePath().normalize());
+    }
+
+    /**
+     * 指纹：JRE 发行信息 + 加载器 + 模组清单（名称/大小/修改时间）
+     * @param workDirectory 服务目录
+     * @param jreHome       运行时根目录
+     * @param loaderJar     加载器文件名
+     * @return 小写十六进制
+     */
+    @SneakyThrows
+    static String fingerprint(final Path workDirectory, final Path jreHome, final String loaderJar) {
+        final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        final Path release = jreHome.resolve("release");
+        digest.update(Files.isRegularFile(release) ? Files.readAllBytes(release) : jreHome.toString().getBytes(StandardCharsets.UTF_8));
+        final Path loader = workDirectory.resolve(loaderJar);
+        digest.update("%s|%d".formatted(loaderJar, Files.isRegularFile(loader) ? Files.size(loader) : -1).getBytes(StandardCharsets.UTF_8));
+        final Path mods = workDirectory.resolve(ServerWorkspace.MOD);
+        if (Files.isDirectory(mods)) {
+            try (final Stream<Path> files = Files.list(mods)) {
+                for (final Path file : files.filter(Files::isRegularFile).sorted(Comparator.comparing(Path::toString)).toList()) {
+                    final BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                    digest.update("\n%s|%d|%d".formatted(file.getFileName(), attrs.size(), attrs.lastModifiedTime().toMillis()).getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return HexUtil.encodeHexStr(digest.digest());
+    }
+}
@@ -0,0 +1,154 @@
+package cloud.dbug.pack2server.common.runner;
+
+import cloud.dbug.pack2server.common.log.Log;
+import cloud.dbug.pack2server.common.runner.enums.WarmupStatus;
+import lombok.SneakyThrows;
+import lombok.experimental.UtilityClass;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 首次运行预热器
+ * <p>异步读取服务日志识别就绪（{@code Done (}）或失败，就绪后经标准输入发送 {@code stop} 正常关闭，
+ * 并记录就绪耗时；输出读尽后才判定为自行退出。停止所需的宽限期计入硬超时，保证转换流程按时结束。</p>
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+@UtilityClass
+public class WarmupRunner {
+    /**
+     * 就绪标志
+     */
+    private static final String READY_MARKER = "Done (";
+    /**
+     * 失败标志
+     */
+    private static final List<String> FAILURE_MARKERS = List.of(
+            "Failed to start the minecraft server",
+            "Exception in server tick loop",
+            "This crash report has been saved to",
+            "Encountered an unexpected exception",
+            "You need to agree to the EULA"
+    );
+    /**
+     * 发送 stop 后等待正常退出的时间
+     */
+    private static final Duration STOP_GRACE = Duration.ofSeconds(90);
+    /**
+     * 进程退出后等待输出读尽的时间（子进程可能仍持有输出流）
+     */
+    private static final Duration OUTPUT_DRAIN = Duration.ofSeconds(1);
+    /**
+     * destroy 后等待退出的时间，从停止宽限期中划出
+     */
+    private static final Duration KILL_GRACE = Duration.ofSeconds(10);
+
+    /**
+     * 运行至就绪后停止
+     * @param command       启动命令
+     * @param workDirectory 工作目录
+     * @param timeout       硬超时
+     * @return {@link Result }
+     */
+    public static Result run(final List<String> command, final Path workDirectory, final Duration timeout) {
+        return run(command, workDirectory, timeout, STOP_GRACE);
+    }
+
+    /**
+     * 运行至就绪后停止
+     * @param command       启动命令
+     * @param workDirectory 工作目录
+     * @param timeout       硬超时，含停止宽限期
+     * @param stopGrace     发送 stop 后等待正常退出的时间，至多占硬超时的一半
+     * @return {@link Result }
+     */
+    @SneakyThrows
+    public static Result run(final List<String> command, final Path workDirectory, final Duration timeout, final Duration stopGrace) {
+        final Instant start = Instant.now();
+        final Duration grace = stopGrace.compareTo(timeout.dividedBy(2)) > 0 ? timeout.dividedBy(2) : stopGrace;
+        final Process process = new ProcessBuilder(command)
+                .directory(workDirectory.toFile())
+                .redirectErrorStream(Boolean.TRUE)
+                .start();
+        final CompletableFuture<WarmupStatus> outcome = new CompletableFuture<>();
+        final CompletableFuture<Instant> readyAt = new CompletableFuture<>();
+        final Thread output = Thread.ofVirtual().name("warmup-log").start(() -> {
+            try (final BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    Log.detail(line);
+                    if (!readyAt.isDone() && line.contains(READY_MARKER)) {
+                        readyAt.complete(Instant.now());
+                        outcome.complete(WarmupStatus.READY);
+                    } else if (FAILURE_MARKERS.stream().anyMatch(line::contains)) {
+                        outcome.complete(WarmupStatus.FAILED);
+                    }
+                }
+            } catch (final Exception ignore) {
+                // 进程被终止时流会关闭
+            }
+        });
+        process.onExit().thenRun(() -> {
+            // 先等输出读尽再判定退出，避免漏判最后几行的就绪或失败标志
+            try {
+                output.join(OUTPUT_DRAIN);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            outcome.complete(WarmupStatus.EXITED);
+        });
+        WarmupStatus status;
+        try {
+            status = outcome.get(timeout.minus(grace).toMillis(), TimeUnit.MILLISECONDS);
+        } catch (final TimeoutException e) {
+            status = WarmupStatus.TIMEOUT;
+        }
+        stop(process, grace);
+        output.join(OUTPUT_DRAIN);
+        final Duration timeToReady = readyAt.isDone() ? Duration.between(start, readyAt.join()) : null;
+        final Result result = new Result(status, timeToReady, Duration.between(start, Instant.now()), process.exitValue());
+        Log.info("[WARMUP] 首次运行结束 | status={} ready={} total={} exit={}", result.status(), result.timeToReady(), result.total(), result.exitCode());
+        return result;
+    }
+
+    /**
+     * 停止进程：先发送 stop，再 destroy，宽限期用尽后强制终止
+     * @param process   进程
+     * @param stopGrace 停止宽限期，其中末段留给 destroy
+     */
+    private static void stop(final Process process, final Duration stopGrace) throws InterruptedException {
+        final Duration kill = KILL_GRACE.compareTo(stopGrace.dividedBy(2)) > 0 ? stopGrace.dividedBy(2) : KILL_GRACE;
+        if (!process.isAlive()) return;
+        try {
+            final OutputStream stdin = process.getOutputStream();
+            stdin.write("stop\n".getBytes(StandardCharsets.UTF_8));
+            stdin.flush();
+        } catch (final Exception ignore) {
+            // 标准输入已关闭
+        }
+        if (process.waitFor(stopGrace.minus(kill).toMillis(), TimeUnit.MILLISECONDS)) return;
+        process.destroy();
+        if (process.waitFor(kill.toMillis(), TimeUnit.MILLISECONDS)) return;
+        process.destroyForcibly().waitFor();
+    }
+
+    /**
+     * 预热结果
+     * @param status      状态
+     * @param timeToReady 就绪耗时；未就绪为 {@code null}
+     * @param total       总耗时
+     * @param exitCode    退出码
+     */
+    public record Result(WarmupStatus status, Duration timeToReady, Duration total, int exitCode) {
+    }
+}
@@ -0,0 +1,25 @@
+package cloud.dbug.pack2server.common.runner.enums;
+
+/**
+ * 首次运行结果
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public enum WarmupStatus {
+    /**
+     * 服务已就绪并正常停止
+     */
+    READY,
+    /**
+     * 日志出现启动失败标志
+     */
+    FAILED,
+    /**
+     * 就绪前进程自行退出
+     */
+    EXITED,
+    /**
+     * 超时后被强制终止
+     */
+    TIMEOUT
+}
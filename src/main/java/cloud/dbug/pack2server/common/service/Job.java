@@ -0,0 +1,213 @@
+package cloud.dbug.pack2server.common.service;
+
+import cloud.dbug.pack2server.common.service.enums.JobStatus;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Future;
+
+/**
+ * 转换任务
+ * <p>进度事件按序追加，流式订阅方经 {@link #await(int, Duration)} 增量读取。</p>
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+@Getter
+public final class Job {
+    /**
+     * 任务 ID
+     */
+    private final long id;
+    /**
+     * 任务请求
+     */
+    private final Request request;
+    /**
+     * 提交时间
+     */
+    private final Instant submitted = Instant.now();
+    /**
+     * 开始时间
+     */
+    private volatile Instant started;
+    /**
+     * 结束时间
+     */
+    private volatile Instant finished;
+    /**
+     * 状态
+     */
+    private volatile JobStatus status = JobStatus.QUEUED;
+    /**
+     * 失败原因
+     */
+    private volatile String error;
+    /**
+     * 是否已请求取消
+     */
+    private volatile boolean cancelRequested;
+    /**
+     * 进度事件
+     */
+    @Getter(AccessLevel.NONE)
+    private final List<String> events = new ArrayList<>();
+    /**
+     * 执行句柄
+     */
+    @Getter(AccessLevel.NONE)
+    volatile Future<?> future;
+
+    Job(final long id, final Request request) {
+        this.id = id;
+        this.request = request;
+    }
+
+    /**
+     * 追加进度事件
+     * @param message 事件
+     */
+    public synchronized void event(final String message) {
+        events.add(message);
+        notifyAll();
+    }
+
+    /**
+     * 记录失败原因
+     * @param message 原因
+     */
+    public void fail(final String message) {
+        this.error = message;
+        event("error=%s".formatted(message));
+    }
+
+    /**
+     * 等待自 {@code from} 起的新事件，任务结束或超时后返回已有部分
+     * @param from    起始下标
+     * @param timeout 最长等待
+     * @return {@link List }<{@link String }>
+     * @throws InterruptedException 等待被中断
+     */
+    public synchronized List<String> await(final int from, final Duration timeout) throws InterruptedException {
+        final long deadline = System.nanoTime() + timeout.toNanos();
+        long remaining = timeout.toNanos();
+        while (events.size() <= from && !status.terminal() && remaining > 0) {
+            wait(Math.max(1, remaining / 1_000_000));
+            remaining = deadline - System.nanoTime();
+        }
+        return List.copyOf(events.subList(Math.min(from, events.size()), events.size()));
+    }
+
+    /**
+     * 排队转为执行
+     * @return 是否成功（已取消的任务返回 false）
+     */
+    synchronized boolean start() {
+        if (status != JobStatus.QUEUED || cancelRequested) {
+            return Boolean.FALSE;
+        }
+        this.started = Instant.now();
+        transit(JobStatus.RUNNING);
+        return Boolean.TRUE;
+    }
+
+    /**
+     * 请求取消
+     * @return 取消前的状态
+     */
+    synchronized JobStatus cancel() {
+        final JobStatus before = status;
+        if (!before.terminal()) {
+            this.cancelRequested = Boolean.TRUE;
+        }
+        return before;
+    }
+
+    /**
+     * 进入终态
+     * @param terminal 终态
+     * @param record   对外可见终态前执行（计入指标）
+     * @return 是否由本次调用进入终态
+     */
+    synchronized boolean finish(final JobStatus terminal, final Runnable record) {
+        if (status.terminal()) {
+            return Boolean.FALSE;
+        }
+        this.finished = Instant.now();
+        record.run();
+        transit(terminal);
+        return Boolean.TRUE;
+    }
+
+    /**
+     * 状态迁移并推送事件
+     * @param next 新状态
+     */
+    private void transit(final JobStatus next) {
+        this.status = next;
+        event("status=%s".formatted(next));
+    }
+
+    /**
+     * 排队耗时
+     * @return {@link Duration }
+     */
+    public Duration waited() {
+        return Duration.between(submitted, Objects.requireNonNullElseGet(started, () -> Objects.requireNonNullElseGet(finished, Instant::now)));
+    }
+
+    /**
+     * 执行耗时
+     * @return {@link Duration }
+     */
+    public Duration elapsed() {
+        return Objects.isNull(started) ? Duration.ZERO : Duration.between(started, Objects.requireNonNullElseGet(finished, Instant::now));
+    }
+
+    /**
+     * 转为 JSON
+     * @return {@link JSONObject }
+     */
+    public synchronized JSONObject toJson() {
+        return JSONUtil.createObj()
+                .set("id", id)
+                .set("status", status)
+                .set("source", request.source())
+                .set("output", request.output().toString())
+                .set("submitted", submitted.toString())
+                .set("started", Objects.toString(started, null))
+                .set("finished", Objects.toString(finished, null))
+                .set("waitedMs", waited().toMillis())
+                .set("elapsedMs", elapsed().toMillis())
+                .set("events", events.size())
+                .set("error", error);
+    }
+
+    /**
+     * 任务请求
+     * @param source 整合包地址或本地路径
+     * @param output 输出目录
+     * @param extra  附加的 convert 参数
+     */
+    public record Request(String source, Path output, List<String> extra) {
+        /**
+         * 转换为 convert 命令行参数
+         * @return {@link String }[]
+         */
+        public String[] arguments() {
+            final List<String> args = new ArrayList<>(List.of(
+                    StrUtil.startWithAnyIgnoreCase(source, "http://", "https://") ? "-u" : "-z", source, "-o", output.toString()
+            ));
+            args.addAll(extra);
+            return args.toArray(String[]::new);
+        }
+    }
+}
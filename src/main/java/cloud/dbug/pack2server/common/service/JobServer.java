@@ -0,0 +1,340 @@
+package cloud.dbug.pack2server.common.service;
+
+import cloud.dbug.pack2server.common.log.Log;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 转换服务的 HTTP 接口，基于 JDK 内置 {@link HttpServer}
+ * <ul>
+ *     <li>{@code POST /jobs} 提交任务，输出目录被未结束的任务占用返回 409，队列已满返回 429</li>
+ *     <li>{@code GET /jobs}、{@code GET /jobs/{id}} 查询状态</li>
+ *     <li>{@code DELETE /jobs/{id}} 取消任务</li>
+ *     <li>{@code GET /jobs/{id}/events} 以 Server-Sent Events 推送进度直至任务结束</li>
+ *     <li>{@code GET /metrics} Prometheus 文本格式指标</li>
+ * </ul>
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public final class JobServer implements AutoCloseable {
+    /**
+     * 任务路径
+     */
+    private static final Pattern JOB_PATH = Pattern.compile("^/jobs(?:/(\\d+)(/events)?)?/?$");
+    /**
+     * 任务可附带的 convert 开关；路径类（{@code --metrics-file}、{@code --jfr}）与凭据类（{@code -k}）选项一律拒绝
+     */
+    private static final Set<String> ALLOWED_FLAGS = Set.of(
+            "-f", "--force", "--staged", "--download-jre", "--jlink", "--jlink-cds", "--cds",
+            "--warmup-strict", "--no-warmup-strict", "--pretouch", "--large-pages"
+    );
+    /**
+     * 任务可附带的带值 convert 选项
+     */
+    private static final Set<String> ALLOWED_OPTIONS = Set.of("--jre-link", "--warmup-timeout", "--profile");
+    /**
+     * 选项值格式（枚举名或数字）
+     */
+    private static final Pattern OPTION_VALUE = Pattern.compile("^[\\w.-]+$");
+    /**
+     * 事件流心跳间隔
+     */
+    private static final Duration HEARTBEAT = Duration.ofSeconds(15);
+    /**
+     * HTTP 服务
+     */
+    private final HttpServer server;
+    /**
+     * 任务队列
+     */
+    private final JobService service;
+    /**
+     * 输出目录根，任务输出必须位于其下
+     */
+    private final Path root;
+
+    /**
+     * 创建并启动服务
+     * @param address 监听地址
+     * @param service 任务队列
+     * @param root    输出目录根
+     * @throws IOException 端口绑定失败
+     */
+    public JobServer(final InetSocketAddress address, final JobService service, final Path root) throws IOException {
+        this.service = service;
+        this.root = root.toAbsolutePath().normalize();
+        this.server = HttpServer.create(address, 0);
+        this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        this.server.createContext("/jobs", this::jobs);
+        this.server.createContext("/metrics", this::metrics);
+        this.server.start();
+        Log.info("[SERVE] 服务已启动 | address={} root={}", address(), this.root);
+    }
+
+    /**
+     * 实际监听地址
+     * @return {@link InetSocketAddress }
+     */
+    public InetSocketAddress address() {
+        return server.getAddress();
+    }
+
+    /**
+     * 任务接口路由
+     * @param exchange 请求
+     */
+    private void jobs(final HttpExchange exchange) throws IOException {
+        try (exchange) {
+            final Matcher matcher = JOB_PATH.matcher(exchange.getRequestURI().getPath());
+            if (!matcher.matches()) {
+                send(exchange, HttpURLConnection.HTTP_NOT_FOUND, error("not found"));
+                return;
+            }
+            final String method = exchange.getRequestMethod();
+            if (Objects.isNull(matcher.group(1))) {
+                switch (method) {
+                    case "POST" -> submit(exchange);
+                    case "GET" -> send(exchange, HttpURLConnection.HTTP_OK,
+                            new JSONArray(service.list().stream().map(Job::toJson).toList()).toString());
+                    default -> send(exchange, HttpURLConnection.HTTP_BAD_METHOD, error("method not allowed"));
+                }
+                return;
+            }
+            final Optional<Job> job = id(matcher.group(1)).flatMap(service::get);
+            if (job.isEmpty()) {
+                send(exchange, HttpURLConnection.HTTP_NOT_FOUND, error("job not found"));
+            } else if (Objects.nonNull(matcher.group(2)) && "GET".equals(method)) {
+                stream(exchange, job.get());
+            } else if (Objects.isNull(matcher.group(2)) && "GET".equals(method)) {
+                send(exchange, HttpURLConnection.HTTP_OK, job.get().toJson().toString());
+            } else if (Objects.isNull(matcher.group(2)) && "DELETE".equals(method)) {
+                service.cancel(job.get().getId());
+                send(exchange, HttpURLConnection.HTTP_ACCEPTED, job.get().toJson().toString());
+            } else {
+                send(exchange, HttpURLConnection.HTTP_BAD_METHOD, error("method not allowed"));
+            }
+        } catch (final Exception e) {
+            Log.error("[SERVE] 请求处理失败 | uri={} err={}", exchange.getRequestURI(), e.getMessage());
+            // 尚未发送响应头时告知客户端，已开始的事件流只能直接断开
+            if (exchange.getResponseCode() < 0) {
+                send(exchange, HttpURLConnection.HTTP_INTERNAL_ERROR, error("internal error"));
+            }
+        }
+    }
+
+    /**
+     * 解析任务 ID
+     * @param text 路径中的 ID
+     * @return 超出 {@code long} 范围时为空
+     */
+    private static Optional<Long> id(final String text) {
+        try {
+            return Optional.of(Long.parseLong(text));
+        } catch (final NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * 提交任务：{@code {"url"|"zip": "...", "output": "相对根目录的路径", "args": ["--cds"]}}
+     * <p>{@code zip} 与 {@code output} 均相对输出目录根解析且不得越出；{@code args} 仅接受调优类选项。</p>
+     * @param exchange 请求
+     */
+    private void submit(final HttpExchange exchange) throws IOException {
+        final JSONObject body;
+        try {
+            body = JSONUtil.parseObj(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+        } catch (final Exception e) {
+            send(exchange, HttpURLConnection.HTTP_BAD_REQUEST, error("invalid json"));
+            return;
+        }
+        final String url = body.getStr("url");
+        final String zip = body.getStr("zip");
+        final String output = body.getStr("output");
+        if ((StrUtil.isBlank(url) && StrUtil.isBlank(zip)) || StrUtil.isBlank(output)) {
+            send(exchange, HttpURLConnection.HTTP_BAD_REQUEST, error("url or zip, and output are required"));
+            return;
+        }
+        if (StrUtil.isNotBlank(url) && !StrUtil.startWithAnyIgnoreCase(url, "http://", "https://")) {
+            send(exchange, HttpURLConnection.HTTP_BAD_REQUEST, error("url must be http or https"));
+            return;
+        }
+        final Path pack = StrUtil.isBlank(url) ? root.resolve(zip).normalize() : null;
+        if (Objects.nonNull(pack) && !pack.startsWith(root)) {
+            send(exchange, HttpURLConnection.HTTP_BAD_REQUEST, error("zip must stay inside the service root"));
+            return;
+        }
+        final Path target = root.resolve(output).normalize();
+        if (!target.startsWith(root) || target.equals(root)) {
+            send(exchange, HttpURLConnection.HTTP_BAD_REQUEST, error("output must stay inside the service root"));
+            return;
+        }
+        final List<String> extra;
+        try {
+            extra = arguments(Optional.ofNullable(body.getJSONArray("args")).map(a -> a.toList(String.class)).orElse(List.of()));
+        } catch (final IllegalArgumentException e) {
+            send(exchange, HttpURLConnection.HTTP_BAD_REQUEST, error(e.getMessage()));
+            return;
+        }
+        final String source = Objects.nonNull(pack) ? pack.toString() : url;
+        final Optional<Job> owner;
+        final Optional<Job> job;
+        // 检查与入队须原子进行，避免两个并发提交都通过检查
+        synchronized (this) {
+            owner = owner(target);
+            job = owner.isPresent() ? Optional.empty() : service.submit(new Job.Request(source, target, extra));
+        }
+        if (owner.isPresent()) {
+            send(exchange, HttpURLConnection.HTTP_CONFLICT, error("output is used by job %d".formatted(owner.get().getId())));
+            return;
+        }
+        if (job.isEmpty()) {
+            exchange.getResponseHeaders().set("Retry-After", "30");
+            send(exchange, 429, error("queue is full"));
+            return;
+        }
+        exchange.getResponseHeaders().set("Location", "/jobs/%d".formatted(job.get().getId()));
+        send(exchange, HttpURLConnection.HTTP_ACCEPTED, job.get().toJson().toString());
+    }
+
+    /**
+     * 占用输出目录的未结束任务：目录相同或互相嵌套即视为冲突，避免 {@code -f} 清理其他任务的目录
+     * @param target 输出目录
+     * @return {@link Optional }<{@link Job }>
+     */
+    private Optional<Job> owner(final Path target) {
+        return service.list().stream()
+                .filter(job -> !job.getStatus().terminal())
+                .filter(job -> {
+                    final Path output = job.getRequest().output().toAbsolutePath().normalize();
+                    return output.startsWith(target) || target.startsWith(output);
+                })
+                .findFirst();
+    }
+
+    /**
+     * 校验附加参数：仅放行白名单中的开关与带值选项（支持 {@code --name=value}），值须为枚举名或数字
+     * @param args 附加参数
+     * @return 原样的参数
+     * @throws IllegalArgumentException 出现不允许的选项或值
+     */
+    private static List<String> arguments(final List<String> args) {
+        final List<String> accepted = new ArrayList<>(args.size());
+        for (int i = 0; i < args.size(); i++) {
+            final String arg = Objects.toString(args.get(i), "");
+            final String name = StrUtil.subBefore(arg, "=", false);
+            if (ALLOWED_FLAGS.contains(arg)) {
+                accepted.add(arg);
+                continue;
+            }
+            if (!ALLOWED_OPTIONS.contains(name)) {
+                throw new IllegalArgumentException("option not allowed: %s".formatted(name));
+            }
+            final boolean inline = arg.contains("=");
+            if (!inline && i + 1 >= args.size()) {
+                throw new IllegalArgumentException("option requires a value: %s".formatted(name));
+            }
+            final String value = inline ? StrUtil.subAfter(arg, "=", false) : Objects.toString(args.get(++i), "");
+            if (!OPTION_VALUE.matcher(value).matches()) {
+                throw new IllegalArgumentException("invalid value for %s".formatted(name));
+            }
+            accepted.add(name);
+            accepted.add(value);
+        }
+        return accepted;
+    }
+
+    /**
+     * 以 Server-Sent Events 推送任务事件，任务结束后发送 {@code end} 事件并关闭
+     * @param exchange 请求
+     * @param job      任务
+     */
+    private void stream(final HttpExchange exchange, final Job job) throws IOException, InterruptedException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, 0);
+        final OutputStream out = exchange.getResponseBody();
+        int cursor = 0;
+        while (true) {
+            final List<String> events = job.await(cursor, HEARTBEAT);
+            for (final String event : events) {
+                out.write("data: %s\n\n".formatted(event.replace("\n", "\ndata: ")).getBytes(StandardCharsets.UTF_8));
+            }
+            cursor += events.size();
+            if (events.isEmpty()) {
+                out.write(": keep-alive\n\n".getBytes(StandardCharsets.UTF_8));
+            }
+            out.flush();
+            if (job.getStatus().terminal() && job.await(cursor, Duration.ZERO).isEmpty()) {
+                out.write("event: end\ndata: %s\n\n".formatted(job.getStatus()).getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                return;
+            }
+        }
+    }
+
+    /**
+     * 指标接口
+     * @param exchange 请求
+     */
+    private void metrics(final HttpExchange exchange) throws IOException {
+        try (exchange) {
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            final byte[] bytes = service.metrics().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, bytes.length);
+            exchange.getResponseBody().write(bytes);
+        }
+    }
+
+    /**
+     * 写出 JSON 响应
+     * @param exchange 请求
+     * @param status   状态码
+     * @param json     响应体
+     */
+    private static void send(final HttpExchange exchange, final int status, final String json) throws IOException {
+        final byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    /**
+     * 错误响应体
+     * @param message 原因
+     * @return JSON 文本
+     */
+    private static String error(final String message) {
+        return JSONUtil.createObj().set("error", message).toString();
+    }
+
+    /**
+     * 停止接收请求并关闭任务队列
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        service.close();
+        Log.info("[SERVE] 服务已停止");
+    }
+}
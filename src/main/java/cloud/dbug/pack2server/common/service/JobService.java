@@ -0,0 +1,195 @@
+package cloud.dbug.pack2server.common.service;
+
+import cloud.dbug.pack2server.common.log.Log;
+import cloud.dbug.pack2server.common.metrics.MetricsRegistry;
+import cloud.dbug.pack2server.common.service.enums.JobStatus;
+import cn.hutool.core.util.StrUtil;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToIntFunction;
+
+/**
+ * 常驻转换服务的任务队列
+ * <p>固定数量的工作线程从有界队列取任务，队列满时拒绝提交；任务共用同一个转换器，
+ * HTTP 连接、下载去重结果与机器级缓存在任务间保持热态。队列与任务指标登记在转换器的注册表中，与下载、阶段等指标一并导出。</p>
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public final class JobService implements AutoCloseable {
+    /**
+     * 保留的已结束任务上限
+     */
+    private static final int RETAINED = 256;
+    /**
+     * 执行器
+     */
+    private final ThreadPoolExecutor executor;
+    /**
+     * 任务执行体，返回退出码
+     */
+    private final ToIntFunction<Job> runner;
+    /**
+     * 指标注册表
+     */
+    private final MetricsRegistry metrics;
+    /**
+     * 任务表（按 ID 有序）
+     */
+    private final ConcurrentNavigableMap<Long, Job> jobs = new ConcurrentSkipListMap<>();
+    /**
+     * 任务 ID 序列
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * 创建服务
+     * @param workers   并发执行的任务数
+     * @param capacity  排队上限
+     * @param metrics   指标注册表
+     * @param runner    任务执行体
+     */
+    public JobService(final int workers, final int capacity, final MetricsRegistry metrics, final ToIntFunction<Job> runner) {
+        this.runner = runner;
+        this.metrics = metrics;
+        this.executor = new ThreadPoolExecutor(Math.max(1, workers), Math.max(1, workers), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, capacity)), Thread.ofVirtual().name("p2s-job-", 1).factory());
+        Arrays.stream(JobStatus.values()).filter(JobStatus::terminal).forEach(this::finished);
+        metrics.gauge("p2s_queue_depth", "Jobs waiting in the queue", () -> executor.getQueue().size());
+        metrics.gauge("p2s_jobs_running", "Jobs currently running", executor::getActiveCount);
+    }
+
+    /**
+     * 提交任务
+     * @param request 任务请求
+     * @return 队列已满时为空
+     */
+    public Optional<Job> submit(final Job.Request request) {
+        final Job job = new Job(sequence.incrementAndGet(), request);
+        try {
+            job.future = executor.submit(() -> execute(job));
+        } catch (final RejectedExecutionException e) {
+            metrics.counter("p2s_jobs_rejected_total", "Submissions rejected because the queue was full").increment();
+            return Optional.empty();
+        }
+        jobs.put(job.getId(), job);
+        Log.info("[SERVE] 任务已入队 | id={} source={} queue={}", job.getId(), request.source(), executor.getQueue().size());
+        evict();
+        return Optional.of(job);
+    }
+
+    /**
+     * 查询任务
+     * @param id 任务 ID
+     * @return {@link Optional }<{@link Job }>
+     */
+    public Optional<Job> get(final long id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    /**
+     * 全部任务（按提交顺序）
+     * @return {@link List }<{@link Job }>
+     */
+    public List<Job> list() {
+        return List.copyOf(jobs.values());
+    }
+
+    /**
+     * 取消任务：排队中的直接移出队列，执行中的中断其执行线程
+     * @param id 任务 ID
+     * @return {@link Optional }<{@link Job }>
+     */
+    public Optional<Job> cancel(final long id) {
+        return get(id).map(job -> {
+            final JobStatus before = job.cancel();
+            if (before == JobStatus.QUEUED && executor.remove((Runnable) job.future)) {
+                finish(job, JobStatus.CANCELLED);
+            } else if (!before.terminal()) {
+                job.future.cancel(Boolean.TRUE);
+            }
+            return job;
+        });
+    }
+
+    /**
+     * 执行任务
+     * @param job 任务
+     */
+    private void execute(final Job job) {
+        if (!job.start()) {
+            // 出队前已请求取消
+            finish(job, JobStatus.CANCELLED);
+            return;
+        }
+        Log.info("[SERVE] 任务开始 | id={} waited={}", job.getId(), job.waited());
+        int exitCode;
+        try {
+            exitCode = runner.applyAsInt(job);
+        } catch (final Exception e) {
+            job.fail(StrUtil.blankToDefault(e.getMessage(), e.getClass().getSimpleName()));
+            exitCode = 1;
+        }
+        // 清除取消遗留的中断标记，不影响复用的工作线程
+        Thread.interrupted();
+        finish(job, job.isCancelRequested() ? JobStatus.CANCELLED : exitCode == 0 ? JobStatus.DONE : JobStatus.FAILED);
+    }
+
+    /**
+     * 任务进入终态并计入指标
+     * @param job      任务
+     * @param terminal 终态
+     */
+    private void finish(final Job job, final JobStatus terminal) {
+        // 先计入指标再公开终态，观察到终态时指标已更新
+        if (!job.finish(terminal, () -> {
+            finished(terminal).increment();
+            metrics.timer("p2s_job_wait_seconds", "Time jobs spent queued").record(job.waited());
+            metrics.timer("p2s_job_duration_seconds", "Time jobs spent running").record(job.elapsed());
+        })) {
+            return;
+        }
+        Log.info("[SERVE] 任务结束 | id={} status={} elapsed={}", job.getId(), job.getStatus(), job.elapsed());
+    }
+
+    /**
+     * 超出保留上限时移除最早的已结束任务
+     */
+    private void evict() {
+        final List<Long> done = jobs.values().stream().filter(j -> j.getStatus().terminal()).map(Job::getId).toList();
+        done.stream().limit(Math.max(0, done.size() - RETAINED)).forEach(jobs::remove);
+    }
+
+    /**
+     * 终态计数器
+     * @param status 终态
+     * @return {@link MetricsRegistry.Counter }
+     */
+    private MetricsRegistry.Counter finished(final JobStatus status) {
+        return metrics.counter("p2s_jobs_finished_total", "Jobs finished by terminal status", "status", status.name());
+    }
+
+    /**
+     * 以 Prometheus 文本格式输出指标
+     * @return 指标文本
+     */
+    public String metrics() {
+        return metrics.prometheus();
+    }
+
+    /**
+     * 停止服务：不再接收任务，中断执行中的任务并等待其退出
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        jobs.values().stream().filter(j -> j.getStatus() == JobStatus.QUEUED).forEach(j -> finish(j, JobStatus.CANCELLED));
+        try {
+            executor.awaitTermination(Duration.ofMinutes(1).toMillis(), TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package cloud.dbug.pack2server.common.service.enums;
+
+/**
+ * 转换任务状态
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public enum JobStatus {
+    /**
+     * 排队中
+     */
+    QUEUED,
+    /**
+     * 执行中
+     */
+    RUNNING,
+    /**
+     * 已完成
+     */
+    DONE,
+    /**
+     * 执行失败
+     */
+    FAILED,
+    /**
+     * 已取消
+     */
+    CANCELLED;
+
+    /**
+     * 是否为终态
+     * @return boolean
+     */
+    public boolean terminal() {
+        return this != QUEUED && this != RUNNING;
+    }
+}
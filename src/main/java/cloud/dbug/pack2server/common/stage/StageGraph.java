@@ -0,0 +1,246 @@
+package cloud.dbug.pack2server.common.stage;
+
+import cloud.dbug.pack2server.common.flight.StageEvent;
+import cloud.dbug.pack2server.common.log.Log;
+import cloud.dbug.pack2server.common.metrics.MetricsRegistry;
+import cloud.dbug.pack2server.common.stage.enums.StageStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 阶段依赖图执行器
+ * <p>阶段声明依赖后在虚拟线程上并发执行；依赖失败的阶段不再执行而标记为取消。
+ * 全部结束后输出各阶段耗时与关键路径，并将已执行阶段的耗时记入指标注册表；每个阶段同时提交一条 {@link StageEvent}。</p>
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public final class StageGraph {
+    /**
+     * 执行器
+     */
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    /**
+     * 启动信号
+     */
+    private final CompletableFuture<Instant> trigger = new CompletableFuture<>();
+    /**
+     * 已声明阶段（按声明顺序）
+     */
+    private final List<Stage<?>> stages = new ArrayList<>();
+    /**
+     * 指标注册表
+     */
+    private final MetricsRegistry metrics;
+
+    public StageGraph() {
+        this(new MetricsRegistry());
+    }
+
+    /**
+     * 创建依赖图
+     * @param metrics 阶段耗时记入的注册表
+     */
+    public StageGraph(final MetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * 声明阶段
+     * @param name      名称
+     * @param body      执行体
+     * @param dependsOn 依赖阶段
+     * @return {@link Stage }<{@link T }>
+     */
+    public <T> Stage<T> add(final String name, final Callable<T> body, final Stage<?>... dependsOn) {
+        final Stage<T> stage = new Stage<>(name, List.of(dependsOn));
+        final CompletableFuture<?>[] upstream = Stream.concat(Stream.of(trigger), stage.dependsOn.stream().map(s -> s.future))
+                .toArray(CompletableFuture[]::new);
+        stage.future = CompletableFuture.allOf(upstream).thenApplyAsync(_ -> stage.execute(body), executor);
+        stages.add(stage);
+        return stage;
+    }
+
+    /**
+     * 执行全部阶段并等待结束，首个失败阶段的异常原样抛出
+     * <p>等待期间被中断时中断全部运行中的阶段，未开始的阶段标记为取消，并抛出 {@link InterruptedException}。</p>
+     * @throws Exception 阶段异常
+     */
+    public void run() throws Exception {
+        final Instant origin = Instant.now();
+        boolean interrupted = Boolean.FALSE;
+        try (executor) {
+            trigger.complete(origin);
+            try {
+                CompletableFuture.allOf(stages.stream().map(s -> s.future).toArray(CompletableFuture[]::new))
+                        .exceptionally(_ -> null).get();
+            } catch (final InterruptedException e) {
+                interrupted = Boolean.TRUE;
+                executor.shutdownNow();
+            }
+        }
+        // 未开始执行的阶段均因依赖失败（或中断）而取消
+        stages.stream().filter(s -> s.status == StageStatus.PENDING).forEach(s -> s.status = StageStatus.CANCELLED);
+        stages.stream().filter(s -> Objects.nonNull(s.begin) && Objects.nonNull(s.end))
+                .forEach(s -> metrics.timer("p2s_stage_seconds", "Conversion stage run time", "stage", s.name, "status", s.status.name()).record(s.elapsed()));
+        Log.info(report(origin));
+        if (interrupted) {
+            throw new InterruptedException("阶段执行被中断");
+        }
+        final Optional<Stage<?>> failed = stages.stream()
+                .filter(s -> s.status == StageStatus.FAILED)
+                .min(Comparator.comparing(s -> s.end));
+        if (failed.isPresent()) throw failed.get().error;
+    }
+
+    /**
+     * 已声明阶段
+     * @return {@link List }<{@link Stage }<?>>
+     */
+    public List<Stage<?>> stages() {
+        return List.copyOf(stages);
+    }
+
+    /**
+     * 关键路径：自最晚结束的阶段起，沿最晚结束的依赖回溯
+     * @return {@link List }<{@link Stage }<?>>
+     */
+    public List<Stage<?>> criticalPath() {
+        final LinkedList<Stage<?>> path = new LinkedList<>();
+        Optional<Stage<?>> cursor = latest(stages);
+        while (cursor.isPresent()) {
+            path.addFirst(cursor.get());
+            cursor = latest(cursor.get().dependsOn);
+        }
+        return path;
+    }
+
+    /**
+     * 输出报告
+     * @param origin 起点
+     * @return 报告文本
+     */
+    private String report(final Instant origin) {
+        final StringBuilder report = new StringBuilder("[STAGE] 阶段耗时");
+        for (final Stage<?> stage : stages) {
+            report.append("\n  %-10s %-9s 开始=+%s 耗时=%s".formatted(stage.name, stage.status,
+                    stage.begin == null ? "-" : Duration.between(origin, stage.begin), stage.elapsed()));
+        }
+        final List<Stage<?>> path = criticalPath();
+        report.append("\n[STAGE] 关键路径 ").append(path.stream()
+                .map(s -> "%s(%s)".formatted(s.name, s.elapsed()))
+                .collect(Collectors.joining(" -> ")));
+        path.stream().reduce((_, last) -> last).ifPresent(last -> report.append(" | 总耗时=").append(Duration.between(origin, last.end)));
+        return report.toString();
+    }
+
+    /**
+     * 已执行阶段中最晚结束者
+     * @param candidates 候选
+     * @return {@link Optional }<{@link Stage }<?>>
+     */
+    private static Optional<Stage<?>> latest(final List<Stage<?>> candidates) {
+        return candidates.stream().filter(s -> s.end != null).max(Comparator.comparing(s -> s.end));
+    }
+
+    /**
+     * 阶段
+     * @author 拒绝者
+     * @date 2026-10-18
+     */
+    public static final class Stage<T> {
+        /**
+         * 名称
+         */
+        private final String name;
+        /**
+         * 依赖
+         */
+        private final List<Stage<?>> dependsOn;
+        /**
+         * 结果
+         */
+        private CompletableFuture<T> future;
+        /**
+         * 状态
+         */
+        private volatile StageStatus status = StageStatus.PENDING;
+        /**
+         * 开始时间
+         */
+        private volatile Instant begin;
+        /**
+         * 结束时间
+         */
+        private volatile Instant end;
+        /**
+         * 失败原因
+         */
+        private volatile Exception error;
+
+        private Stage(final String name, final List<Stage<?>> dependsOn) {
+            this.name = name;
+            this.dependsOn = dependsOn;
+        }
+
+        /**
+         * 执行并记录状态
+         * @param body 执行体
+         * @return {@link T }
+         */
+        private T execute(final Callable<T> body) {
+            final StageEvent event = new StageEvent();
+            event.begin();
+            this.begin = Instant.now();
+            this.status = StageStatus.RUNNING;
+            try {
+                final T value = body.call();
+                this.status = StageStatus.DONE;
+                return value;
+            } catch (final Exception e) {
+                this.error = e;
+                this.status = StageStatus.FAILED;
+                throw new CompletionException(e);
+            } finally {
+                this.end = Instant.now();
+                event.finish(name, status.name());
+            }
+        }
+
+        /**
+         * 取结果；仅在依赖本阶段的阶段内或图执行结束后调用
+         * @return {@link T }
+         */
+        public T get() {
+            return future.join();
+        }
+
+        /**
+         * 名称
+         * @return {@link String }
+         */
+        public String name() {
+            return name;
+        }
+
+        /**
+         * 状态
+         * @return {@link StageStatus }
+         */
+        public StageStatus status() {
+            return status;
+        }
+
+        /**
+         * 耗时
+         * @return {@link Duration }，未执行时为 {@link Duration#ZERO}
+         */
+        public Duration elapsed() {
+            return begin == null || end == null ? Duration.ZERO : Duration.between(begin, end);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package cloud.dbug.pack2server.common.stage;
+
+import cloud.dbug.pack2server.common.log.Log;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.HexUtil;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import lombok.SneakyThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 阶段日志
+ * <p>在输出目录记录已完成阶段的输入指纹与结果；重新运行时，指纹未变且结果仍有效的阶段直接复用结果，
+ * 从首个未完成的阶段继续。</p>
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public final class StageJournal {
+    /**
+     * 文件名
+     */
+    public static final String NAME = ".pack2server.journal.json";
+    /**
+     * 日志文件
+     */
+    private final Path file;
+    /**
+     * 阶段 -> {fingerprint, result}
+     */
+    private final Map<String, JSONObject> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 打开输出目录中的阶段日志，不存在或损坏时从空白开始
+     * @param serverDir 输出目录
+     */
+    public StageJournal(final Path serverDir) {
+        this.file = serverDir.resolve(NAME);
+        if (Files.isRegularFile(file)) {
+            try {
+                JSONUtil.parseObj(FileUtil.readUtf8String(file.toFile())).forEach((k, v) -> {
+                    if (v instanceof final JSONObject entry) entries.put(k, entry);
+                });
+            } catch (final Exception e) {
+                Log.warn("[JOURNAL] 阶段日志损坏，忽略 | file={} err={}", file, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 包装阶段执行体：指纹一致且结果有效时跳过执行，否则执行并记录
+     * @param stage       阶段名
+     * @param fingerprint 输入指纹（在阶段内求值，可依赖上游结果）
+     * @param codec       结果编解码
+     * @param body        执行体
+     * @return {@link Callable }<{@link T }>
+     */
+    public <T> Callable<T> resume(final String stage, final Supplier<String> fingerprint, final Codec<T> codec, final Callable<T> body) {
+        return () -> {
+            final String current = fingerprint.get();
+            final JSONObject entry = entries.get(stage);
+            if (entry != null && Objects.equals(entry.getStr("fingerprint"), current)) {
+                final Optional<T> restored = codec.decode().apply(entry.getStr("result"));
+                if (restored.isPresent()) {
+                    Log.info("[JOURNAL] 跳过已完成阶段 | stage={}", stage);
+                    return restored.get();
+                }
+            }
+            entries.remove(stage);
+            final T value = body.call();
+            entries.put(stage, JSONUtil.createObj().set("fingerprint", current).set("result", codec.encode().apply(value)));
+            flush();
+            return value;
+        };
+    }
+
+    /**
+     * 原子写出
+     */
+    @SneakyThrows
+    private synchronized void flush() {
+        final JSONObject root = JSONUtil.createObj();
+        entries.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(e -> root.set(e.getKey(), e.getValue()));
+        final Path partial = file.resolveSibling(NAME + ".partial");
+        FileUtil.writeUtf8String(root.toStringPretty(), partial.toFile());
+        Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 组合指纹
+     * @param parts 组成部分
+     * @return 小写十六进制 SHA-256
+     */
+    @SneakyThrows
+    public static String fingerprint(final Object... parts) {
+        final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        Arrays.stream(parts).map(String::valueOf).forEach(p -> digest.update((p + "\n").getBytes(StandardCharsets.UTF_8)));
+        return HexUtil.encodeHexStr(digest.digest());
+    }
+
+    /**
+     * 结果编解码
+     * @param encode 编码
+     * @param decode 解码；结果已失效（例如文件被删除）时为空
+     */
+    public record Codec<T>(Function<T, String> encode, Function<String, Optional<T>> decode) {
+    }
+}
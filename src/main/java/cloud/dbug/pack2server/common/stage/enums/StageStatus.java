@@ -0,0 +1,29 @@
+package cloud.dbug.pack2server.common.stage.enums;
+
+/**
+ * 阶段状态
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public enum StageStatus {
+    /**
+     * 等待依赖
+     */
+    PENDING,
+    /**
+     * 执行中
+     */
+    RUNNING,
+    /**
+     * 已完成
+     */
+    DONE,
+    /**
+     * 执行失败
+     */
+    FAILED,
+    /**
+     * 依赖失败而取消
+     */
+    CANCELLED
+}
@@ -0,0 +1,132 @@
+package cloud.dbug.pack2server.common.verify;
+
+import cloud.dbug.pack2server.common.digest.FileDigest;
+import cloud.dbug.pack2server.common.downloader.Downloader;
+import cloud.dbug.pack2server.common.log.Log;
+import cloud.dbug.pack2server.common.verify.enums.VerifyStatus;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.StrUtil;
+import lombok.experimental.UtilityClass;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 文件校验与修复
+ * <p>按 CPU 数并行计算 SHA-1（内存映射读取），仅对缺失或损坏的文件经 {@link Downloader} 重新获取。</p>
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+@UtilityClass
+public class Verifier {
+    /**
+     * 并行校验
+     * @param targets 校验目标
+     * @return 与目标顺序一致的结果
+     */
+    public static List<Outcome> check(final List<Target> targets) {
+        try (final ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors())) {
+            final List<Future<Outcome>> futures = targets.stream().map(t -> executor.submit(() -> new Outcome(t, status(t)))).toList();
+            return futures.stream().map(f -> {
+                try {
+                    return f.get();
+                } catch (final Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }).toList();
+        }
+    }
+
+    /**
+     * 在虚拟线程上并行修复损坏文件，其余结果原样返回
+     * @param outcomes 校验结果
+     * @return 修复后的结果
+     */
+    public static List<Outcome> repair(final List<Outcome> outcomes) {
+        return repair(outcomes, Downloader.defaults());
+    }
+
+    /**
+     * 在虚拟线程上并行修复损坏文件，其余结果原样返回
+     * @param outcomes   校验结果
+     * @param downloader 下载器
+     * @return 修复后的结果
+     */
+    public static List<Outcome> repair(final List<Outcome> outcomes, final Downloader downloader) {
+        try (final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            final List<Future<Outcome>> futures = outcomes.stream()
+                    .map(o -> executor.submit(() -> o.status().broken() ? new Outcome(o.target(), refetch(o.target(), downloader)) : o))
+                    .toList();
+            return futures.stream().map(f -> {
+                try {
+                    return f.get();
+                } catch (final Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }).toList();
+        }
+    }
+
+    /**
+     * 单个文件状态
+     * @param target 目标
+     * @return {@link VerifyStatus }
+     */
+    private static VerifyStatus status(final Target target) {
+        if (!Files.isRegularFile(target.file())) return VerifyStatus.MISSING;
+        if (StrUtil.isBlank(target.sha1())) return VerifyStatus.UNCHECKED;
+        return StrUtil.equalsIgnoreCase(target.sha1(), FileDigest.sha1(target.file())) ? VerifyStatus.OK : VerifyStatus.CORRUPT;
+    }
+
+    /**
+     * 重新下载并校验，成功后原子替换
+     * @param target     目标
+     * @param downloader 下载器
+     * @return {@link VerifyStatus }
+     */
+    private static VerifyStatus refetch(final Target target, final Downloader downloader) {
+        if (StrUtil.isBlank(target.url())) {
+            Log.error("[VERIFY] 无下载地址，无法修复 | file={}", target.file());
+            return VerifyStatus.FAILED;
+        }
+        final Path partial = target.file().resolveSibling(".partial-%s".formatted(target.file().getFileName()));
+        try {
+            Files.createDirectories(partial.getParent());
+            FileUtil.del(partial);
+            downloader.fetch(target.url(), partial);
+            if (StrUtil.isNotBlank(target.sha1()) && !StrUtil.equalsIgnoreCase(target.sha1(), FileDigest.sha1(partial))) {
+                throw new IllegalStateException("重新下载后 SHA-1 仍不一致");
+            }
+            // 先删除再移动，断开可能指向共享仓库的硬链接
+            FileUtil.del(target.file());
+            Files.move(partial, target.file(), StandardCopyOption.REPLACE_EXISTING);
+            return VerifyStatus.REPAIRED;
+        } catch (final Exception e) {
+            FileUtil.del(partial);
+            Log.error("[VERIFY] 修复失败 | file={} err={}", target.file(), e.getMessage());
+            return VerifyStatus.FAILED;
+        }
+    }
+
+    /**
+     * 校验目标
+     * @param file 本地文件
+     * @param sha1 期望 SHA-1；为空仅确认存在
+     * @param url  修复用下载地址
+     */
+    public record Target(Path file, String sha1, String url) {
+    }
+
+    /**
+     * 校验结果
+     * @param target 目标
+     * @param status 状态
+     */
+    public record Outcome(Target target, VerifyStatus status) {
+    }
+}
@@ -0,0 +1,41 @@
+package cloud.dbug.pack2server.common.verify.enums;
+
+/**
+ * 校验结果
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public enum VerifyStatus {
+    /**
+     * 摘要一致
+     */
+    OK,
+    /**
+     * 无可比对的摘要，仅确认存在
+     */
+    UNCHECKED,
+    /**
+     * 文件缺失
+     */
+    MISSING,
+    /**
+     * 摘要不一致
+     */
+    CORRUPT,
+    /**
+     * 已重新下载修复
+     */
+    REPAIRED,
+    /**
+     * 修复失败
+     */
+    FAILED;
+
+    /**
+     * 是否需要修复
+     * @return boolean
+     */
+    public boolean broken() {
+        return this == MISSING || this == CORRUPT;
+    }
+}
@@ -0,0 +1,175 @@
+package cloud.dbug.pack2server.entity;
+
+import cloud.dbug.pack2server.common.ServerWorkspace;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import lombok.Getter;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.stream.LongStream;
+
+/**
+ * 整合包清单（{@code manifest.json}）
+ * <p>一次解析、处处复用的不可变模型；文件列表以原始数组保存，校验集中于此。</p>
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+@Getter
+public final class PackManifest {
+    /**
+     * Minecraft 版本格式
+     */
+    private static final Pattern MC_VERSION = Pattern.compile("\\d+\\.\\d+(\\.\\d+)?");
+    /**
+     * 整合包名称
+     */
+    private final String name;
+    /**
+     * 整合包版本
+     */
+    private final String version;
+    /**
+     * Minecraft 版本
+     */
+    private final String minecraftVersion;
+    /**
+     * 加载器 ID（例如 {@code fabric-0.15.2}）
+     */
+    private final String loaderId;
+    /**
+     * 加载器类型（例如 {@code fabric}）
+     */
+    private final String loaderType;
+    /**
+     * 加载器版本（例如 {@code 0.15.2}）
+     */
+    private final String loaderVersion;
+    /**
+     * 覆盖文件目录（整合包内的相对路径，缺省为 {@code overrides}）
+     */
+    private final String overrides;
+    /**
+     * 项目 ID
+     */
+    @Getter(lombok.AccessLevel.NONE)
+    private final long[] projectIds;
+    /**
+     * 文件 ID
+     */
+    @Getter(lombok.AccessLevel.NONE)
+    private final long[] fileIds;
+
+    private PackManifest(final JSONObject root) {
+        this.name = root.getStr("name", "");
+        this.version = root.getStr("version", "");
+        this.overrides = StrUtil.strip(StrUtil.blankToDefault(root.getStr("overrides"), ServerWorkspace.OVERRIDES).replace('\\', '/'), "/");
+        if (StrUtil.isBlank(overrides) || StrUtil.contains(overrides, ':') || Arrays.asList(overrides.split("/")).contains("..")) {
+            throw new IllegalStateException("清单格式无效，覆盖目录异常：%s".formatted(overrides));
+        }
+        this.minecraftVersion = root.getByPath("minecraft.version", String.class);
+        if (StrUtil.isBlank(minecraftVersion) || !MC_VERSION.matcher(minecraftVersion).matches()) {
+            throw new IllegalStateException("清单格式无效，Minecraft 版本异常：%s".formatted(minecraftVersion));
+        }
+        final JSONArray loaders = root.getByPath("minecraft.modLoaders", JSONArray.class);
+        if (loaders == null || loaders.isEmpty()) {
+            throw new IllegalStateException("未能从清单文件中找到支持的加载程序配置");
+        }
+        // 优先取标记为 primary 的加载器
+        final JSONObject loader = loaders.stream().filter(JSONObject.class::isInstance).map(JSONObject.class::cast)
+                .filter(o -> o.getBool("primary", Boolean.FALSE)).findFirst()
+                .orElseGet(() -> loaders.getJSONObject(0));
+        this.loaderId = loader.getStr("id", "");
+        final int dash = loaderId.indexOf('-');
+        if (dash <= 0 || dash == loaderId.length() - 1) {
+            throw new IllegalStateException("清单格式无效，加载器 ID 异常：%s".formatted(loaderId));
+        }
+        this.loaderType = loaderId.substring(0, dash);
+        this.loaderVersion = loaderId.substring(dash + 1);
+        final JSONArray files = Objects.requireNonNullElseGet(root.getJSONArray("files"), JSONArray::new);
+        final long[] projects = new long[files.size()];
+        final long[] ids = new long[files.size()];
+        int count = 0;
+        for (final Object item : files) {
+            if (!(item instanceof final JSONObject file)) continue;
+            final long projectId = file.getLong("projectID", 0L);
+            final long fileId = file.getLong("fileID", 0L);
+            if (projectId <= 0 || fileId <= 0) {
+                throw new IllegalStateException("清单格式无效，模组条目缺少 ID：%s".formatted(file));
+            }
+            projects[count] = projectId;
+            ids[count++] = fileId;
+        }
+        this.projectIds = count == projects.length ? projects : Arrays.copyOf(projects, count);
+        this.fileIds = count == ids.length ? ids : Arrays.copyOf(ids, count);
+    }
+
+    /**
+     * 读取清单文件
+     * @param manifest 清单文件路径
+     * @return {@link PackManifest }
+     */
+    public static PackManifest read(final Path manifest) {
+        if (Files.notExists(manifest)) {
+            throw new IllegalStateException("清单文件不存在：%s".formatted(manifest.toAbsolutePath()));
+        }
+        return parse(FileUtil.readUtf8String(manifest.toFile()));
+    }
+
+    /**
+     * 解析清单内容
+     * @param json 清单内容
+     * @return {@link PackManifest }
+     */
+    public static PackManifest parse(final String json) {
+        if (!JSONUtil.isTypeJSONObject(json)) {
+            throw new IllegalStateException("清单格式无效，请检查整合包");
+        }
+        return new PackManifest(JSONUtil.parseObj(json));
+    }
+
+    /**
+     * 模组数量
+     * @return int
+     */
+    public int size() {
+        return fileIds.length;
+    }
+
+    /**
+     * 第 i 个模组的项目 ID
+     * @param i 下标
+     * @return long
+     */
+    public long projectId(final int i) {
+        return projectIds[i];
+    }
+
+    /**
+     * 第 i 个模组的文件 ID
+     * @param i 下标
+     * @return long
+     */
+    public long fileId(final int i) {
+        return fileIds[i];
+    }
+
+    /**
+     * 文件 ID 流
+     * @return {@link LongStream }
+     */
+    public LongStream fileIds() {
+        return LongStream.of(fileIds);
+    }
+
+    @Override
+    public String toString() {
+        return "PackManifest(name=%s, version=%s, minecraft=%s, loader=%s, mods=%d)".formatted(name, version, minecraftVersion, loaderId, size());
+    }
+}
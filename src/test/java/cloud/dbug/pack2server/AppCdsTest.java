@@ -0,0 +1,40 @@
+package cloud.dbug.pack2server;
+
+import cloud.dbug.pack2server.common.runner.AppCds;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AppCDS 归档测试
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public class AppCdsTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("归档随模组变化失效")
+    public void invalidateOnModChange() throws IOException {
+        final Path jre = Path.of(System.getProperty("java.home"));
+        Files.createDirectories(dir.resolve("mods"));
+        Files.writeString(dir.resolve("mods/a.jar"), "a");
+        final List<String> dump = AppCds.dumpFlags(dir, jre);
+        assertEquals(1, dump.size());
+        assertTrue(AppCds.useFlags(dir, jre, "server.jar").isEmpty());
+        // 模拟 JVM 退出时写出的归档
+        Files.writeString(Path.of(dump.getFirst().substring(dump.getFirst().indexOf('=') + 1)), "jsa");
+        assertTrue(AppCds.commit(dir, jre, "server.jar"));
+        assertTrue(AppCds.useFlags(dir, jre, "server.jar").getFirst().startsWith("-XX:SharedArchiveFile="));
+        Files.writeString(dir.resolve("mods/b.jar"), "b");
+        assertTrue(AppCds.useFlags(dir, jre, "server.jar").isEmpty());
+    }
+}
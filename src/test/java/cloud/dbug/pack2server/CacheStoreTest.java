@@ -0,0 +1,53 @@
+package cloud.dbug.pack2server;
+
+import cloud.dbug.pack2server.common.cache.CacheStore;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 共享缓存测试
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public class CacheStoreTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("元数据有效期与离线回退")
+    public void text() throws IOException {
+        final Path file = dir.resolve("meta/versions.json");
+        assertEquals("v1", CacheStore.text(file, Duration.ofHours(1), () -> "v1"));
+        // 有效期内不触发加载
+        assertEquals("v1", CacheStore.text(file, Duration.ofHours(1), () -> "v2"));
+        // 过期后刷新失败，回退到旧内容
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(Duration.ofDays(2))));
+        assertEquals("v1", CacheStore.text(file, Duration.ofHours(1), () -> {
+            throw new IllegalStateException("offline");
+        }));
+        // 无缓存且加载失败时抛出
+        assertThrows(IllegalStateException.class, () -> CacheStore.text(dir.resolve("none.json"), Duration.ofHours(1), () -> {
+            throw new IllegalStateException("offline");
+        }));
+    }
+
+    @Test
+    @DisplayName("缓存文件放置")
+    public void place() throws IOException {
+        final Path cached = Files.writeString(dir.resolve("loader.jar"), "jar");
+        final Path target = CacheStore.place(cached, dir.resolve("server/loader.jar"));
+        assertEquals("jar", Files.readString(target));
+        assertEquals("jar", CacheStore.locked(dir.resolve("lock"), () -> Files.readString(target)));
+    }
+}
@@ -0,0 +1,97 @@
+package cloud.dbug.pack2server;
+
+import cloud.dbug.pack2server.common.detector.ServerModDetector;
+import cloud.dbug.pack2server.common.detector.Verdict;
+import cloud.dbug.pack2server.common.detector.enums.Cost;
+import cloud.dbug.pack2server.common.detector.enums.Side;
+import cloud.dbug.pack2server.fixture.ZipFixture;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 检测规则链测试
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public class DetectorTest {
+    @TempDir
+    Path dir;
+
+    /**
+     * 生成测试 jar
+     * @param name    文件名
+     * @param entries 条目
+     * @return {@link Path }
+     */
+    private Path jar(final String name, final Map<String, String> entries) throws IOException {
+        return ZipFixture.write(dir.resolve(name), entries);
+    }
+
+    @Test
+    @DisplayName("元数据规则优先")
+    public void metadataFirst() throws IOException {
+        final Verdict verdict = ServerModDetector.judge(jar("a.jar", Map.of(
+                "fabric.mod.json", "{\"environment\":\"client\",\"entrypoints\":{\"main\":[]}}"
+        )));
+        assertEquals(Side.CLIENT, verdict.side());
+        assertEquals(Cost.METADATA, verdict.cost());
+        assertEquals("FabricEnvironmentRule", verdict.rule());
+    }
+
+    @Test
+    @DisplayName("通配环境交由描述规则")
+    public void wildcardFallsThrough() throws IOException {
+        final Verdict verdict = ServerModDetector.judge(jar("b.jar", Map.of(
+                "fabric.mod.json", "{\"environment\":\"*\",\"entrypoints\":{\"server\":[]}}"
+        )));
+        assertEquals(Side.SERVER, verdict.side());
+        assertEquals("FabricEntrypointRule", verdict.rule());
+    }
+
+    @Test
+    @DisplayName("Quilt 环境字段")
+    public void quiltEnvironment() throws IOException {
+        final Verdict verdict = ServerModDetector.judge(jar("c.jar", Map.of(
+                "quilt.mod.json", "{\"minecraft\":{\"environment\":\"dedicated_server\"}}"
+        )));
+        assertEquals(Side.SERVER, verdict.side());
+        assertEquals("QuiltEnvironmentRule", verdict.rule());
+    }
+
+    @Test
+    @DisplayName("Mixin 客户端数组先于字节码扫描")
+    public void mixinBeforeByteCode() throws IOException {
+        final Verdict verdict = ServerModDetector.judge(jar("d.jar", Map.of(
+                "demo.mixins.json", "{\"client\":[\"A\"]}",
+                "demo/A.class", "Dist.DEDICATED_SERVER"
+        )));
+        assertEquals(Side.CLIENT, verdict.side());
+        assertEquals("MixinConfigRule", verdict.rule());
+    }
+
+    @Test
+    @DisplayName("无描述时进入字节码扫描")
+    public void byteCodeLast() throws IOException {
+        final Verdict verdict = ServerModDetector.judge(jar("e.jar", Map.of("demo/A.class", "plain")));
+        assertEquals(Side.BOTH, verdict.side());
+        assertEquals(Cost.BYTECODE, verdict.cost());
+    }
+
+    @Test
+    @DisplayName("内存字节检测与磁盘一致")
+    public void inMemory() throws IOException {
+        final Path jar = jar("f.jar", Map.of("META-INF/mods.toml", "[[dependencies.demo]]\nside=\"CLIENT\""));
+        final Verdict verdict = ServerModDetector.judge(Files.readAllBytes(jar));
+        assertEquals(ServerModDetector.judge(jar), verdict);
+        assertEquals(Side.CLIENT, verdict.side());
+        assertEquals(Side.NONE, ServerModDetector.judge(new byte[]{1, 2, 3}).side());
+    }
+}
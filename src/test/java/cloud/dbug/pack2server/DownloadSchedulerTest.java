@@ -0,0 +1,85 @@
+package cloud.dbug.pack2server;
+
+import cloud.dbug.pack2server.common.downloader.DownloadScheduler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 下载调度器测试
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public class DownloadSchedulerTest {
+    @Test
+    @DisplayName("同一调度器内相同键只执行一次，不同调度器互不共享")
+    public void dedupe() {
+        final AtomicInteger calls = new AtomicInteger();
+        final DownloadScheduler scheduler = new DownloadScheduler(4);
+        try (final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 16; i++) {
+                executor.submit(() -> scheduler.shared("mod:1", () -> {
+                    Thread.sleep(100);
+                    return calls.incrementAndGet();
+                }));
+            }
+        }
+        assertEquals(1, calls.get());
+        assertEquals(15, scheduler.reused());
+        final DownloadScheduler other = new DownloadScheduler(4);
+        other.shared("mod:1", calls::incrementAndGet);
+        assertEquals(2, calls.get());
+        assertEquals(0, other.reused());
+    }
+
+    @Test
+    @DisplayName("释放后不再复用已完成的结果，执行中的键保留给等待方")
+    public void release() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final DownloadScheduler scheduler = new DownloadScheduler(4);
+        scheduler.shared("mod:1", calls::incrementAndGet);
+        final CountDownLatch started = new CountDownLatch(1), proceed = new CountDownLatch(1);
+        try (final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            executor.submit(() -> scheduler.shared("mod:2", () -> {
+                started.countDown();
+                proceed.await();
+                return calls.incrementAndGet();
+            }));
+            started.await();
+            scheduler.release(List.of("mod:1", "mod:2"));
+            assertEquals(1, scheduler.size());
+            proceed.countDown();
+        }
+        scheduler.shared("mod:1", calls::incrementAndGet);
+        assertEquals(3, calls.get());
+        assertEquals(0, scheduler.reused());
+        scheduler.release(List.of("mod:1", "mod:2"));
+        assertEquals(0, scheduler.size());
+    }
+
+    @Test
+    @DisplayName("调度器许可限制下载并发")
+    public void permits() {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger peak = new AtomicInteger();
+        final DownloadScheduler scheduler = new DownloadScheduler(3);
+        try (final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 20; i++) {
+                executor.submit(() -> scheduler.run(() -> {
+                    peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(30);
+                    return running.decrementAndGet();
+                }));
+            }
+        }
+        assertTrue(peak.get() <= 3);
+        assertTrue(peak.get() > 0);
+    }
+}
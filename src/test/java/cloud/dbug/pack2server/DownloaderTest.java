@@ -20,13 +20,13 @@ public class DownloaderTest {
     @DisplayName("单个下载")
     public void single() {
         final String url = "https://edge.forgecdn.net/files/6724/592/paginatedadvancements-2.7.0%2b1.21.7.jar";
-        Downloader.fetch(url, FileUtil.file(ServerWorkspace.USER_HOME, ServerWorkspace.TEMP, ServerWorkspace.parseFileName(url)).toPath());
+        Downloader.defaults().fetch(url, FileUtil.file(ServerWorkspace.USER_HOME, ServerWorkspace.TEMP, ServerWorkspace.parseFileName(url)).toPath());
     }
 
     @Test
     @DisplayName("批量下载")
     public void multipart() {
-        Downloader.fetchAll(
+        Downloader.defaults().fetchAll(
                 List.of(
                         "https://repo1.maven.org/maven2/info/picocli/picocli/4.7.6/picocli-4.7.6.jar",
                         "https://repo1.maven.org/maven2/info/picocli/picocli/4.7.5/picocli-4.7.5.jar",
@@ -0,0 +1,82 @@
+package cloud.dbug.pack2server;
+
+import cloud.dbug.pack2server.common.detector.ServerModDetector;
+import cloud.dbug.pack2server.common.downloader.DownloadScheduler;
+import cloud.dbug.pack2server.common.downloader.Downloader;
+import cloud.dbug.pack2server.common.extractor.ZipExtractor;
+import cloud.dbug.pack2server.common.flight.FlightRecording;
+import cloud.dbug.pack2server.common.stage.StageGraph;
+import cloud.dbug.pack2server.fixture.ZipFixture;
+import com.sun.net.httpserver.HttpServer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 飞行记录测试
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public class FlightRecordingTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("录制阶段、HTTP、检测与解压事件并写出 jfr 文件")
+    public void record() throws Exception {
+        final Path zip = ZipFixture.write(dir.resolve("pack.zip"), Map.of("config/a.toml", "a=1"));
+        final HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/meta", exchange -> {
+            try (exchange) {
+                final byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            }
+        });
+        server.start();
+        final Path file = dir.resolve("run/pack2server.jfr");
+        final String url = "http://127.0.0.1:%d/meta".formatted(server.getAddress().getPort());
+        try (final FlightRecording _ = FlightRecording.start(file);
+             final HttpClient client = HttpClient.newHttpClient()) {
+            final StageGraph graph = new StageGraph();
+            graph.add("flight-extract", () -> ZipExtractor.extract(zip, dir.resolve("out")));
+            graph.run();
+            ServerModDetector.judge("flight-broken.jar", new byte[]{1, 2, 3});
+            new Downloader(client, new DownloadScheduler(0)).text(url);
+        } finally {
+            server.stop(0);
+        }
+        assertTrue(Files.size(file) > 0);
+        // 录制覆盖整个 JVM，并行测试的事件也会写入，按本测试的属性筛选
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        final RecordedEvent stage = find(events, "pack2server.Stage", e -> "flight-extract".equals(e.getString("stage")));
+        assertEquals("DONE", stage.getString("status"));
+        final RecordedEvent extract = find(events, "pack2server.Extract", e -> zip.toString().equals(e.getString("archive")));
+        assertEquals(1, extract.getInt("entries"));
+        assertEquals(3L, extract.getLong("bytes"));
+        final RecordedEvent detect = find(events, "pack2server.Detect", e -> "flight-broken.jar".equals(e.getString("file")));
+        assertEquals("unreadable", detect.getString("rule"));
+        final RecordedEvent http = find(events, "pack2server.HttpRequest", e -> url.equals(e.getString("url")));
+        assertEquals(200, http.getInt("status"));
+        assertEquals(2L, http.getLong("bytes"));
+        assertEquals("127.0.0.1", http.getString("host"));
+    }
+
+    private static RecordedEvent find(final List<RecordedEvent> events, final String type, final Predicate<RecordedEvent> filter) {
+        return events.stream().filter(e -> type.equals(e.getEventType().getName())).filter(filter).findFirst()
+                .orElseGet(() -> fail("未录制到事件：%s".formatted(type)));
+    }
+}
@@ -0,0 +1,52 @@
+package cloud.dbug.pack2server;
+
+import cloud.dbug.pack2server.common.fetcher.JavaDiscovery;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 本机运行时发现测试
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public class JavaDiscoveryTest {
+    @TempDir
+    Path dir;
+
+    /**
+     * 伪造运行时目录
+     * @param name    目录名
+     * @param version 版本
+     * @return {@link Path }
+     */
+    private Path fake(final String name, final String version) throws IOException {
+        final Path home = dir.resolve(name);
+        Files.createDirectories(home.resolve("bin"));
+        Files.createFile(home.resolve("bin/java"));
+        Files.writeString(home.resolve("release"), "IMPLEMENTOR=\"Eclipse Adoptium\"\nJAVA_VERSION=\"%s\"\n".formatted(version));
+        return home;
+    }
+
+    @Test
+    @DisplayName("解析 release 主版本")
+    public void readMajor() throws IOException {
+        assertEquals(21, JavaDiscovery.readMajor(fake("jdk21", "21.0.1")).orElseThrow());
+        assertEquals(8, JavaDiscovery.readMajor(fake("jdk8", "1.8.0_392")).orElseThrow());
+        assertTrue(JavaDiscovery.readMajor(dir.resolve("missing")).isEmpty());
+    }
+
+    @Test
+    @DisplayName("当前进程运行时可被发现")
+    public void scanCurrent() {
+        final int major = Runtime.version().feature();
+        assertTrue(JavaDiscovery.scan().stream().anyMatch(r -> r.major() == major));
+    }
+}
@@ -0,0 +1,131 @@
+package cloud.dbug.pack2server;
+
+import cloud.dbug.pack2server.common.metrics.MetricsRegistry;
+import cloud.dbug.pack2server.common.service.Job;
+import cloud.dbug.pack2server.common.service.JobServer;
+import cloud.dbug.pack2server.common.service.JobService;
+import cloud.dbug.pack2server.common.service.enums.JobStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 常驻转换服务测试
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public class JobServiceTest {
+    @Test
+    @DisplayName("有界队列拒绝溢出，排队与执行中的任务均可取消")
+    public void queueAndCancel(@TempDir final Path dir) throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        try (final JobService service = new JobService(1, 1, new MetricsRegistry(), _ -> {
+            started.countDown();
+            try {
+                new CountDownLatch(1).await();
+                return 0;
+            } catch (final InterruptedException e) {
+                return 1;
+            }
+        })) {
+            final Job running = service.submit(request(dir, "a")).orElseThrow();
+            started.await();
+            final Job queued = service.submit(request(dir, "b")).orElseThrow();
+            assertTrue(service.submit(request(dir, "c")).isEmpty());
+            service.cancel(queued.getId());
+            assertEquals(JobStatus.CANCELLED, queued.getStatus());
+            service.cancel(running.getId());
+            settle(running);
+            assertEquals(JobStatus.CANCELLED, running.getStatus());
+            final String metrics = service.metrics();
+            assertTrue(metrics.contains("p2s_jobs_rejected_total 1"));
+            assertTrue(metrics.contains("p2s_jobs_finished_total{status=\"CANCELLED\"} 2"));
+            assertTrue(metrics.contains("p2s_queue_depth 0"));
+        }
+    }
+
+    @Test
+    @DisplayName("HTTP 提交任务并流式读取进度")
+    public void http(@TempDir final Path dir) throws Exception {
+        try (final JobServer server = new JobServer(new InetSocketAddress("127.0.0.1", 0), new JobService(1, 4, new MetricsRegistry(), job -> {
+            job.event("step-1");
+            job.event("step-2");
+            return 0;
+        }), dir)) {
+            final String base = "http://127.0.0.1:%d".formatted(server.address().getPort());
+            final HttpClient client = HttpClient.newHttpClient();
+            final HttpResponse<String> escaped = client.send(post(base, "{\"zip\":\"pack.zip\",\"output\":\"../out\"}"), HttpResponse.BodyHandlers.ofString());
+            assertEquals(400, escaped.statusCode());
+            assertEquals(404, client.send(HttpRequest.newBuilder(URI.create(base + "/jobs/99999999999999999999")).build(), HttpResponse.BodyHandlers.ofString()).statusCode());
+            for (final String body : List.of(
+                    "{\"zip\":\"../pack.zip\",\"output\":\"out\"}",
+                    "{\"url\":\"/etc/pack.zip\",\"output\":\"out\"}",
+                    "{\"zip\":\"pack.zip\",\"output\":\"out\",\"args\":[\"--metrics-file\",\"/tmp/m.prom\"]}",
+                    "{\"zip\":\"pack.zip\",\"output\":\"out\",\"args\":[\"--jfr=/tmp/run.jfr\"]}",
+                    "{\"zip\":\"pack.zip\",\"output\":\"out\",\"args\":[\"-k\",\"key\"]}",
+                    "{\"zip\":\"pack.zip\",\"output\":\"out\",\"args\":[\"-z\",\"/etc/passwd\"]}",
+                    "{\"zip\":\"pack.zip\",\"output\":\"out\",\"args\":[\"--profile\",\"@/etc/passwd\"]}")) {
+                assertEquals(400, client.send(post(base, body), HttpResponse.BodyHandlers.ofString()).statusCode(), body);
+            }
+            final HttpResponse<String> submitted = client.send(post(base,
+                    "{\"zip\":\"pack.zip\",\"output\":\"out\",\"args\":[\"--cds\",\"--profile\",\"LOW_PAUSE\",\"--warmup-timeout=120\"]}"), HttpResponse.BodyHandlers.ofString());
+            assertEquals(202, submitted.statusCode());
+            final String location = submitted.headers().firstValue("Location").orElseThrow();
+            final String events = client.send(HttpRequest.newBuilder(URI.create(base + location + "/events")).build(), HttpResponse.BodyHandlers.ofString()).body();
+            assertTrue(events.indexOf("data: step-1") < events.indexOf("data: step-2"));
+            assertTrue(events.endsWith("event: end\ndata: DONE\n\n"));
+            assertTrue(client.send(HttpRequest.newBuilder(URI.create(base + location)).build(), HttpResponse.BodyHandlers.ofString()).body().contains("\"status\":\"DONE\""));
+            assertTrue(client.send(HttpRequest.newBuilder(URI.create(base + "/metrics")).build(), HttpResponse.BodyHandlers.ofString()).body()
+                    .contains("p2s_jobs_finished_total{status=\"DONE\"} 1"));
+        }
+    }
+
+    @Test
+    @DisplayName("输出目录被未结束的任务占用时拒绝提交")
+    public void conflict(@TempDir final Path dir) throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        try (final JobServer server = new JobServer(new InetSocketAddress("127.0.0.1", 0), new JobService(1, 4, new MetricsRegistry(), _ -> {
+            try {
+                release.await();
+                return 0;
+            } catch (final InterruptedException e) {
+                return 1;
+            }
+        }), dir)) {
+            final String base = "http://127.0.0.1:%d".formatted(server.address().getPort());
+            final HttpClient client = HttpClient.newHttpClient();
+            assertEquals(202, client.send(post(base, "{\"zip\":\"pack.zip\",\"output\":\"out/a\"}"), HttpResponse.BodyHandlers.ofString()).statusCode());
+            for (final String output : List.of("out/a", "out/./a/", "out", "out/a/b")) {
+                assertEquals(409, client.send(post(base, "{\"zip\":\"pack.zip\",\"output\":\"%s\"}".formatted(output)), HttpResponse.BodyHandlers.ofString()).statusCode(), output);
+            }
+            assertEquals(202, client.send(post(base, "{\"zip\":\"pack.zip\",\"output\":\"out/ab\"}"), HttpResponse.BodyHandlers.ofString()).statusCode());
+            release.countDown();
+        }
+    }
+
+    private static Job.Request request(final Path dir, final String name) {
+        return new Job.Request("pack.zip", dir.resolve(name), List.of());
+    }
+
+    private static HttpRequest post(final String base, final String body) {
+        return HttpRequest.newBuilder(URI.create(base + "/jobs")).POST(HttpRequest.BodyPublishers.ofString(body)).build();
+    }
+
+    private static void settle(final Job job) throws InterruptedException {
+        for (int i = 0; i < 50 && !job.getStatus().terminal(); i++) {
+            job.await(Integer.MAX_VALUE, Duration.ofMillis(100));
+        }
+    }
+}
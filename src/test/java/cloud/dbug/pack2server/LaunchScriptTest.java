@@ -0,0 +1,46 @@
+package cloud.dbug.pack2server;
+
+import cloud.dbug.pack2server.common.launcher.LaunchScript;
+import cloud.dbug.pack2server.common.launcher.enums.LaunchProfile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 启动脚本参数测试
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public class LaunchScriptTest {
+    @Test
+    @DisplayName("堆大小随模组增长并受宿主内存约束")
+    public void heap() {
+        assertEquals(4096, LaunchScript.heapMb(64 * 1024, 40, 64));
+        assertTrue(LaunchScript.heapMb(64 * 1024, 300, 1024) > LaunchScript.heapMb(64 * 1024, 40, 64));
+        assertEquals(3072, LaunchScript.heapMb(4 * 1024, 300, 1024));
+        assertEquals(31 * 1024, LaunchScript.heapMb(256 * 1024, 2000, 4096));
+        assertEquals(0, LaunchScript.heapMb(6 * 1024, 50, 200) % 512);
+    }
+
+    @Test
+    @DisplayName("按档位与版本选择 GC")
+    public void gc() {
+        final List<String> throughput = LaunchScript.jvmFlags(LaunchScript.Tuning.DEFAULT, 21, 8192);
+        assertTrue(throughput.containsAll(List.of("-Xms8192M", "-Xmx8192M", "-XX:+UseG1GC")));
+        final List<String> zgc = LaunchScript.jvmFlags(new LaunchScript.Tuning(LaunchProfile.LOW_PAUSE, Boolean.TRUE, Boolean.FALSE), 21, 8192);
+        assertTrue(zgc.containsAll(List.of("-XX:+UseZGC", "-XX:+ZGenerational", "-XX:+AlwaysPreTouch")));
+        assertFalse(LaunchScript.jvmFlags(new LaunchScript.Tuning(LaunchProfile.LOW_PAUSE, Boolean.FALSE, Boolean.FALSE), 25, 8192).contains("-XX:+ZGenerational"));
+        assertTrue(LaunchScript.jvmFlags(new LaunchScript.Tuning(LaunchProfile.LOW_PAUSE, Boolean.FALSE, Boolean.FALSE), 8, 4096).contains("-XX:+UseG1GC"));
+    }
+
+    @Test
+    @DisplayName("脚本参数转义引号与百分号")
+    public void escape() {
+        final List<String> command = List.of("/opt/it's java/bin/java", "-Dmotd=100% \"fun\"", "-jar", "server.jar");
+        assertEquals("'/opt/it'\\''s java/bin/java' '-Dmotd=100% \"fun\"' '-jar' 'server.jar'", LaunchScript.shellLine(command));
+        assertEquals("\"/opt/it's java/bin/java\" \"-Dmotd=100%% \"\"fun\"\"\" \"-jar\" \"server.jar\"", LaunchScript.batchLine(command));
+    }
+}
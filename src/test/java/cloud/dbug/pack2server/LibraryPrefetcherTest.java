@@ -0,0 +1,58 @@
+package cloud.dbug.pack2server;
+
+import cloud.dbug.pack2server.common.fetcher.LibraryPrefetcher;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 依赖库预取器测试
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public class LibraryPrefetcherTest {
+    @Test
+    @DisplayName("解析库声明，跳过无下载地址与结构不符的条目")
+    public void parse() {
+        final String json = """
+                {"libraries": [
+                  {"name": "a", "downloads": {"artifact": {"path": "org/a/a.jar", "url": "https://x/a.jar", "sha1": "aa"}}},
+                  {"name": "generated", "downloads": {"artifact": {"path": "org/b/b.jar", "url": ""}}},
+                  {"name": "no-artifact", "downloads": {}},
+                  {"name": "string-downloads", "downloads": "x"},
+                  {"name": "string-artifact", "downloads": {"artifact": "x"}},
+                  "not-an-object",
+                  {"name": "c", "downloads": {"artifact": {"path": "org/c/c.jar", "url": "https://x/c.jar"}}}
+                ]}
+                """;
+        assertEquals(List.of(
+                new LibraryPrefetcher.Library("org/a/a.jar", "https://x/a.jar", "aa"),
+                new LibraryPrefetcher.Library("org/c/c.jar", "https://x/c.jar", null)
+        ), LibraryPrefetcher.parse(json).toList());
+    }
+
+    @Test
+    @DisplayName("内容无法解析或缺少 libraries 时为空")
+    public void parseMalformed() {
+        assertTrue(LibraryPrefetcher.parse("{\"processors\": []}").toList().isEmpty());
+        assertTrue(LibraryPrefetcher.parse("{\"libraries\": \"x\"}").toList().isEmpty());
+        assertTrue(LibraryPrefetcher.parse("{\"libraries\": [").toList().isEmpty());
+        assertTrue(LibraryPrefetcher.parse("[]").toList().isEmpty());
+        assertTrue(LibraryPrefetcher.parse("").toList().isEmpty());
+    }
+
+    @Test
+    @DisplayName("库路径限定在库目录内")
+    public void resolve() {
+        final Path root = Path.of("srv", "libraries").toAbsolutePath().normalize();
+        assertEquals(root.resolve("org/a/a.jar"), LibraryPrefetcher.resolve(root, "org/a/./a.jar"));
+        assertThrows(IllegalStateException.class, () -> LibraryPrefetcher.resolve(root, "../mods/evil.jar"));
+        assertThrows(IllegalStateException.class, () -> LibraryPrefetcher.resolve(root, "org/../../x.jar"));
+        assertThrows(IllegalStateException.class, () -> LibraryPrefetcher.resolve(root, root.resolveSibling("x.jar").toString()));
+        assertThrows(IllegalStateException.class, () -> LibraryPrefetcher.resolve(root, "."));
+    }
+}
@@ -0,0 +1,80 @@
+package cloud.dbug.pack2server;
+
+import cloud.dbug.pack2server.common.fetcher.LibraryPrefetcher;
+import cloud.dbug.pack2server.common.launcher.LaunchScript;
+import cloud.dbug.pack2server.common.launcher.enums.LaunchProfile;
+import cloud.dbug.pack2server.common.lock.LockFile;
+import cloud.dbug.pack2server.common.lock.OverrideIndex;
+import cloud.dbug.pack2server.fixture.ZipFixture;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 锁定文件测试
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public class LockFileTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("锁定文件写出后可完整读回")
+    public void roundTrip() {
+        final LockFile lock = new LockFile(LockFile.SCHEMA,
+                new LockFile.Pack("demo", "1.0", "1.20.1"),
+                new LockFile.Loader("fabric-0.15.2", "fabric-server.jar"),
+                new LockFile.Runtime("/opt/jre", "21.0.4"),
+                List.of(new LockFile.Mod(1, 101, "a.jar", "https://x/a.jar", "aa", "SERVER", "fabric.environment"),
+                        new LockFile.Mod(2, 102, "b.jar", "https://x/b.jar", "bb", "NONE", "unreadable")),
+                new TreeMap<>(Map.of("config/a.toml", "0000abcd")),
+                List.of(new LibraryPrefetcher.Library("org/x/x.jar", "https://x/x.jar", "cc")),
+                new LaunchScript.Tuning(LaunchProfile.LOW_PAUSE, Boolean.TRUE, Boolean.FALSE));
+        lock.write(dir);
+        final LockFile read = LockFile.read(dir).orElseThrow();
+        assertEquals(lock, read);
+        assertTrue(read.mods().getFirst().kept());
+        assertFalse(read.mods().get(1).kept());
+        assertTrue(LockFile.read(dir.resolve("missing")).isEmpty());
+        assertEquals(LaunchScript.Tuning.DEFAULT, LockFile.tuning(null));
+    }
+
+    @Test
+    @DisplayName("zip 中央目录 CRC 与解压后文件 CRC 一致，文件缺失或改动时索引失效")
+    public void overrideIndex() throws IOException {
+        final Map<String, String> entries = new LinkedHashMap<>();
+        for (final String name : List.of("manifest.json", "overrides/config/a.toml", "overrides/scripts/b.zs")) {
+            entries.put(name, name);
+        }
+        final Path pack = ZipFixture.write(dir.resolve("pack.zip"), entries);
+        final Path overrides = dir.resolve("overrides");
+        for (final String name : List.of("config/a.toml", "scripts/b.zs")) {
+            Files.createDirectories(overrides.resolve(name).getParent());
+            try (final OutputStream out = Files.newOutputStream(overrides.resolve(name))) {
+                out.write(("overrides/" + name).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        final SortedMap<String, String> fromZip = OverrideIndex.fromZip(pack, "overrides");
+        assertEquals(List.of("config/a.toml", "scripts/b.zs"), List.copyOf(fromZip.keySet()));
+        assertEquals(fromZip, OverrideIndex.fromDir(overrides));
+        assertTrue(OverrideIndex.intact(overrides, fromZip));
+        Files.writeString(overrides.resolve("config/a.toml"), "changed");
+        assertFalse(OverrideIndex.intact(overrides, fromZip));
+        Files.delete(overrides.resolve("config/a.toml"));
+        assertFalse(OverrideIndex.intact(overrides, fromZip));
+    }
+}
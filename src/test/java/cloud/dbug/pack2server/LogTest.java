@@ -0,0 +1,123 @@
+package cloud.dbug.pack2server;
+
+import cloud.dbug.pack2server.common.log.Log;
+import cloud.dbug.pack2server.common.log.RingBuffer;
+import cloud.dbug.pack2server.common.log.enums.LogFormat;
+import cloud.dbug.pack2server.common.log.enums.LogLevel;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.api.parallel.Isolated;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 异步日志测试
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+@Isolated("日志为全局单例，配置与输出位置会影响同时运行的测试")
+public class LogTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("环形缓冲区：多生产者写入的条目按各自顺序恰好取出一次，满时拒绝写入")
+    public void ring() {
+        final RingBuffer<long[]> ring = new RingBuffer<>(64);
+        final int producers = 8, perProducer = 5000;
+        final List<long[]> drained = new ArrayList<>();
+        try (final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int p = 0; p < producers; p++) {
+                final long producer = p;
+                executor.submit(() -> {
+                    for (long i = 0; i < perProducer; i++) {
+                        while (!ring.offer(new long[]{producer, i})) {
+                            Thread.yield();
+                        }
+                    }
+                });
+            }
+            while (drained.size() < producers * perProducer) {
+                ring.drain(drained::add, 16);
+            }
+        }
+        final long[] next = new long[producers];
+        for (final long[] item : drained) {
+            assertEquals(next[(int) item[0]]++, item[1]);
+        }
+        for (int i = 0; i < 64; i++) {
+            assertTrue(ring.offer(new long[0]));
+        }
+        assertFalse(ring.offer(new long[0]));
+        assertEquals(producers * perProducer + 64, ring.claimed());
+    }
+
+    @Test
+    @DisplayName("静默模式隐藏逐文件明细，JSON 格式输出标签与字段到文件")
+    public void json() throws Exception {
+        final Path file = dir.resolve("logs/p2s.log");
+        try {
+            Log.flush();
+            Log.configure(LogLevel.INFO, LogFormat.JSON, file);
+            assertFalse(Log.enabled(LogLevel.DETAIL));
+            Log.detail("开始下载: {} -> {}", "https://example.com/a.jar", "a.jar");
+            Log.info("[MODS] 全部模组，下载检测完成 | dir={} kept={}", "/srv/mods", 42);
+            Log.error("[BATCH] 转换失败 | output={}", "out", new IllegalStateException("boom"));
+            Log.flush();
+        } finally {
+            Log.configure(LogLevel.DETAIL, LogFormat.TEXT, null);
+        }
+        final List<JSONObject> entries = Files.readAllLines(file).stream().map(JSONUtil::parseObj).toList();
+        assertTrue(entries.stream().noneMatch(entry -> entry.getStr("msg").contains("https://example.com/a.jar")));
+        final List<JSONObject> mods = entries.stream().filter(entry -> Objects.equals("MODS", entry.getStr("tag"))).toList();
+        assertEquals(1, mods.size());
+        final JSONObject info = mods.getFirst();
+        assertEquals("INFO", info.getStr("level"));
+        assertEquals("全部模组，下载检测完成 | dir=/srv/mods kept=42", info.getStr("msg"));
+        assertEquals("42", info.getJSONObject("fields").getStr("kept"));
+        final List<JSONObject> batch = entries.stream().filter(entry -> Objects.equals("BATCH", entry.getStr("tag"))).toList();
+        assertEquals(1, batch.size());
+        final JSONObject error = batch.getFirst();
+        assertEquals("ERROR", error.getStr("level"));
+        assertEquals("out", error.getJSONObject("fields").getStr("output"));
+        assertTrue(error.getStr("error").contains("boom"));
+    }
+
+    @Test
+    @DisplayName("控制台输出保持记录顺序，警告与错误不与普通日志错位")
+    public void consoleOrder() {
+        final PrintStream out = System.out, err = System.err;
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        final PrintStream console = new PrintStream(buffer, Boolean.TRUE, StandardCharsets.UTF_8);
+        try {
+            Log.flush();
+            System.setOut(console);
+            System.setErr(console);
+            Log.info("[ORDER] 1");
+            Log.warn("[ORDER] 2");
+            Log.info("[ORDER] 3");
+            Log.error("[ORDER] 4");
+            Log.info("[ORDER] 5");
+            Log.flush();
+        } finally {
+            System.setOut(out);
+            System.setErr(err);
+        }
+        assertEquals(List.of("[ORDER] 1", "[ORDER] 2", "[ORDER] 3", "[ORDER] 4", "[ORDER] 5"),
+                buffer.toString(StandardCharsets.UTF_8).lines().filter(line -> line.startsWith("[ORDER]")).toList());
+    }
+}
@@ -0,0 +1,84 @@
+package cloud.dbug.pack2server;
+
+import cloud.dbug.pack2server.common.materializer.Materializer;
+import cloud.dbug.pack2server.common.materializer.enums.Strategy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 目录落地测试
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public class MaterializerTest {
+    @TempDir
+    Path dir;
+
+    /**
+     * 构建源目录
+     * @return {@link Path }
+     */
+    private Path source() throws IOException {
+        final Path src = dir.resolve("src");
+        Files.createDirectories(src.resolve("config/sub"));
+        Files.createDirectories(src.resolve("config/empty"));
+        Files.writeString(src.resolve("config/a.toml"), "a");
+        Files.writeString(src.resolve("config/sub/b.toml"), "b");
+        return src;
+    }
+
+    @Test
+    @DisplayName("可丢弃源优先移动")
+    public void disposable() throws IOException {
+        final Path src = source();
+        final Path dest = dir.resolve("dest");
+        final Map<Strategy, Long> hits = Materializer.materialize(src, dest, Boolean.TRUE);
+        assertEquals(2L, hits.values().stream().mapToLong(Long::longValue).sum());
+        assertEquals(2L, hits.get(Strategy.MOVE));
+        assertEquals("b", Files.readString(dest.resolve("config/sub/b.toml")));
+        assertTrue(Files.isDirectory(dest.resolve("config/empty")));
+    }
+
+    @Test
+    @DisplayName("保留源时不移动不硬链接")
+    public void preserved() throws IOException {
+        final Path src = source();
+        final Path dest = dir.resolve("dest");
+        final Map<Strategy, Long> hits = Materializer.materialize(src, dest, Boolean.FALSE);
+        assertFalse(hits.containsKey(Strategy.MOVE));
+        assertFalse(hits.containsKey(Strategy.HARDLINK));
+        assertEquals("a", Files.readString(src.resolve("config/a.toml")));
+        assertEquals("a", Files.readString(dest.resolve("config/a.toml")));
+        assertEquals(2L, hits.values().stream().mapToLong(Long::longValue).sum());
+        assertTrue(Files.isDirectory(dest.resolve("config/empty")));
+        try (final Stream<Path> left = Files.list(dest)) {
+            assertTrue(left.noneMatch(p -> p.getFileName().toString().startsWith(".p2s-reflink")));
+        }
+    }
+
+    @Test
+    @DisplayName("符号链接按原指向重建，不展开为空目录")
+    public void links() throws IOException {
+        final Path src = source();
+        final Path shared = Files.createDirectories(dir.resolve("shared"));
+        Files.writeString(shared.resolve("c.toml"), "c");
+        Files.createSymbolicLink(src.resolve("config/linked"), shared);
+        Files.createSymbolicLink(src.resolve("config/alias.toml"), Path.of("a.toml"));
+        final Path dest = dir.resolve("dest");
+        final Map<Strategy, Long> hits = Materializer.materialize(src, dest, Boolean.FALSE);
+        assertEquals(2L, hits.values().stream().mapToLong(Long::longValue).sum());
+        assertTrue(Files.isSymbolicLink(dest.resolve("config/linked")));
+        assertEquals("c", Files.readString(dest.resolve("config/linked/c.toml")));
+        assertEquals(Path.of("a.toml"), Files.readSymbolicLink(dest.resolve("config/alias.toml")));
+        assertEquals("a", Files.readString(dest.resolve("config/alias.toml")));
+    }
+}
@@ -0,0 +1,81 @@
+package cloud.dbug.pack2server;
+
+import cloud.dbug.pack2server.common.downloader.DownloadScheduler;
+import cloud.dbug.pack2server.common.downloader.Downloader;
+import cloud.dbug.pack2server.common.metrics.MetricsRegistry;
+import cn.hutool.json.JSONObject;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 指标注册表测试
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public class MetricsRegistryTest {
+    @Test
+    @DisplayName("子注册表累加到父注册表，导出 Prometheus 文本与 JSON")
+    public void export() {
+        final MetricsRegistry parent = new MetricsRegistry();
+        final MetricsRegistry run = parent.child();
+        run.counter("p2s_test_bytes_total", "Bytes", "host", "a\"b").add(5);
+        run.timer("p2s_test_seconds", "Time", "stage", "mods").record(Duration.ofMillis(1500));
+        parent.counter("p2s_test_bytes_total", "Bytes", "host", "other").increment();
+        for (int i = 1; i <= 12; i++) {
+            run.slowest("detect", "mod-%d.jar".formatted(i), Duration.ofMillis(i));
+        }
+        final String text = parent.prometheus();
+        assertTrue(text.contains("# TYPE p2s_test_bytes_total counter\n"));
+        assertTrue(text.contains("p2s_test_bytes_total{host=\"a\\\"b\"} 5\n"));
+        assertTrue(text.contains("p2s_test_bytes_total{host=\"other\"} 1\n"));
+        assertTrue(text.contains("p2s_test_seconds_sum{stage=\"mods\"} 1.5\np2s_test_seconds_count{stage=\"mods\"} 1\n"));
+        assertTrue(text.contains("p2s_test_seconds_max{stage=\"mods\"} 1.5\n"));
+        assertFalse(run.prometheus().contains("other"));
+        final JSONObject json = run.toJson();
+        assertEquals(5L, json.getJSONArray("p2s_test_bytes_total").getJSONObject(0).getLong("value"));
+        assertEquals(10, json.getJSONObject("slowest").getJSONArray("detect").size());
+        assertEquals("mod-12.jar", json.getJSONObject("slowest").getJSONArray("detect").getJSONObject(0).getStr("key"));
+        assertThrows(IllegalStateException.class, () -> parent.timer("p2s_test_bytes_total", "Bytes"));
+    }
+
+    @Test
+    @DisplayName("下载器按主机记录请求、流量与重试")
+    public void downloader() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/meta", exchange -> {
+            try (exchange) {
+                if (calls.incrementAndGet() == 1) {
+                    exchange.sendResponseHeaders(503, -1);
+                    return;
+                }
+                final byte[] body = "{\"ok\":\"是\"}".getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            }
+        });
+        server.start();
+        try (final HttpClient client = HttpClient.newHttpClient()) {
+            final MetricsRegistry metrics = new MetricsRegistry();
+            final Downloader downloader = new Downloader(client, new DownloadScheduler(0), metrics);
+            assertEquals("{\"ok\":\"是\"}", downloader.text("http://127.0.0.1:%d/meta".formatted(server.getAddress().getPort())));
+            assertEquals(2, calls.get());
+            final String text = metrics.prometheus();
+            assertTrue(text.contains("p2s_http_retries_total{host=\"127.0.0.1\"} 1\n"));
+            assertTrue(text.contains("p2s_http_requests_total{host=\"127.0.0.1\",status=\"5xx\"} 1\n"));
+            assertTrue(text.contains("p2s_http_requests_total{host=\"127.0.0.1\",status=\"2xx\"} 1\n"));
+            assertTrue(text.contains("p2s_http_received_bytes_total{host=\"127.0.0.1\"} 12\n"));
+        } finally {
+            server.stop(0);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package cloud.dbug.pack2server;
+
+import cloud.dbug.pack2server.common.converter.PackConverter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 转换器测试
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public class PackConverterTest {
+    @Test
+    @DisplayName("转换器实例互相隔离，派生实例共用下载调度")
+    public void isolation() {
+        try (final PackConverter first = PackConverter.builder().downloads(2).apiKey("a").build();
+             final PackConverter second = PackConverter.builder().downloads(2).apiKey("b").build()) {
+            assertNotSame(first.getDownloader(), second.getDownloader());
+            assertNotSame(first.getDownloader().getScheduler(), second.getDownloader().getScheduler());
+            first.getDownloader().getScheduler().shared("mod:1", () -> 1);
+            first.getDownloader().getScheduler().shared("mod:1", () -> 2);
+            assertEquals(1, first.reused());
+            assertEquals(0, second.reused());
+            final PackConverter derived = first.withApiKey("c");
+            assertSame(first.getDownloader(), derived.getDownloader());
+            assertSame(first.getExecutor(), derived.getExecutor());
+            assertNotSame(first.getExecutor(), second.getExecutor());
+            assertNotSame(first.getMods(), derived.getMods());
+            assertSame(first, first.withApiKey(" "));
+        }
+    }
+
+    @Test
+    @DisplayName("关闭转换器时关闭其自建的执行器，外部传入的执行器保持可用")
+    public void close() {
+        final PackConverter own = PackConverter.builder().build();
+        own.close();
+        assertTrue(assertInstanceOf(ExecutorService.class, own.getExecutor()).isShutdown());
+        try (final ExecutorService external = Executors.newVirtualThreadPerTaskExecutor()) {
+            final PackConverter shared = PackConverter.builder().executor(external).build();
+            shared.close();
+            assertSame(external, shared.getExecutor());
+            assertFalse(external.isShutdown());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package cloud.dbug.pack2server;
+
+import cloud.dbug.pack2server.entity.PackManifest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 整合包清单测试
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public class PackManifestTest {
+    @Test
+    @DisplayName("解析清单并优先取主加载器")
+    public void parse() {
+        final PackManifest manifest = PackManifest.parse("""
+                {"name":"demo","version":"1.0","overrides":"overrides",
+                 "minecraft":{"version":"1.20.1","modLoaders":[{"id":"fabric-0.15.2"},{"id":"forge-47.2.0","primary":true}]},
+                 "files":[{"projectID":11,"fileID":101,"required":true},{"projectID":12,"fileID":102}]}
+                """);
+        assertEquals("1.20.1", manifest.getMinecraftVersion());
+        assertEquals("forge", manifest.getLoaderType());
+        assertEquals("47.2.0", manifest.getLoaderVersion());
+        assertEquals(2, manifest.size());
+        assertEquals(12, manifest.projectId(1));
+        assertArrayEquals(new long[]{101, 102}, manifest.fileIds().toArray());
+        assertEquals("overrides", manifest.getOverrides());
+    }
+
+    @Test
+    @DisplayName("覆盖目录取自清单，缺省为 overrides，拒绝越出整合包")
+    public void overrides() {
+        final String template = """
+                {%s"minecraft":{"version":"1.20.1","modLoaders":[{"id":"fabric-0.15.2"}]}}""";
+        assertEquals("overrides", PackManifest.parse(template.formatted("")).getOverrides());
+        assertEquals("files/server", PackManifest.parse(template.formatted("\"overrides\":\"files\\\\server/\",")).getOverrides());
+        assertThrows(IllegalStateException.class, () -> PackManifest.parse(template.formatted("\"overrides\":\"../etc\",")));
+        assertThrows(IllegalStateException.class, () -> PackManifest.parse(template.formatted("\"overrides\":\"C:/x\",")));
+    }
+
+    @Test
+    @DisplayName("集中校验清单格式")
+    public void validate() {
+        assertThrows(IllegalStateException.class, () -> PackManifest.parse("not json"));
+        assertThrows(IllegalStateException.class, () -> PackManifest.parse("""
+                {"minecraft":{"version":"latest","modLoaders":[{"id":"fabric-0.15.2"}]}}"""));
+        assertThrows(IllegalStateException.class, () -> PackManifest.parse("""
+                {"minecraft":{"version":"1.20.1","modLoaders":[]}}"""));
+        assertThrows(IllegalStateException.class, () -> PackManifest.parse("""
+                {"minecraft":{"version":"1.20.1","modLoaders":[{"id":"fabric-0.15.2"}]},"files":[{"projectID":1}]}"""));
+        assertEquals(0, PackManifest.parse("""
+                {"minecraft":{"version":"1.20.1","modLoaders":[{"id":"fabric-0.15.2"}]}}""").size());
+    }
+}
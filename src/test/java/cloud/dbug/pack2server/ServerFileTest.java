@@ -4,6 +4,7 @@ import cloud.dbug.pack2server.annotation.LocalOnly;
 import cloud.dbug.pack2server.common.ServerWorkspace;
 import cloud.dbug.pack2server.common.detector.ServerModDetector;
 import cloud.dbug.pack2server.common.detector.enums.Side;
+import cloud.dbug.pack2server.common.downloader.Downloader;
 import cloud.dbug.pack2server.common.fetcher.JreFetcher;
 import cloud.dbug.pack2server.common.fetcher.LoaderFetcher;
 import cloud.dbug.pack2server.common.fetcher.ModsBulkFetcher;
@@ -63,8 +64,7 @@ public class ServerFileTest {
     @Test
     @DisplayName("模组批量提取")
     public void modsBulkFetcher() {
-        System.setProperty("CF_API_KEY", "123");
-        ModsBulkFetcher.fetch(
+        new ModsBulkFetcher(Downloader.defaults(), "123", ModsBulkFetcher.DEFAULT_MEMORY_SLOTS).fetch(
                 FileUtil.file("E:\\备份\\modpacks\\test\\Fabulously.Optimized-10.2.0-beta.6", ServerWorkspace.MANIFEST).toPath(),
                 FileUtil.file(ServerWorkspace.TEST_DIR, ServerWorkspace.MOD).toPath()
         );
@@ -0,0 +1,77 @@
+package cloud.dbug.pack2server;
+
+import cloud.dbug.pack2server.common.stage.StageGraph;
+import cloud.dbug.pack2server.common.stage.enums.StageStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 阶段依赖图测试
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public class StageGraphTest {
+    @Test
+    @DisplayName("独立阶段并发执行并给出关键路径")
+    public void concurrent() throws Exception {
+        final StageGraph graph = new StageGraph();
+        // 两个独立阶段须同时到达屏障，串行执行时屏障超时
+        final CyclicBarrier together = new CyclicBarrier(2);
+        final StageGraph.Stage<Integer> root = graph.add("root", () -> 1);
+        final StageGraph.Stage<Integer> slow = graph.add("slow", () -> {
+            together.await(5, TimeUnit.SECONDS);
+            Thread.sleep(500);
+            return root.get() + 1;
+        }, root);
+        final StageGraph.Stage<Integer> fast = graph.add("fast", () -> {
+            together.await(5, TimeUnit.SECONDS);
+            Thread.sleep(50);
+            return root.get() + 2;
+        }, root);
+        final StageGraph.Stage<Integer> sum = graph.add("sum", () -> slow.get() + fast.get(), slow, fast);
+        graph.run();
+        assertEquals(5, sum.get());
+        assertEquals(List.of("root", "slow", "sum"), graph.criticalPath().stream().map(StageGraph.Stage::name).toList());
+    }
+
+    @Test
+    @DisplayName("失败取消下游，不影响无关阶段")
+    public void failureCancelsDependents() {
+        final StageGraph graph = new StageGraph();
+        final StageGraph.Stage<Integer> broken = graph.add("broken", () -> {
+            throw new IllegalStateException("boom");
+        });
+        final StageGraph.Stage<Integer> child = graph.add("child", () -> broken.get() + 1, broken);
+        final StageGraph.Stage<Integer> other = graph.add("other", () -> 7);
+        final IllegalStateException error = assertThrows(IllegalStateException.class, graph::run);
+        assertEquals("boom", error.getMessage());
+        assertEquals(StageStatus.FAILED, broken.status());
+        assertEquals(StageStatus.CANCELLED, child.status());
+        assertEquals(StageStatus.DONE, other.status());
+    }
+
+    @Test
+    @DisplayName("中断时停止运行中的阶段并取消下游")
+    public void interrupt() throws Exception {
+        final StageGraph graph = new StageGraph();
+        final StageGraph.Stage<Integer> slow = graph.add("slow", () -> {
+            Thread.sleep(60_000);
+            return 1;
+        });
+        final StageGraph.Stage<Integer> child = graph.add("child", () -> slow.get() + 1, slow);
+        final Thread runner = Thread.ofVirtual().start(() -> assertThrows(InterruptedException.class, graph::run));
+        Thread.sleep(200);
+        runner.interrupt();
+        runner.join(Duration.ofSeconds(5));
+        assertFalse(runner.isAlive());
+        assertEquals(StageStatus.FAILED, slow.status());
+        assertEquals(StageStatus.CANCELLED, child.status());
+    }
+}
@@ -0,0 +1,49 @@
+package cloud.dbug.pack2server;
+
+import cloud.dbug.pack2server.common.stage.StageJournal;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 阶段日志测试
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public class StageJournalTest {
+    @TempDir
+    Path dir;
+
+    /**
+     * 整数编解码
+     */
+    private static final StageJournal.Codec<Integer> INT = new StageJournal.Codec<>(String::valueOf, s -> Optional.of(Integer.parseInt(s)));
+
+    @Test
+    @DisplayName("指纹不变时跳过，变化时重跑")
+    public void resume() throws Exception {
+        final AtomicInteger runs = new AtomicInteger();
+        assertEquals(1, new StageJournal(dir).resume("a", () -> "v1", INT, runs::incrementAndGet).call());
+        // 重新打开，模拟中断后的再次运行
+        assertEquals(1, new StageJournal(dir).resume("a", () -> "v1", INT, runs::incrementAndGet).call());
+        assertEquals(1, runs.get());
+        assertEquals(2, new StageJournal(dir).resume("a", () -> "v2", INT, runs::incrementAndGet).call());
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    @DisplayName("结果失效时重跑")
+    public void invalidResult() throws Exception {
+        final AtomicInteger runs = new AtomicInteger();
+        final StageJournal.Codec<Integer> stale = new StageJournal.Codec<>(String::valueOf, _ -> Optional.empty());
+        new StageJournal(dir).resume("b", () -> "v1", stale, runs::incrementAndGet).call();
+        new StageJournal(dir).resume("b", () -> "v1", stale, runs::incrementAndGet).call();
+        assertEquals(2, runs.get());
+    }
+}
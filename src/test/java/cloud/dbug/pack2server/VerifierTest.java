@@ -0,0 +1,55 @@
+package cloud.dbug.pack2server;
+
+import cloud.dbug.pack2server.common.digest.FileDigest;
+import cloud.dbug.pack2server.common.verify.Verifier;
+import cloud.dbug.pack2server.common.verify.enums.VerifyStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 文件校验测试
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public class VerifierTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("内存映射摘要与已知值一致")
+    public void digest() throws IOException {
+        final Path empty = Files.createFile(dir.resolve("empty"));
+        final Path abc = Files.writeString(dir.resolve("abc"), "abc");
+        assertEquals("da39a3ee5e6b4b0d3255bfef95601890afd80709", FileDigest.sha1(empty));
+        assertEquals("a9993e364706816aba3e25717850c26c9cd0d89d", FileDigest.sha1(abc));
+        assertEquals(FileDigest.hex("SHA-1", "abc".getBytes()), FileDigest.sha1(abc));
+    }
+
+    @Test
+    @DisplayName("识别缺失与损坏的文件")
+    public void check() throws IOException {
+        final byte[] bytes = new byte[256 * 1024];
+        new Random(1).nextBytes(bytes);
+        final Path good = Files.write(dir.resolve("good.jar"), bytes);
+        final String sha1 = FileDigest.sha1(good);
+        final Path bad = Files.write(dir.resolve("bad.jar"), new byte[]{1, 2, 3});
+        final List<Verifier.Outcome> outcomes = Verifier.check(List.of(
+                new Verifier.Target(good, sha1, null),
+                new Verifier.Target(bad, sha1, null),
+                new Verifier.Target(dir.resolve("missing.jar"), sha1, null),
+                new Verifier.Target(good, null, null)
+        ));
+        assertEquals(List.of(VerifyStatus.OK, VerifyStatus.CORRUPT, VerifyStatus.MISSING, VerifyStatus.UNCHECKED),
+                outcomes.stream().map(Verifier.Outcome::status).toList());
+        assertEquals(VerifyStatus.FAILED, Verifier.repair(outcomes).get(1).status());
+    }
+}
@@ -0,0 +1,64 @@
+package cloud.dbug.pack2server;
+
+import cloud.dbug.pack2server.common.runner.WarmupRunner;
+import cloud.dbug.pack2server.common.runner.enums.WarmupStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 首次运行预热测试
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+@DisabledOnOs(OS.WINDOWS)
+public class WarmupRunnerTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("就绪后发送 stop 正常退出")
+    public void readyThenStop() {
+        final WarmupRunner.Result result = WarmupRunner.run(
+                List.of("sh", "-c", "echo 'Done (1.0s)! For help, type \"help\"'; read cmd; [ \"$cmd\" = stop ] && exit 0; exit 3"),
+                dir, Duration.ofSeconds(30)
+        );
+        assertEquals(WarmupStatus.READY, result.status());
+        assertNotNull(result.timeToReady());
+        assertEquals(0, result.exitCode());
+    }
+
+    @Test
+    @DisplayName("无响应时按超时终止")
+    public void timeout() {
+        final WarmupRunner.Result result = WarmupRunner.run(List.of("sh", "-c", "sleep 60"), dir, Duration.ofMillis(300), Duration.ofMillis(300));
+        assertEquals(WarmupStatus.TIMEOUT, result.status());
+        assertNull(result.timeToReady());
+    }
+
+    @Test
+    @DisplayName("退出前的最后几行仍参与判定")
+    public void classifyBeforeExit() {
+        final WarmupRunner.Result failed = WarmupRunner.run(List.of("sh", "-c", "echo 'Failed to start the minecraft server'; exit 1"), dir, Duration.ofSeconds(30));
+        assertEquals(WarmupStatus.FAILED, failed.status());
+        final WarmupRunner.Result exited = WarmupRunner.run(List.of("sh", "-c", "echo starting; exit 1"), dir, Duration.ofSeconds(30));
+        assertEquals(WarmupStatus.EXITED, exited.status());
+        assertEquals(1, exited.exitCode());
+    }
+
+    @Test
+    @DisplayName("停止宽限期计入硬超时")
+    public void graceWithinTimeout() {
+        final WarmupRunner.Result result = WarmupRunner.run(List.of("sh", "-c", "trap '' TERM; sleep 60"), dir, Duration.ofSeconds(1), Duration.ofSeconds(90));
+        assertEquals(WarmupStatus.TIMEOUT, result.status());
+        assertTrue(result.total().compareTo(Duration.ofSeconds(3)) < 0, result.total().toString());
+    }
+}
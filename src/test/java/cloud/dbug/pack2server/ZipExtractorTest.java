@@ -0,0 +1,80 @@
+package cloud.dbug.pack2server;
+
+import cloud.dbug.pack2server.common.ServerWorkspace;
+import cloud.dbug.pack2server.common.extractor.ZipExtractor;
+import cloud.dbug.pack2server.fixture.ZipFixture;
+import cn.hutool.core.io.IORuntimeException;
+import cn.hutool.core.util.StrUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 并行解压测试
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+public class ZipExtractorTest {
+    @TempDir
+    Path dir;
+
+    /**
+     * 生成测试 zip
+     * @param entries 条目
+     * @return {@link Path }
+     */
+    private Path zip(final Map<String, String> entries) throws IOException {
+        return ZipFixture.write(dir.resolve("pack.zip"), entries);
+    }
+
+    @Test
+    @DisplayName("并行解压")
+    public void extract() throws IOException {
+        final Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("manifest.json", "{}");
+        entries.put("overrides/", "");
+        for (int i = 0; i < 200; i++) {
+            entries.put("overrides/config/c%d/f%d.toml".formatted(i % 7, i), "v=%d".formatted(i));
+        }
+        final Path zip = zip(entries);
+        assertTrue(ZipExtractor.isZip(zip));
+        final Path out = dir.resolve("out");
+        assertEquals(201, ZipExtractor.extract(zip, out));
+        assertEquals("v=42", Files.readString(out.resolve("overrides/config/c0/f42.toml")));
+        assertEquals("{}", Files.readString(out.resolve("manifest.json")));
+    }
+
+    @Test
+    @DisplayName("拒绝 zip-slip")
+    public void zipSlip() throws IOException {
+        final Path zip = zip(Map.of("../evil.txt", "x"));
+        assertThrows(IORuntimeException.class, () -> ZipExtractor.extract(zip, dir.resolve("out")));
+        assertFalse(Files.exists(dir.resolve("evil.txt")));
+    }
+
+    @Test
+    @DisplayName("覆盖文件直接释放")
+    public void directOverrides() throws IOException {
+        final Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("manifest.json", "{\"name\":\"demo\"}");
+        entries.put("files/", "");
+        entries.put("files/config/a.toml", "a");
+        entries.put("overrides/config/b.toml", "b");
+        entries.put("modlist.html", "x");
+        final Path zip = zip(entries);
+        final Path server = dir.resolve("server");
+        assertEquals(1, ServerWorkspace.EXTRACT_OVERRIDES.get(zip, server, "files"));
+        assertEquals("a", Files.readString(server.resolve("config/a.toml")));
+        assertFalse(Files.exists(server.resolve("config/b.toml")));
+        assertFalse(Files.exists(server.resolve("modlist.html")));
+        assertEquals("{\"name\":\"demo\"}", StrUtil.utf8Str(ZipExtractor.read(zip, "manifest.json").orElseThrow()));
+    }
+}
@@ -0,0 +1,37 @@
+package cloud.dbug.pack2server.fixture;
+
+import cn.hutool.core.util.StrUtil;
+import lombok.experimental.UtilityClass;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 测试用 zip/jar 生成
+ * @author 拒绝者
+ * @date 2026-10-18
+ */
+@UtilityClass
+public class ZipFixture {
+    /**
+     * 按条目顺序写出 zip
+     * @param file    目标文件
+     * @param entries 条目名与 UTF-8 内容
+     * @return {@link Path }
+     */
+    public static Path write(final Path file, final Map<String, String> entries) throws IOException {
+        try (final OutputStream out = Files.newOutputStream(file); final ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (final Map.Entry<String, String> e : entries.entrySet()) {
+                zip.putNextEntry(new ZipEntry(e.getKey()));
+                zip.write(StrUtil.utf8Bytes(e.getValue()));
+                zip.closeEntry();
+            }
+        }
+        return file;
+    }
+}